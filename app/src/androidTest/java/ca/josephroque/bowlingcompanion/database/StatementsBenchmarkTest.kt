@@ -0,0 +1,177 @@
+package ca.josephroque.bowlingcompanion.database
+
+import android.content.ContentValues
+import android.database.sqlite.SQLiteDatabase
+import android.support.test.runner.AndroidJUnit4
+import android.util.Log
+import ca.josephroque.bowlingcompanion.database.Contract.FrameEntry
+import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
+import ca.josephroque.bowlingcompanion.games.Frame
+import ca.josephroque.bowlingcompanion.games.Game
+import ca.josephroque.bowlingcompanion.games.PackedFrames
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Compares the cost of saving the packed frames of a game with [ContentValues] against saving them
+ * with a precompiled statement from [Statements]. Saving a frame as its own row, as frames were
+ * saved before they were packed into their game, is timed separately. Also checks the packed
+ * frames are read back unchanged.
+ */
+@RunWith(AndroidJUnit4::class)
+class StatementsBenchmarkTest {
+
+    companion object {
+        private const val TAG = "StatementsBenchmark"
+
+        /** Saves made before timing, so both paths are measured with a warm cache. */
+        private const val WARM_UP_SAVES = 200
+
+        private const val TIMED_SAVES = 5000
+
+        private const val GAME_ID = 1L
+
+        private const val SCORE = 150
+    }
+
+    private lateinit var database: SQLiteDatabase
+    private lateinit var statements: Statements
+    private lateinit var frames: List<Frame>
+
+    @Before
+    fun setUp() {
+        database = SQLiteDatabase.create(null)
+        database.execSQL("CREATE TABLE ${GameEntry.TABLE_NAME} (" +
+                "${GameEntry._ID} INTEGER PRIMARY KEY, " +
+                "${GameEntry.COLUMN_SCORE} INTEGER NOT NULL DEFAULT 0, " +
+                "${GameEntry.COLUMN_FRAMES} BLOB)")
+        database.execSQL("CREATE TABLE legacy_frames (" +
+                "${FrameEntry._ID} INTEGER PRIMARY KEY, " +
+                "${FrameEntry.COLUMN_FRAME_NUMBER} INTEGER NOT NULL, " +
+                "${FrameEntry.COLUMN_IS_ACCESSED} INTEGER NOT NULL DEFAULT 0, " +
+                FrameEntry.COLUMN_PIN_STATE.joinToString("") { "$it INTEGER NOT NULL DEFAULT 0, " } +
+                "${FrameEntry.COLUMN_FOULS} INTEGER NOT NULL DEFAULT 0, " +
+                "${FrameEntry.COLUMN_GAME_ID} INTEGER NOT NULL)")
+
+        database.insert(GameEntry.TABLE_NAME, null, ContentValues().apply { put(GameEntry._ID, GAME_ID) })
+
+        // Compiled against the test's database, without replacing the statements used by the app
+        statements = Statements(database)
+
+        val random = Random(0)
+        frames = (1..Game.NUMBER_OF_FRAMES).map { ordinal ->
+            val id = PackedFrames.frameId(GAME_ID, ordinal - 1)
+            database.insert("legacy_frames", null, ContentValues().apply {
+                put(FrameEntry._ID, id)
+                put(FrameEntry.COLUMN_FRAME_NUMBER, ordinal)
+                put(FrameEntry.COLUMN_GAME_ID, GAME_ID)
+            })
+
+            Frame(
+                    gameId = GAME_ID,
+                    id = id,
+                    ordinal = ordinal,
+                    isAccessed = random.nextBoolean(),
+                    pinState = Array(Frame.NUMBER_OF_BALLS) { Deck.fromInt(random.nextInt(Deck.NUMBER_OF_STATES)) },
+                    ballFouled = BooleanArray(Frame.NUMBER_OF_BALLS) { random.nextBoolean() }
+            )
+        }
+    }
+
+    @After
+    fun tearDown() {
+        statements.close()
+        database.close()
+    }
+
+    @Test
+    fun packedFramesReadBackUnchanged() {
+        statements.updateFrames(GAME_ID, SCORE, PackedFrames.pack(frames))
+
+        val cursor = database.query(GameEntry.TABLE_NAME,
+                arrayOf(GameEntry.COLUMN_SCORE, GameEntry.COLUMN_FRAMES),
+                "${GameEntry._ID}=?",
+                arrayOf(GAME_ID.toString()),
+                null, null, null)
+        cursor.use {
+            it.moveToFirst()
+            assertEquals(SCORE, it.getInt(0))
+
+            val savedFrames = PackedFrames.unpack(GAME_ID, it.getBlob(1))
+            assertEquals(frames.size, savedFrames.size)
+            for ((expected, actual) in frames.zip(savedFrames)) {
+                assertEquals(expected.id, actual.id)
+                assertEquals(expected.ordinal, actual.ordinal)
+                assertEquals(expected.isAccessed, actual.isAccessed)
+                for (ballIdx in 0 until Frame.NUMBER_OF_BALLS) {
+                    assertSame(expected.pinState[ballIdx], actual.pinState[ballIdx])
+                }
+                assertArrayEquals(expected.ballFouled, actual.ballFouled)
+            }
+        }
+    }
+
+    @Test
+    fun benchmarkFrameSave() {
+        val contentValuesMicros = timeSaves { updateFramesWithContentValues(PackedFrames.pack(frames)) }
+        val statementMicros = timeSaves { statements.updateFrames(GAME_ID, SCORE, PackedFrames.pack(frames)) }
+        Log.i(TAG, "Frame save: ContentValues=${contentValuesMicros}us, Statements=${statementMicros}us")
+
+        val frameRowMicros = timeSaves { updateFrameRow(frames[it % frames.size]) }
+        Log.i(TAG, "Frame save before frames were packed: frame row with ContentValues=${frameRowMicros}us")
+    }
+
+    // MARK: Private functions
+
+    /** @return the average time of a single save, in microseconds */
+    private fun timeSaves(save: (Int) -> Unit): Double {
+        repeat(WARM_UP_SAVES) { save(it) }
+
+        database.beginTransaction()
+        val start = System.nanoTime()
+        try {
+            repeat(TIMED_SAVES) { save(it) }
+            database.setTransactionSuccessful()
+        } finally {
+            database.endTransaction()
+        }
+
+        return (System.nanoTime() - start) / 1000.0 / TIMED_SAVES
+    }
+
+    /** Save the score and frames of a game the way they were saved before [Statements]. */
+    private fun updateFramesWithContentValues(packedFrames: ByteArray) {
+        val values = ContentValues().apply {
+            put(GameEntry.COLUMN_SCORE, SCORE)
+            put(GameEntry.COLUMN_FRAMES, packedFrames)
+        }
+        database.update(GameEntry.TABLE_NAME, values, "${GameEntry._ID}=?", arrayOf(GAME_ID.toString()))
+    }
+
+    /** Save a frame and the score of its game the way they were saved before frames were packed. */
+    private fun updateFrameRow(frame: Frame) {
+        val scoreValues = ContentValues().apply { put(GameEntry.COLUMN_SCORE, SCORE) }
+        database.update(GameEntry.TABLE_NAME, scoreValues, "${GameEntry._ID}=?", arrayOf(frame.gameId.toString()))
+
+        val values = ContentValues().apply {
+            for (i in 0 until Frame.NUMBER_OF_BALLS) {
+                put(FrameEntry.COLUMN_PIN_STATE[i], frame.pinState[i].mask)
+            }
+            put(FrameEntry.COLUMN_IS_ACCESSED, if (frame.isAccessed) 1 else 0)
+            put(FrameEntry.COLUMN_FOULS, frame.dbFouls)
+        }
+        database.update("legacy_frames",
+                values,
+                "${FrameEntry._ID}=?",
+                arrayOf(frame.id.toString()))
+    }
+}
@@ -8,6 +8,8 @@ import android.arch.lifecycle.OnLifecycleEvent
 import android.content.Context
 import android.support.v7.preference.PreferenceManager
 import android.view.inputmethod.InputMethodManager
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
+import ca.josephroque.bowlingcompanion.database.Saviour
 import java.util.concurrent.atomic.AtomicBoolean
 
 /**
@@ -49,6 +51,11 @@ class App : Application(), LifecycleObserver {
     @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
     fun onAppBackgrounded() {
         isRunning.set(false)
+
+        // Commit saves which are still being held, in case the app is killed
+        Saviour.instance.wait()
+
+        DatabaseDispatchers.reportMetrics()
     }
 
     @OnLifecycleEvent(Lifecycle.Event.ON_START)
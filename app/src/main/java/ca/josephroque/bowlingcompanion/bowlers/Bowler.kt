@@ -14,9 +14,9 @@ import ca.josephroque.bowlingcompanion.database.Annihilator
 import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
 import ca.josephroque.bowlingcompanion.database.Contract.LeagueEntry
 import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
 import ca.josephroque.bowlingcompanion.leagues.League
 import ca.josephroque.bowlingcompanion.settings.Settings
-import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.async
 import java.text.SimpleDateFormat
@@ -24,6 +24,7 @@ import java.util.Date
 import java.util.Locale
 import ca.josephroque.bowlingcompanion.database.Contract.BowlerEntry
 import ca.josephroque.bowlingcompanion.database.DatabaseManager
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
 import ca.josephroque.bowlingcompanion.scoring.Average
 import ca.josephroque.bowlingcompanion.utils.BCError
 import ca.josephroque.bowlingcompanion.utils.Preferences
@@ -95,13 +96,14 @@ class Bowler(
     }
 
     override fun delete(context: Context): Deferred<Unit> {
-        return async(CommonPool) {
+        return async(DatabaseDispatchers.Writer) {
             if (id < 0) {
                 return@async
             }
 
             Annihilator.instance.delete(
                     weakContext = WeakReference(context),
+                    scope = DatabaseScope.bowler(id),
                     tableName = BowlerEntry.TABLE_NAME,
                     whereClause = "${BowlerEntry._ID}=?",
                     whereArgs = arrayOf(id.toString())
@@ -131,7 +133,7 @@ class Bowler(
         private fun isBowlerNameValid(name: String): Boolean = REGEX_NAME.matches(name)
 
         private fun isBowlerNameUnique(context: Context, name: String, id: Long = -1): Deferred<Boolean> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val database = DatabaseManager.getReadableDatabase(context).await()
 
                 var cursor: Cursor? = null
@@ -160,7 +162,7 @@ class Bowler(
         }
 
         private fun validateSavePreconditions(context: Context, id: Long, name: String): Deferred<BCError?> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val errorTitle = R.string.issue_saving_bowler
                 val errorMessage: Int? = if (!isBowlerNameValid(name)) {
                     R.string.error_bowler_name_invalid
@@ -187,7 +189,7 @@ class Bowler(
         }
 
         private fun createNewAndSave(context: Context, name: String): Deferred<Pair<Bowler?, BCError?>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Writer) {
                 val error = validateSavePreconditions(context, -1, name).await()
                 if (error != null) {
                     return@async Pair(null, error)
@@ -233,7 +235,7 @@ class Bowler(
         }
 
         private fun update(context: Context, id: Long, name: String, average: Double): Deferred<Pair<Bowler?, BCError?>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Writer) {
                 val error = validateSavePreconditions(context, id, name).await()
                 if (error != null) {
                     return@async Pair(null, error)
@@ -267,7 +269,7 @@ class Bowler(
         }
 
         fun fetch(context: Context, id: Long): Deferred<Bowler?> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val bowlerList = fetchAll(context, id).await()
                 if (bowlerList.size == 1) {
                     bowlerList[0]
@@ -278,9 +280,12 @@ class Bowler(
         }
 
         fun fetchAll(context: Context, filterId: Long = -1): Deferred<MutableList<Bowler>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val bowlers: MutableList<Bowler> = ArrayList()
-                val database = DatabaseManager.getReadableDatabase(context).await()
+
+                // Averages of every bowler are listed, unless a single bowler is fetched
+                val scope = if (filterId >= 0) DatabaseScope.bowler(filterId) else DatabaseScope.All
+                val database = DatabaseManager.getReadableDatabase(context, scope).await()
 
                 val preferences = PreferenceManager.getDefaultSharedPreferences(context)
                 val includeEvents = Settings.BooleanSetting.IncludeEvents.getValue(preferences)
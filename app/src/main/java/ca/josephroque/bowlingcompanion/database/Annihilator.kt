@@ -1,26 +1,20 @@
 package ca.josephroque.bowlingcompanion.database
 
 import android.content.Context
-import android.util.Log
-import ca.josephroque.bowlingcompanion.App
-import ca.josephroque.bowlingcompanion.common.Android
 import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.CoroutineStart
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.Job
 import kotlinx.coroutines.experimental.async
-import kotlinx.coroutines.experimental.delay
 import kotlinx.coroutines.experimental.launch
 import java.lang.ref.WeakReference
-import java.util.LinkedList
-import java.util.Queue
-import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.ConcurrentLinkedQueue
 
 /**
  * Copyright (C) 2018 Joseph Roque
  *
  * Managing deleting from the database synchronously and waiting for deletion tasks
- * to finish before other database tasks can process.
+ * to finish before other database tasks which read the deleted data can process.
  */
 class Annihilator private constructor() {
 
@@ -33,31 +27,33 @@ class Annihilator private constructor() {
 
     private object Holder { val INSTANCE = Annihilator() }
 
-    private var annihilatorIsRunning = AtomicBoolean(false)
+    private class Deletion(val scope: DatabaseScope, val job: Job)
 
-    private val deletionQueue: Queue<Job> = LinkedList()
-
-    init {
-        launchAnnihilatorProcessor()
-    }
+    private val pendingDeletions = ConcurrentLinkedQueue<Deletion>()
 
     // MARK: Annihilator
 
-    fun wait(): Deferred<Unit> {
+    /** Wait for pending deletions which conflict with [scope] to finish. */
+    fun wait(scope: DatabaseScope = DatabaseScope.All): Deferred<Unit> {
         return async(CommonPool) {
-            launchAnnihilatorProcessor()
-            while (deletionQueue.isNotEmpty()) {
-                delay(50)
+            for (deletion in pendingDeletions) {
+                if (deletion.scope.conflictsWith(scope)) {
+                    deletion.job.join()
+                }
             }
         }
     }
 
-    fun delete(weakContext: WeakReference<Context>, tableName: String, whereClause: String, whereArgs: Array<String>) {
-        val job = launch(context = Android, start = CoroutineStart.LAZY) {
+    fun delete(weakContext: WeakReference<Context>, scope: DatabaseScope, tableName: String, whereClause: String, whereArgs: Array<String>) {
+        // Deletions run in the order they are made, since the writer only has a single thread.
+        // The deletion is queued before it starts, so a read can't miss it and see rows about to be deleted
+        val job = launch(DatabaseDispatchers.Writer, CoroutineStart.LAZY) {
             val strongContext = weakContext.get() ?: return@launch
             val database = DatabaseHelper.getInstance(strongContext).writableDatabase
             database.beginTransaction()
             try {
+                // Leaves the statistics of affected leagues out of date, so they are built again
+                DataVersion.rowsDeleted(database, tableName, whereClause, whereArgs)
                 database.delete(tableName, whereClause, whereArgs)
                 database.setTransactionSuccessful()
             } catch (e: Exception) {
@@ -69,29 +65,9 @@ class Annihilator private constructor() {
             }
         }
 
-        deletionQueue.offer(job)
-        launchAnnihilatorProcessor()
-    }
-
-    // MARK: Private functions
-
-    private fun launchAnnihilatorProcessor() {
-        if (annihilatorIsRunning.get()) {
-            return
-        }
-
-        annihilatorIsRunning.set(true)
-        launch(CommonPool) {
-            while (App.isRunning.get() || deletionQueue.isNotEmpty()) {
-                val deletionRoutine = deletionQueue.poll()
-                if (!deletionRoutine.isCompleted && !deletionRoutine.isCancelled) {
-                    deletionRoutine.join()
-                } else {
-                    Log.e(TAG, "Annihilator thread already processed - $deletionRoutine")
-                }
-            }
-
-            annihilatorIsRunning.set(false)
-        }
+        val deletion = Deletion(scope, job)
+        pendingDeletions.offer(deletion)
+        job.invokeOnCompletion { pendingDeletions.remove(deletion) }
+        job.start()
     }
 }
@@ -22,6 +22,8 @@ public final class Contract {
         public static final String COLUMN_BOWLER_NAME = "bowler_name";
         /** Name of the column for bowlers' most recent date modified. */
         public static final String COLUMN_DATE_MODIFIED = "bowler_date_modified";
+        /** Name of the column for the version of the bowler's games, incremented when they change. */
+        public static final String COLUMN_DATA_VERSION = "bowler_data_version";
 
         /**
          * Private constructor, class cannot be instantiated.
@@ -75,6 +77,8 @@ public final class Contract {
         public static final String COLUMN_IS_EVENT = "league_is_event";
         /** Name of the column for foreign key to a bowler id. */
         public static final String COLUMN_BOWLER_ID = "league_bowler_id_fk";
+        /** Name of the column for the version of the league's games, incremented when they change. */
+        public static final String COLUMN_DATA_VERSION = "league_data_version";
 
         /**
          * Private constructor, class cannot be instantiated.
@@ -125,6 +129,8 @@ public final class Contract {
         public static final String COLUMN_MATCH_PLAY = "game_match_play";
         /** Name of the column for foreign key to a series id. */
         public static final String COLUMN_SERIES_ID = "game_series_id_fk";
+        /** Name of the column for the pins and fouls of every frame in the game, packed into a blob. */
+        public static final String COLUMN_FRAMES = "game_frames";
 
         /**
          * Private constructor, class cannot be instantiated.
@@ -135,12 +141,13 @@ public final class Contract {
     }
 
     /**
-     * Table and column names for SQLite table relevant to frames.
+     * Table and column names for SQLite table relevant to frames. Frames are stored in
+     * {@link GameEntry#COLUMN_FRAMES}, and this table is only a view of them, with a row for each frame.
      */
     public static final class FrameEntry
             implements BaseColumns {
 
-        /** Name of the table for frame data. */
+        /** Name of the view for frame data. */
         public static final String TABLE_NAME = "frames";
         /** Name of the column for the frame number in a game. */
         public static final String COLUMN_FRAME_NUMBER = "frame_number";
@@ -221,6 +228,54 @@ public final class Contract {
         }
     }
 
+    /**
+     * Table and column names for SQLite table relevant to cached statistics.
+     */
+    public static final class StatisticsCacheEntry
+            implements BaseColumns {
+
+        /** Name of the table for cached statistics. */
+        public static final String TABLE_NAME = "statistics_cache";
+        /** Name of the column for the unit and preferences the statistics were built for. */
+        public static final String COLUMN_CACHE_KEY = "cache_key";
+        /** Name of the column for the version of the data the statistics were built from. */
+        public static final String COLUMN_DATA_VERSION = "cache_data_version";
+        /** Name of the column for the statistics. */
+        public static final String COLUMN_STATISTICS = "cache_statistics";
+
+        /**
+         * Private constructor, class cannot be instantiated.
+         */
+        private StatisticsCacheEntry() {
+            // does nothing
+        }
+    }
+
+    /**
+     * Table and column names for SQLite table relevant to statistics aggregated for each league.
+     */
+    public static final class LeagueStatisticsEntry
+            implements BaseColumns {
+
+        /** Name of the table for league statistics. */
+        public static final String TABLE_NAME = "league_statistics";
+        /** Name of the column for the league the statistics belong to. */
+        public static final String COLUMN_LEAGUE_ID = "league_id";
+        /** Name of the column for the preferences the statistics were built with. */
+        public static final String COLUMN_PREFERENCES = "league_statistics_preferences";
+        /** Name of the column for the version of the league the statistics are up to date with. */
+        public static final String COLUMN_DATA_VERSION = "league_statistics_data_version";
+        /** Name of the column for the statistics. */
+        public static final String COLUMN_STATISTICS = "league_statistics";
+
+        /**
+         * Private constructor, class cannot be instantiated.
+         */
+        private LeagueStatisticsEntry() {
+            // does nothing
+        }
+    }
+
     /**
      * Private constructor, class cannot be instantiated.
      */
@@ -0,0 +1,127 @@
+package ca.josephroque.bowlingcompanion.database
+
+import android.database.sqlite.SQLiteDatabase
+import android.provider.BaseColumns
+import ca.josephroque.bowlingcompanion.database.Contract.BowlerEntry
+import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
+import ca.josephroque.bowlingcompanion.database.Contract.LeagueEntry
+import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
+import ca.josephroque.bowlingcompanion.database.Contract.StatisticsCacheEntry
+import ca.josephroque.bowlingcompanion.database.Contract.TeamBowlerEntry
+import ca.josephroque.bowlingcompanion.database.Contract.TeamEntry
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Versions of each bowler's and league's games, which are incremented whenever a game is saved or
+ * deleted, so statistics built from an older version can be found and rebuilt. Versions should be
+ * incremented in the same transaction as the change.
+ */
+object DataVersion {
+
+    @Suppress("unused")
+    private const val TAG = "DataVersion"
+
+    private val incrementLeagueVersion = "UPDATE ${LeagueEntry.TABLE_NAME} " +
+            "SET ${LeagueEntry.COLUMN_DATA_VERSION}=${LeagueEntry.COLUMN_DATA_VERSION}+1 "
+
+    private val incrementBowlerVersion = "UPDATE ${BowlerEntry.TABLE_NAME} " +
+            "SET ${BowlerEntry.COLUMN_DATA_VERSION}=${BowlerEntry.COLUMN_DATA_VERSION}+1 "
+
+    // MARK: Increment
+
+    /** Increment the versions of the league and bowler a game belongs to. */
+    fun gameChanged(database: SQLiteDatabase, gameId: Long) {
+        val leagueId = "SELECT ${SeriesEntry.COLUMN_LEAGUE_ID} FROM ${SeriesEntry.TABLE_NAME} " +
+                "WHERE ${SeriesEntry._ID}=(" +
+                    "SELECT ${GameEntry.COLUMN_SERIES_ID} FROM ${GameEntry.TABLE_NAME} WHERE ${GameEntry._ID}=?" +
+                ")"
+        incrementVersions(database, leagueId, arrayOf(gameId.toString()))
+    }
+
+    /** Increment the versions of a league and its bowler. */
+    fun leagueChanged(database: SQLiteDatabase, leagueId: Long) {
+        incrementVersions(database, "?", arrayOf(leagueId.toString()))
+    }
+
+    /**
+     * Increment the versions of everything which rows about to be deleted from [tableName] belong
+     * to. Deleting a bowler, league, or team removes every cached statistic, so a new row which
+     * reuses the ID cannot see them.
+     */
+    fun rowsDeleted(database: SQLiteDatabase, tableName: String, whereClause: String, whereArgs: Array<String>) {
+        when (tableName) {
+            GameEntry.TABLE_NAME -> {
+                val leagueId = "SELECT ${SeriesEntry.COLUMN_LEAGUE_ID} FROM ${SeriesEntry.TABLE_NAME} " +
+                        "WHERE ${SeriesEntry._ID} IN (" +
+                            "SELECT ${GameEntry.COLUMN_SERIES_ID} FROM ${GameEntry.TABLE_NAME} WHERE $whereClause" +
+                        ")"
+                incrementVersions(database, leagueId, whereArgs)
+            }
+            SeriesEntry.TABLE_NAME -> {
+                val leagueId = "SELECT ${SeriesEntry.COLUMN_LEAGUE_ID} FROM ${SeriesEntry.TABLE_NAME} WHERE $whereClause"
+                incrementVersions(database, leagueId, whereArgs)
+            }
+            LeagueEntry.TABLE_NAME, BowlerEntry.TABLE_NAME, TeamEntry.TABLE_NAME -> {
+                if (tableName == LeagueEntry.TABLE_NAME) {
+                    val leagueId = "SELECT ${LeagueEntry._ID} FROM ${LeagueEntry.TABLE_NAME} WHERE $whereClause"
+                    incrementVersions(database, leagueId, whereArgs)
+                }
+                database.delete(StatisticsCacheEntry.TABLE_NAME, null, null)
+            }
+        }
+    }
+
+    // MARK: Read
+
+    fun getBowlerVersion(database: SQLiteDatabase, bowlerId: Long): Long {
+        return readVersion(database, BowlerEntry.TABLE_NAME, BowlerEntry.COLUMN_DATA_VERSION, bowlerId)
+    }
+
+    fun getLeagueVersion(database: SQLiteDatabase, leagueId: Long): Long {
+        return readVersion(database, LeagueEntry.TABLE_NAME, LeagueEntry.COLUMN_DATA_VERSION, leagueId)
+    }
+
+    /** Get the ID and version of each bowler on a team, in the form `id:version,id:version`. */
+    fun getTeamVersion(database: SQLiteDatabase, teamId: Long): String {
+        val query = "SELECT bowler.${BowlerEntry._ID}, bowler.${BowlerEntry.COLUMN_DATA_VERSION} " +
+                "FROM ${TeamBowlerEntry.TABLE_NAME} AS teamBowlers " +
+                "INNER JOIN ${BowlerEntry.TABLE_NAME} AS bowler " +
+                "ON teamBowlers.${TeamBowlerEntry.COLUMN_BOWLER_ID}=bowler.${BowlerEntry._ID} " +
+                "WHERE teamBowlers.${TeamBowlerEntry.COLUMN_TEAM_ID}=? " +
+                "ORDER BY bowler.${BowlerEntry._ID}"
+
+        val version = StringBuilder()
+        val cursor = database.rawQuery(query, arrayOf(teamId.toString()))
+        while (cursor.moveToNext()) {
+            if (version.isNotEmpty()) { version.append(',') }
+            version.append(cursor.getLong(0)).append(':').append(cursor.getLong(1))
+        }
+        cursor.close()
+        return version.toString()
+    }
+
+    // MARK: Private functions
+
+    /**
+     * Increment the versions of leagues and their bowlers.
+     *
+     * @param leagueIds SQL expression for the IDs of the leagues
+     * @param args arguments for [leagueIds]
+     */
+    private fun incrementVersions(database: SQLiteDatabase, leagueIds: String, args: Array<String>) {
+        database.execSQL(incrementBowlerVersion +
+                "WHERE ${BowlerEntry._ID} IN (" +
+                    "SELECT ${LeagueEntry.COLUMN_BOWLER_ID} FROM ${LeagueEntry.TABLE_NAME} " +
+                    "WHERE ${LeagueEntry._ID} IN ($leagueIds)" +
+                ")", args)
+        database.execSQL(incrementLeagueVersion + "WHERE ${LeagueEntry._ID} IN ($leagueIds)", args)
+    }
+
+    private fun readVersion(database: SQLiteDatabase, tableName: String, column: String, id: Long): Long {
+        val cursor = database.rawQuery("SELECT $column FROM $tableName WHERE ${BaseColumns._ID}=?", arrayOf(id.toString()))
+        val version = if (cursor.moveToFirst()) cursor.getLong(0) else 0L
+        cursor.close()
+        return version
+    }
+}
@@ -0,0 +1,137 @@
+package ca.josephroque.bowlingcompanion.database
+
+import android.util.Log
+import ca.josephroque.bowlingcompanion.BuildConfig
+import ca.josephroque.bowlingcompanion.utils.Analytics
+import kotlinx.coroutines.experimental.CoroutineDispatcher
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.coroutines.experimental.CoroutineContext
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Threads which database work runs on. Every write runs on the single [Writer] thread, in the
+ * order it was started, and reads share a small pool of [Reader] threads, so neither blocks the
+ * main thread or waits behind statistics being built on the common pool.
+ */
+object DatabaseDispatchers {
+
+    @Suppress("unused")
+    private const val TAG = "DatabaseDispatchers"
+
+    /** Fewest threads to read with, even on devices with a single core. */
+    private const val MIN_READER_THREADS = 2
+
+    /** Most threads to read with, since SQLite does not benefit from many concurrent readers. */
+    private const val MAX_READER_THREADS = 4
+
+    val Writer = MeteredDispatcher("DatabaseWriter", 1)
+
+    val Reader = MeteredDispatcher(
+            "DatabaseReader",
+            Runtime.getRuntime().availableProcessors().coerceIn(MIN_READER_THREADS, MAX_READER_THREADS)
+    )
+
+    // MARK: DatabaseDispatchers
+
+    /** Report how long database work has waited for and run on each dispatcher. */
+    fun reportMetrics() {
+        for (dispatcher in arrayOf(Writer, Reader)) {
+            if (dispatcher.tasksRun == 0L) {
+                continue
+            }
+
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, dispatcher.toString())
+            }
+
+            Analytics.trackDatabaseDispatcher(
+                    dispatcher.name,
+                    dispatcher.tasksRun,
+                    dispatcher.maxQueueDepth,
+                    dispatcher.averageWaitMillis,
+                    dispatcher.averageRunMillis
+            )
+        }
+    }
+
+    /**
+     * Dispatches to a fixed pool of threads, measuring how many tasks are waiting for a thread
+     * and how long they wait and run for.
+     */
+    class MeteredDispatcher(val name: String, threads: Int) : CoroutineDispatcher() {
+
+        private val threadCount = AtomicInteger(0)
+        private val executor: ExecutorService = Executors.newFixedThreadPool(threads, ThreadFactory {
+            Thread(it, "$name-${threadCount.incrementAndGet()}").apply { isDaemon = true }
+        })
+
+        private val queued = AtomicInteger(0)
+        private val maxQueued = AtomicInteger(0)
+        private val dispatched = AtomicLong(0)
+        private val totalWaitNanos = AtomicLong(0)
+        private val totalRunNanos = AtomicLong(0)
+
+        /** Number of tasks waiting for a thread. */
+        val queueDepth: Int
+            get() = queued.get()
+
+        /** Most tasks which have waited for a thread at once. */
+        val maxQueueDepth: Int
+            get() = maxQueued.get()
+
+        /** Number of tasks which have run. */
+        val tasksRun: Long
+            get() = dispatched.get()
+
+        /** Average time tasks have waited for a thread, in milliseconds. */
+        val averageWaitMillis: Double
+            get() = averageMillis(totalWaitNanos)
+
+        /** Average time tasks have run for, in milliseconds. */
+        val averageRunMillis: Double
+            get() = averageMillis(totalRunNanos)
+
+        // MARK: CoroutineDispatcher
+
+        override fun dispatch(context: CoroutineContext, block: Runnable) {
+            val depth = queued.incrementAndGet()
+            while (true) {
+                val max = maxQueued.get()
+                if (depth <= max || maxQueued.compareAndSet(max, depth)) {
+                    break
+                }
+            }
+
+            val dispatchedAt = System.nanoTime()
+            executor.execute {
+                val startedAt = System.nanoTime()
+                queued.decrementAndGet()
+                totalWaitNanos.addAndGet(startedAt - dispatchedAt)
+                try {
+                    block.run()
+                } finally {
+                    totalRunNanos.addAndGet(System.nanoTime() - startedAt)
+                    dispatched.incrementAndGet()
+                }
+            }
+        }
+
+        override fun toString(): String {
+            return "$name(queueDepth=$queueDepth, maxQueueDepth=$maxQueueDepth, tasksRun=$tasksRun, " +
+                    "averageWaitMillis=$averageWaitMillis, averageRunMillis=$averageRunMillis)"
+        }
+
+        // MARK: Private functions
+
+        private fun averageMillis(totalNanos: AtomicLong): Double {
+            val tasks = dispatched.get()
+            return if (tasks == 0L) 0.0 else TimeUnit.NANOSECONDS.toMicros(totalNanos.get()) / 1000.0 / tasks
+        }
+    }
+}
@@ -2,22 +2,30 @@ package ca.josephroque.bowlingcompanion.database;
 
 import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
+import java.util.Arrays;
 import java.util.Locale;
 
 import ca.josephroque.bowlingcompanion.database.Contract.BowlerEntry;
 import ca.josephroque.bowlingcompanion.database.Contract.FrameEntry;
 import ca.josephroque.bowlingcompanion.database.Contract.GameEntry;
 import ca.josephroque.bowlingcompanion.database.Contract.LeagueEntry;
+import ca.josephroque.bowlingcompanion.database.Contract.LeagueStatisticsEntry;
 import ca.josephroque.bowlingcompanion.database.Contract.MatchPlayEntry;
 import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry;
+import ca.josephroque.bowlingcompanion.database.Contract.StatisticsCacheEntry;
 import ca.josephroque.bowlingcompanion.database.Contract.TeamBowlerEntry;
 import ca.josephroque.bowlingcompanion.database.Contract.TeamEntry;
+import ca.josephroque.bowlingcompanion.games.lane.Deck;
 import ca.josephroque.bowlingcompanion.leagues.League;
+import ca.josephroque.bowlingcompanion.scoring.FrameCodec;
 import ca.josephroque.bowlingcompanion.scoring.Fouls;
+import ca.josephroque.bowlingcompanion.scoring.ScoringRules;
 
 /**
  * Copyright (C) 2015 Joseph Roque
@@ -35,7 +43,7 @@ public final class DatabaseHelper
     public static final String DATABASE_NAME = "bowlingdata";
 
     /** Version of the database, incremented with changes. */
-    private static final int DATABASE_VERSION = 7;
+    private static final int DATABASE_VERSION = 11;
 
     /** Singleton instance of the DatabaseHelper. */
     private static DatabaseHelper sDatabaseHelperInstance = null;
@@ -79,10 +87,12 @@ public final class DatabaseHelper
         createLeagueTable(db);
         createSeriesTable(db);
         createGameTable(db);
-        createFrameTable(db);
+        createFrameView(db);
         createMatchPlayTable(db);
         createTeamTable(db);
         createTeamBowlerTable(db);
+        createStatisticsCacheTable(db);
+        createLeagueStatisticsTable(db);
         createTableIndices(db);
     }
 
@@ -100,8 +110,6 @@ public final class DatabaseHelper
                 + SeriesEntry.TABLE_NAME + "(" + SeriesEntry._ID + ")");
         db.execSQL("CREATE INDEX game_id_index ON "
                 + GameEntry.TABLE_NAME + "(" + GameEntry._ID + ")");
-        db.execSQL("CREATE INDEX frame_id_index ON "
-                + FrameEntry.TABLE_NAME + "(" + FrameEntry._ID + ")");
         db.execSQL("CREATE INDEX match_id_index ON "
                 + MatchPlayEntry.TABLE_NAME + "(" + MatchPlayEntry._ID + ")");
         db.execSQL("CREATE INDEX team_id_index ON "
@@ -113,8 +121,6 @@ public final class DatabaseHelper
                 + SeriesEntry.TABLE_NAME + "(" + SeriesEntry.COLUMN_LEAGUE_ID + ")");
         db.execSQL("CREATE INDEX game_series_fk_index ON "
                 + GameEntry.TABLE_NAME + "(" + GameEntry.COLUMN_SERIES_ID + ")");
-        db.execSQL("CREATE INDEX frame_game_fk_index ON "
-                + FrameEntry.TABLE_NAME + "(" + FrameEntry.COLUMN_GAME_ID + ")");
         db.execSQL("CREATE INDEX match_game_fk_index ON "
                 + MatchPlayEntry.TABLE_NAME + "(" + MatchPlayEntry.COLUMN_GAME_ID + ")");
         db.execSQL("CREATE INDEX team_bowler_bowler_fk_index ON "
@@ -124,28 +130,73 @@ public final class DatabaseHelper
     }
 
     /**
-     * Executes SQL statement to create table to store frames. Must be executed after {@code createGameTable}.
+     * Executes SQL statement to create a view of the frames packed into each game, with a row for
+     * each frame, matching the table frames were stored in before version 11. Must be executed after
+     * {@code createGameTable}.
      *
      * @param db database
      */
-    private void createFrameTable(SQLiteDatabase db) {
-        db.execSQL("CREATE TABLE "
-                + FrameEntry.TABLE_NAME + " ("
-                + FrameEntry._ID + " INTEGER PRIMARY KEY, "
-                + FrameEntry.COLUMN_FRAME_NUMBER + " INTEGER NOT NULL, "
-                + FrameEntry.COLUMN_IS_ACCESSED + " INTEGER NOT NULL DEFAULT 0, "
-                + FrameEntry.COLUMN_PIN_STATE[0] + " INTEGER NOT NULL DEFAULT 0, "
-                + FrameEntry.COLUMN_PIN_STATE[1] + " INTEGER NOT NULL DEFAULT 0, "
-                + FrameEntry.COLUMN_PIN_STATE[2] + " INTEGER NOT NULL DEFAULT 0, "
-                + FrameEntry.COLUMN_FOULS + " INTEGER NOT NULL DEFAULT 0, "
-                + FrameEntry.COLUMN_GAME_ID + " INTEGER NOT NULL"
-                + " REFERENCES " + GameEntry.TABLE_NAME
-                + " ON UPDATE CASCADE ON DELETE CASCADE, "
-                + "CHECK (" + FrameEntry.COLUMN_FRAME_NUMBER + " >= 1 AND "
-                + FrameEntry.COLUMN_FRAME_NUMBER + " <= 10), "
-                + "CHECK (" + FrameEntry.COLUMN_IS_ACCESSED + " = 0 OR "
-                + FrameEntry.COLUMN_IS_ACCESSED + " = 1)"
-                + ");");
+    private void createFrameView(SQLiteDatabase db) {
+        String packedFrames = "game." + GameEntry.COLUMN_FRAMES;
+
+        StringBuilder frameNumbers = new StringBuilder();
+        for (int i = 1; i <= ScoringRules.NUMBER_OF_FRAMES; i++) {
+            if (i > 1) {
+                frameNumbers.append(" UNION ALL ");
+            }
+            frameNumbers.append("SELECT ").append(i).append(" AS n");
+        }
+
+        db.execSQL("CREATE VIEW "
+                + FrameEntry.TABLE_NAME + " AS SELECT "
+                + FrameEntry._ID + ", "
+                + FrameEntry.COLUMN_FRAME_NUMBER + ", "
+                + "(pins >> 15) & 1 AS " + FrameEntry.COLUMN_IS_ACCESSED + ", "
+                + "pins & 31 AS " + FrameEntry.COLUMN_PIN_STATE[0] + ", "
+                + "(pins >> 5) & 31 AS " + FrameEntry.COLUMN_PIN_STATE[1] + ", "
+                + "(pins >> 10) & 31 AS " + FrameEntry.COLUMN_PIN_STATE[2] + ", "
+                + "(fouls >> ((" + FrameEntry.COLUMN_FRAME_NUMBER + " - 1) * 3)) & 7 AS " + FrameEntry.COLUMN_FOULS + ", "
+                + FrameEntry.COLUMN_GAME_ID
+                + " FROM (SELECT "
+                + "game." + GameEntry._ID + " * " + ScoringRules.NUMBER_OF_FRAMES + " + n - 1 AS " + FrameEntry._ID + ", "
+                + "n AS " + FrameEntry.COLUMN_FRAME_NUMBER + ", "
+                + unpackInteger(packedFrames, "(n - 1) * 2", 2) + " AS pins, "
+                + unpackInteger(packedFrames, String.valueOf(ScoringRules.NUMBER_OF_FRAMES * 2), 4) + " AS fouls, "
+                + "game." + GameEntry._ID + " AS " + FrameEntry.COLUMN_GAME_ID
+                + " FROM " + GameEntry.TABLE_NAME + " AS game, (" + frameNumbers + "));");
+    }
+
+    /**
+     * Builds an SQL expression which reads a big-endian integer from a blob, since SQLite cannot
+     * convert a blob to an integer directly. Each byte is read from its hex digits.
+     *
+     * @param blob expression for the blob to read
+     * @param offset expression for the zero-based offset of the integer in the blob
+     * @param size number of bytes in the integer
+     * @return an SQL expression for the integer
+     */
+    private static String unpackInteger(String blob, String offset, int size) {
+        String hex = "hex(substr(" + blob + ", " + offset + " + 1, " + size + "))";
+        StringBuilder value = new StringBuilder("(");
+        for (int digit = 0; digit < size * 2; digit++) {
+            if (digit > 0) {
+                value.append(" | ");
+            }
+            value.append("((instr('0123456789ABCDEF', substr(").append(hex).append(", ")
+                    .append(digit + 1).append(", 1)) - 1) << ").append((size * 2 - 1 - digit) * 4).append(")");
+        }
+        return value.append(")").toString();
+    }
+
+    /**
+     * Column definition for the frames of a game, which are all empty until the game is saved.
+     *
+     * @return definition of {@link GameEntry#COLUMN_FRAMES}
+     */
+    private static String framesColumnDefinition() {
+        char[] emptyFrames = new char[FrameCodec.PACKED_GAME_SIZE * 2];
+        Arrays.fill(emptyFrames, '0');
+        return GameEntry.COLUMN_FRAMES + " BLOB NOT NULL DEFAULT X'" + new String(emptyFrames) + "'";
     }
 
     /**
@@ -162,6 +213,7 @@ public final class DatabaseHelper
                 + GameEntry.COLUMN_IS_MANUAL + " INTEGER NOT NULL DEFAULT 0, "
                 + GameEntry.COLUMN_IS_LOCKED + " INTEGER NOT NULL DEFAULT 0, "
                 + GameEntry.COLUMN_MATCH_PLAY + " INTEGER NOT NULL DEFAULT 0, "
+                + framesColumnDefinition() + ", "
                 + GameEntry.COLUMN_SERIES_ID + " INTEGER NOT NULL"
                 + " REFERENCES " + SeriesEntry.TABLE_NAME
                 + " ON UPDATE CASCADE ON DELETE CASCADE, "
@@ -215,6 +267,7 @@ public final class DatabaseHelper
                 + LeagueEntry.COLUMN_SERIES_HIGHLIGHT + " INTEGER NOT NULL DEFAULT -1, "
                 + LeagueEntry.COLUMN_DATE_MODIFIED + " TEXT NOT NULL, "
                 + LeagueEntry.COLUMN_IS_EVENT + " INTEGER NOT NULL DEFAULT 0, "
+                + LeagueEntry.COLUMN_DATA_VERSION + " INTEGER NOT NULL DEFAULT 0, "
                 + LeagueEntry.COLUMN_BOWLER_ID + " INTEGER NOT NULL"
                 + " REFERENCES " + BowlerEntry.TABLE_NAME
                 + " ON UPDATE CASCADE ON DELETE CASCADE, "
@@ -239,7 +292,8 @@ public final class DatabaseHelper
                 + BowlerEntry.TABLE_NAME + "("
                 + BowlerEntry._ID + " INTEGER PRIMARY KEY, "
                 + BowlerEntry.COLUMN_BOWLER_NAME + " TEXT NOT NULL COLLATE NOCASE, "
-                + BowlerEntry.COLUMN_DATE_MODIFIED + " TEXT NOT NULL"
+                + BowlerEntry.COLUMN_DATE_MODIFIED + " TEXT NOT NULL, "
+                + BowlerEntry.COLUMN_DATA_VERSION + " INTEGER NOT NULL DEFAULT 0"
                 + ");");
     }
 
@@ -295,6 +349,40 @@ public final class DatabaseHelper
     }
 
 
+    /**
+     * Executes SQL statement to create table to store statistics which have been calculated.
+     *
+     * @param db database
+     */
+    private void createStatisticsCacheTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE "
+                + StatisticsCacheEntry.TABLE_NAME + "("
+                + StatisticsCacheEntry.COLUMN_CACHE_KEY + " TEXT PRIMARY KEY, "
+                + StatisticsCacheEntry.COLUMN_DATA_VERSION + " TEXT NOT NULL, "
+                + StatisticsCacheEntry.COLUMN_STATISTICS + " BLOB NOT NULL"
+                + ");");
+    }
+
+    /**
+     * Executes SQL statement to create table to store statistics aggregated for each league. Must be
+     * executed after {@code createLeagueTable}.
+     *
+     * @param db database
+     */
+    private void createLeagueStatisticsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE "
+                + LeagueStatisticsEntry.TABLE_NAME + "("
+                + LeagueStatisticsEntry.COLUMN_LEAGUE_ID + " INTEGER NOT NULL"
+                + " REFERENCES " + LeagueEntry.TABLE_NAME
+                + " ON UPDATE CASCADE ON DELETE CASCADE, "
+                + LeagueStatisticsEntry.COLUMN_PREFERENCES + " TEXT NOT NULL, "
+                + LeagueStatisticsEntry.COLUMN_DATA_VERSION + " TEXT NOT NULL, "
+                + LeagueStatisticsEntry.COLUMN_STATISTICS + " BLOB NOT NULL, "
+                + "PRIMARY KEY (" + LeagueStatisticsEntry.COLUMN_LEAGUE_ID + ", "
+                + LeagueStatisticsEntry.COLUMN_PREFERENCES + ")"
+                + ");");
+    }
+
     @Override
     public void onOpen(SQLiteDatabase db) {
         super.onOpen(db);
@@ -329,6 +417,18 @@ public final class DatabaseHelper
                 case 7:
                     upgradeDatabaseFrom6to7(db);
                     break;
+                case 8:
+                    upgradeDatabaseFrom7to8(db);
+                    break;
+                case 9:
+                    upgradeDatabaseFrom8to9(db);
+                    break;
+                case 10:
+                    upgradeDatabaseFrom9to10(db);
+                    break;
+                case 11:
+                    upgradeDatabaseFrom10to11(db);
+                    break;
             }
             upgradeTo++;
         }
@@ -671,4 +771,167 @@ public final class DatabaseHelper
             db.endTransaction();
         }
     }
+
+    /**
+     * Upgrades database from oldVersion 7 to newVersion 8.
+     *
+     * @param db to upgrade
+     */
+    private void upgradeDatabaseFrom7to8(SQLiteDatabase db) {
+        // Replace the legacy values for fouls with a mask of the balls which were fouled
+        StringBuilder legacyFoulsToMask = new StringBuilder("CASE " + FrameEntry.COLUMN_FOULS);
+        for (int i = Fouls.MIN_LEGACY_FOULS; i <= Fouls.MAX_LEGACY_FOULS; i++) {
+            legacyFoulsToMask.append(" WHEN ").append(i).append(" THEN ").append(Fouls.INSTANCE.legacyFoulsToMask(i));
+        }
+        legacyFoulsToMask.append(" ELSE 0 END");
+
+        try {
+            db.beginTransaction();
+            db.execSQL("UPDATE " + FrameEntry.TABLE_NAME + " SET "
+                    + FrameEntry.COLUMN_FOULS + "=" + legacyFoulsToMask);
+            db.setTransactionSuccessful();
+        } catch (Exception ex) {
+            Log.e(TAG, "Error upgrading from 7 to 8", ex);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Upgrades database from oldVersion 8 to newVersion 9.
+     *
+     * @param db to upgrade
+     */
+    private void upgradeDatabaseFrom8to9(SQLiteDatabase db) {
+        // Add versions of the data statistics are built from, and a table to cache the statistics
+        try {
+            db.beginTransaction();
+            db.execSQL("ALTER TABLE " + BowlerEntry.TABLE_NAME + " ADD COLUMN "
+                    + BowlerEntry.COLUMN_DATA_VERSION + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + LeagueEntry.TABLE_NAME + " ADD COLUMN "
+                    + LeagueEntry.COLUMN_DATA_VERSION + " INTEGER NOT NULL DEFAULT 0");
+            createStatisticsCacheTable(db);
+            db.setTransactionSuccessful();
+        } catch (Exception ex) {
+            Log.e(TAG, "Error upgrading from 8 to 9", ex);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Upgrades database from oldVersion 9 to newVersion 10.
+     *
+     * @param db to upgrade
+     */
+    private void upgradeDatabaseFrom9to10(SQLiteDatabase db) {
+        // Add a table for statistics aggregated for each league
+        try {
+            db.beginTransaction();
+            createLeagueStatisticsTable(db);
+            db.setTransactionSuccessful();
+        } catch (Exception ex) {
+            Log.e(TAG, "Error upgrading from 9 to 10", ex);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Upgrades database from oldVersion 10 to newVersion 11.
+     *
+     * @param db to upgrade
+     */
+    private void upgradeDatabaseFrom10to11(SQLiteDatabase db) {
+        // Pack the frames of each game into a single column, and replace the frame table with a view
+        try {
+            db.beginTransaction();
+            db.execSQL("ALTER TABLE " + GameEntry.TABLE_NAME + " ADD COLUMN " + framesColumnDefinition());
+            packFramesIntoGames(db);
+            db.execSQL("DROP INDEX IF EXISTS frame_id_index");
+            db.execSQL("DROP INDEX IF EXISTS frame_game_fk_index");
+            db.execSQL("DROP TABLE " + FrameEntry.TABLE_NAME);
+            createFrameView(db);
+            db.setTransactionSuccessful();
+        } catch (Exception ex) {
+            // The frame table is dropped by this upgrade, so the app can't run on a partial one. Failing
+            // the upgrade leaves the database at version 10, and it is tried again the next time it opens
+            Log.e(TAG, "Error upgrading from 10 to 11", ex);
+            throw ex;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Packs the rows of the frame table into {@link GameEntry#COLUMN_FRAMES} of their games.
+     *
+     * @param db to upgrade
+     */
+    private void packFramesIntoGames(SQLiteDatabase db) {
+        SQLiteStatement updateGame = db.compileStatement("UPDATE " + GameEntry.TABLE_NAME
+                + " SET " + GameEntry.COLUMN_FRAMES + "=?"
+                + " WHERE " + GameEntry._ID + "=?");
+        Cursor cursor = db.rawQuery("SELECT "
+                + FrameEntry.COLUMN_GAME_ID + ", "
+                + FrameEntry.COLUMN_FRAME_NUMBER + ", "
+                + FrameEntry.COLUMN_IS_ACCESSED + ", "
+                + FrameEntry.COLUMN_PIN_STATE[0] + ", "
+                + FrameEntry.COLUMN_PIN_STATE[1] + ", "
+                + FrameEntry.COLUMN_PIN_STATE[2] + ", "
+                + FrameEntry.COLUMN_FOULS
+                + " FROM " + FrameEntry.TABLE_NAME
+                + " ORDER BY " + FrameEntry.COLUMN_GAME_ID + ", " + FrameEntry.COLUMN_FRAME_NUMBER, null);
+
+        short[] framePins = new short[ScoringRules.NUMBER_OF_FRAMES];
+        Deck[] pinState = new Deck[ScoringRules.NUMBER_OF_BALLS];
+        int gameFouls = 0;
+        long gameId = -1;
+        try {
+            while (cursor.moveToNext()) {
+                long rowGameId = cursor.getLong(0);
+                if (rowGameId != gameId) {
+                    if (gameId != -1) {
+                        updatePackedFrames(updateGame, gameId, framePins, gameFouls);
+                    }
+
+                    gameId = rowGameId;
+                    gameFouls = 0;
+                    Arrays.fill(framePins, (short) 0);
+                }
+
+                int frameIdx = cursor.getInt(1) - 1;
+                if (frameIdx < 0 || frameIdx >= ScoringRules.NUMBER_OF_FRAMES) {
+                    continue;
+                }
+
+                for (int ballIdx = 0; ballIdx < ScoringRules.NUMBER_OF_BALLS; ballIdx++) {
+                    pinState[ballIdx] = Deck.Companion.fromInt(cursor.getInt(3 + ballIdx));
+                }
+                framePins[frameIdx] = FrameCodec.INSTANCE.packPins(pinState, cursor.getInt(2) == 1);
+                gameFouls = FrameCodec.INSTANCE.packFouls(gameFouls, frameIdx, cursor.getInt(6));
+            }
+
+            if (gameId != -1) {
+                updatePackedFrames(updateGame, gameId, framePins, gameFouls);
+            }
+        } finally {
+            cursor.close();
+            updateGame.close();
+        }
+    }
+
+    /**
+     * Writes the packed frames of a single game.
+     *
+     * @param updateGame statement to update the frames of a game
+     * @param gameId game to update
+     * @param framePins packed pins of each frame
+     * @param gameFouls packed fouls of each frame
+     */
+    private void updatePackedFrames(SQLiteStatement updateGame, long gameId, short[] framePins, int gameFouls) {
+        updateGame.bindBlob(1, FrameCodec.INSTANCE.packGame(framePins, gameFouls));
+        updateGame.bindLong(2, gameId);
+        updateGame.executeUpdateDelete();
+    }
 }
@@ -2,28 +2,28 @@ package ca.josephroque.bowlingcompanion.database
 
 import android.content.Context
 import android.database.sqlite.SQLiteDatabase
-import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.async
 
 /**
  * Copyright (C) 2018 Joseph Roque
  *
- * Manage access to the database.
+ * Manage access to the database. Pending saves and deletions which conflict with the scope of the
+ * data being accessed are finished first.
  */
 object DatabaseManager {
-    fun getReadableDatabase(context: Context): Deferred<SQLiteDatabase> {
-        return async(CommonPool) {
-            Annihilator.instance.wait().await()
-            Saviour.instance.wait().await()
+    fun getReadableDatabase(context: Context, scope: DatabaseScope = DatabaseScope.All): Deferred<SQLiteDatabase> {
+        return async(DatabaseDispatchers.Reader) {
+            Annihilator.instance.wait(scope).await()
+            Saviour.instance.wait(scope).await()
             return@async DatabaseHelper.getInstance(context).readableDatabase
         }
     }
 
-    fun getWritableDatabase(context: Context): Deferred<SQLiteDatabase> {
-        return async(CommonPool) {
-            Annihilator.instance.wait().await()
-            Saviour.instance.wait().await()
+    fun getWritableDatabase(context: Context, scope: DatabaseScope = DatabaseScope.All): Deferred<SQLiteDatabase> {
+        return async(DatabaseDispatchers.Writer) {
+            Annihilator.instance.wait(scope).await()
+            Saviour.instance.wait(scope).await()
             return@async DatabaseHelper.getInstance(context).writableDatabase
         }
     }
@@ -0,0 +1,70 @@
+package ca.josephroque.bowlingcompanion.database
+
+import ca.josephroque.bowlingcompanion.games.Game
+import ca.josephroque.bowlingcompanion.leagues.League
+import ca.josephroque.bowlingcompanion.series.Series
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Data which is read or written: a bowler, league, series or game, along with the entities which
+ * contain it. A read only has to wait for pending writes whose scope conflicts with its own.
+ */
+class DatabaseScope private constructor(
+    private val bowlerId: Long?,
+    private val leagueId: Long?,
+    private val seriesId: Long?,
+    private val gameId: Long?
+) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "DatabaseScope"
+
+        /** Every bowler and team, which conflicts with any other scope. */
+        val All = DatabaseScope(null, null, null, null)
+
+        fun bowler(bowlerId: Long) = DatabaseScope(bowlerId, null, null, null)
+
+        fun league(league: League) = DatabaseScope(league.bowler.id, league.id, null, null)
+
+        fun series(series: Series) = DatabaseScope(series.league.bowler.id, series.league.id, series.id, null)
+
+        fun game(game: Game) = DatabaseScope(game.series.league.bowler.id, game.series.league.id, game.series.id, game.id)
+
+        // Scopes of entities whose containing entities aren't known. These conflict with every scope
+        // at a containing level, but IDs are unique, so never with another entity at their own level.
+
+        fun league(leagueId: Long) = DatabaseScope(null, leagueId, null, null)
+
+        fun series(seriesId: Long) = DatabaseScope(null, null, seriesId, null)
+
+        fun game(gameId: Long) = DatabaseScope(null, null, null, gameId)
+    }
+
+    // MARK: DatabaseScope
+
+    /**
+     * Check if two scopes include any of the same data, which is when one contains the other.
+     *
+     * @param other the scope to check
+     * @return true if the scopes conflict, false otherwise
+     */
+    fun conflictsWith(other: DatabaseScope): Boolean {
+        return idsMatch(bowlerId, other.bowlerId) &&
+                idsMatch(leagueId, other.leagueId) &&
+                idsMatch(seriesId, other.seriesId) &&
+                idsMatch(gameId, other.gameId)
+    }
+
+    override fun toString(): String {
+        return "DatabaseScope(bowlerId=$bowlerId, leagueId=$leagueId, seriesId=$seriesId, gameId=$gameId)"
+    }
+
+    // MARK: Private functions
+
+    /** An ID which isn't set includes every entity at its level. */
+    private fun idsMatch(id: Long?, otherId: Long?): Boolean {
+        return id == null || otherId == null || id == otherId
+    }
+}
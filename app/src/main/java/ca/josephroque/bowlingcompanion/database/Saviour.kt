@@ -3,33 +3,28 @@ package ca.josephroque.bowlingcompanion.database
 import android.content.ContentValues
 import android.content.Context
 import android.database.sqlite.SQLiteDatabase
+import android.support.v7.preference.PreferenceManager
 import android.util.Log
-import ca.josephroque.bowlingcompanion.App
-import ca.josephroque.bowlingcompanion.common.Android
-import ca.josephroque.bowlingcompanion.database.Contract.FrameEntry
 import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
-import ca.josephroque.bowlingcompanion.database.Contract.MatchPlayEntry
-import ca.josephroque.bowlingcompanion.games.Frame
 import ca.josephroque.bowlingcompanion.games.Game
-import ca.josephroque.bowlingcompanion.games.lane.toInt
+import ca.josephroque.bowlingcompanion.games.PackedFrames
 import ca.josephroque.bowlingcompanion.matchplay.MatchPlay
-import kotlinx.coroutines.experimental.async
-import kotlinx.coroutines.experimental.delay
+import ca.josephroque.bowlingcompanion.statistics.LeagueStatistics
 import kotlinx.coroutines.experimental.CommonPool
-import kotlinx.coroutines.experimental.CoroutineStart
+import kotlinx.coroutines.experimental.CompletableDeferred
 import kotlinx.coroutines.experimental.Deferred
-import kotlinx.coroutines.experimental.Job
-import kotlinx.coroutines.experimental.launch
+import kotlinx.coroutines.experimental.async
+import kotlinx.coroutines.experimental.channels.Channel
+import kotlinx.coroutines.experimental.channels.actor
+import kotlinx.coroutines.experimental.selects.select
 import java.lang.ref.WeakReference
-import java.util.LinkedList
-import java.util.Queue
-import java.util.concurrent.atomic.AtomicBoolean
 
 /**
  * Copyright (C) 2018 Joseph Roque
  *
  * Managing saving to the database synchronously and waiting for tasks to finish saving before
- * loading happens.
+ * loading happens. Saves are held briefly and committed together in a single transaction, and
+ * only the latest save of each frame, game, or match play result is written.
  */
 class Saviour private constructor() {
 
@@ -37,181 +32,170 @@ class Saviour private constructor() {
         @Suppress("unused")
         private const val TAG = "Saviour"
 
+        /** Longest time a save is held before it is committed. */
+        private const val MAX_SAVE_DELAY = 250L
+
         val instance: Saviour by lazy { Holder.INSTANCE }
     }
 
     private object Holder { val INSTANCE = Saviour() }
 
-    private var saviourIsRunning = AtomicBoolean(false)
+    private sealed class SaveRequest {
+        /** Replaces any pending write with the same [key]. */
+        class Write(
+            val key: String,
+            val weakContext: WeakReference<Context>,
+            val scope: DatabaseScope,
+            val gameId: Long,
+            val write: (SQLiteDatabase) -> Unit
+        ) : SaveRequest()
+
+        /** Commits pending writes, if any conflict with [scope]. */
+        class Flush(val scope: DatabaseScope, val committed: CompletableDeferred<Unit>) : SaveRequest()
+    }
 
-    private val saveQueue: Queue<Job> = LinkedList()
+    private val saveActor = actor<SaveRequest>(DatabaseDispatchers.Writer, Channel.UNLIMITED) {
+        val pendingWrites: MutableMap<String, SaveRequest.Write> = LinkedHashMap()
+        val pendingFlushes: MutableList<CompletableDeferred<Unit>> = ArrayList()
+        var deadline = 0L
+
+        while (true) {
+            val request = if (pendingWrites.isEmpty()) {
+                receive()
+            } else {
+                val remaining = deadline - System.currentTimeMillis()
+                if (remaining > 0) {
+                    select<SaveRequest?> {
+                        onReceive { it }
+                        onTimeout(remaining) { null }
+                    }
+                } else {
+                    null
+                }
+            }
 
-    init {
-        launchSaviourProcessor()
-    }
+            if (request is SaveRequest.Write) {
+                if (pendingWrites.isEmpty()) {
+                    deadline = System.currentTimeMillis() + MAX_SAVE_DELAY
+                }
 
-    // MARK: Saviour
+                // Remove the old write first, so the new one is written after any which came before it
+                pendingWrites.remove(request.key)
+                pendingWrites[request.key] = request
+            } else if (request is SaveRequest.Flush && pendingWrites.values.none { it.scope.conflictsWith(request.scope) }) {
+                request.committed.complete(Unit)
+            } else {
+                if (request is SaveRequest.Flush) {
+                    pendingFlushes.add(request.committed)
+                }
 
-    fun wait(): Deferred<Unit> {
-        return async(CommonPool) {
-            launchSaviourProcessor()
-            while (saveQueue.isNotEmpty()) {
-                delay(50)
+                try {
+                    commit(pendingWrites.values.toList())
+                } catch (ex: Exception) {
+                    pendingFlushes.forEach { it.completeExceptionally(ex) }
+                    throw ex
+                }
+                pendingWrites.clear()
+
+                pendingFlushes.forEach { it.complete(Unit) }
+                pendingFlushes.clear()
             }
         }
     }
 
-    fun saveFrame(weakContext: WeakReference<Context>, score: Int, frame: Frame) {
-        val job = launch(context = Android, start = CoroutineStart.LAZY) {
-            val strongContext = weakContext.get() ?: return@launch
-            val database = DatabaseHelper.getInstance(strongContext).writableDatabase
-            database.beginTransaction()
-            try {
-                // Save the score
-                val values = ContentValues()
-                values.put(GameEntry.COLUMN_SCORE, score)
-                database.update(GameEntry.TABLE_NAME,
-                        values,
-                        "${GameEntry._ID}=?",
-                        arrayOf(frame.gameId.toString()))
-
-                // Save the frame
-                writeFrameToDatabase(database, frame)
-
-                database.setTransactionSuccessful()
-            } catch (ex: Exception) {
-                Log.e(TAG, "Fatal error. Game could not save.")
-                throw ex
-            } finally {
-                database.endTransaction()
-            }
-        }
+    // MARK: Saviour
 
-        saveQueue.offer(job)
-        launchSaviourProcessor()
+    /** Commit any pending saves which conflict with [scope], and wait for them to finish. */
+    fun wait(scope: DatabaseScope = DatabaseScope.All): Deferred<Unit> {
+        return async(CommonPool) {
+            val committed = CompletableDeferred<Unit>()
+            saveActor.send(SaveRequest.Flush(scope, committed))
+            committed.await()
+        }
     }
 
-    fun saveMatchPlay(weakContext: WeakReference<Context>, matchPlay: MatchPlay) {
-        val job = launch(context = Android, start = CoroutineStart.LAZY) {
-            val strongContext = weakContext.get() ?: return@launch
-            val database = DatabaseHelper.getInstance(strongContext).writableDatabase
-            database.beginTransaction()
-            try {
-                writeMatchPlayToDatabase(database, matchPlay)
-                database.setTransactionSuccessful()
-            } catch (ex: Exception) {
-                Log.e(TAG, "Fatal error. Game could not save.")
-                throw ex
-            } finally {
-                database.endTransaction()
-            }
-        }
+    /**
+     * Save the score and frames of a game.
+     *
+     * @param weakContext to access the database
+     * @param scope the game being saved
+     * @param gameId the game being saved
+     * @param score the score of the game
+     * @param packedFrames the frames of the game, from [PackedFrames.pack]
+     */
+    fun saveFrames(weakContext: WeakReference<Context>, scope: DatabaseScope, gameId: Long, score: Int, packedFrames: ByteArray) {
+        save(SaveRequest.Write("frames:$gameId", weakContext, scope, gameId) { database ->
+            Statements.forDatabase(database).updateFrames(gameId, score, packedFrames)
+        })
+    }
 
-        saveQueue.offer(job)
-        launchSaviourProcessor()
+    fun saveMatchPlay(weakContext: WeakReference<Context>, scope: DatabaseScope, matchPlay: MatchPlay) {
+        save(SaveRequest.Write("matchPlay:${matchPlay.gameId}", weakContext, scope, matchPlay.gameId) { database ->
+            writeMatchPlayToDatabase(database, matchPlay)
+        })
     }
 
     fun saveGame(weakContext: WeakReference<Context>, game: Game) {
-        val job = launch(context = Android, start = CoroutineStart.LAZY) {
-            val strongContext = weakContext.get() ?: return@launch
-            val database = DatabaseHelper.getInstance(strongContext).writableDatabase
-            database.beginTransaction()
-            try {
-                val values = ContentValues().apply {
-                    put(GameEntry.COLUMN_SCORE, game.score)
-                    put(GameEntry.COLUMN_IS_LOCKED, game.isLocked)
-                    put(GameEntry.COLUMN_IS_MANUAL, game.isManual)
-                }
-                database.update(GameEntry.TABLE_NAME,
-                        values,
-                        "${GameEntry._ID}=?",
-                        arrayOf(game.id.toString()))
-
-                for (frame in game.frames) {
-                    writeFrameToDatabase(database, frame)
-                }
-
-                writeMatchPlayToDatabase(database, game.matchPlay)
-
-                database.setTransactionSuccessful()
-            } catch (ex: Exception) {
-                Log.e(TAG, "Fatal error. Game could not save.")
-                throw ex
-            } finally {
-                database.endTransaction()
+        save(SaveRequest.Write("game:${game.id}", weakContext, DatabaseScope.game(game), game.id) { database ->
+            val values = ContentValues().apply {
+                put(GameEntry.COLUMN_SCORE, game.score)
+                put(GameEntry.COLUMN_IS_LOCKED, game.isLocked)
+                put(GameEntry.COLUMN_IS_MANUAL, game.isManual)
+                put(GameEntry.COLUMN_FRAMES, PackedFrames.pack(game.frames))
             }
-        }
+            database.update(GameEntry.TABLE_NAME,
+                    values,
+                    "${GameEntry._ID}=?",
+                    arrayOf(game.id.toString()))
 
-        saveQueue.offer(job)
-        launchSaviourProcessor()
+            writeMatchPlayToDatabase(database, game.matchPlay)
+        })
     }
 
     // MARK: Private functions
 
-    private fun launchSaviourProcessor() {
-        if (saviourIsRunning.get()) {
-            return
-        }
-
-        saviourIsRunning.set(true)
-        launch(CommonPool) {
-            while (App.isRunning.get() || saveQueue.isNotEmpty()) {
-                val saveRoutine = saveQueue.poll()
-                if (!saveRoutine.isCompleted && !saveRoutine.isCancelled) {
-                    saveRoutine.join()
-                } else {
-                    Log.e(TAG, "Saviour thread already processed - $saveRoutine")
-                }
-            }
-
-            saviourIsRunning.set(false)
+    private fun save(write: SaveRequest.Write) {
+        if (!saveActor.offer(write)) {
+            Log.e(TAG, "Saviour could not accept save - ${write.key}")
         }
     }
 
-    private fun writeFrameToDatabase(database: SQLiteDatabase, frame: Frame) {
-        val values = ContentValues().apply {
-            for (i in 0 until Frame.NUMBER_OF_BALLS) {
-                put(FrameEntry.COLUMN_PIN_STATE[i], frame.pinState[i].toInt())
+    /**
+     * Write each save in a single transaction. The saves of each game are written together, so its
+     * league's statistics are only updated once for all of them.
+     */
+    private fun commit(writes: List<SaveRequest.Write>) {
+        val strongContext = writes.asSequence().mapNotNull { it.weakContext.get() }.firstOrNull() ?: return
+        val database = DatabaseHelper.getInstance(strongContext).writableDatabase
+        val preferences = PreferenceManager.getDefaultSharedPreferences(strongContext)
+        database.beginTransaction()
+        try {
+            for ((gameId, gameWrites) in writes.groupBy { it.gameId }) {
+                val change = LeagueStatistics.beginChange(database, gameId, preferences)
+                for (write in gameWrites) {
+                    write.write(database)
+                }
+                DataVersion.gameChanged(database, gameId)
+                change?.let { LeagueStatistics.applyChange(database, it) }
             }
-            put(FrameEntry.COLUMN_IS_ACCESSED, if (frame.isAccessed) 1 else 0)
-            put(FrameEntry.COLUMN_FOULS, frame.dbFouls)
+            database.setTransactionSuccessful()
+        } catch (ex: Exception) {
+            Log.e(TAG, "Fatal error. Game could not save.")
+            throw ex
+        } finally {
+            database.endTransaction()
         }
-        database.update(FrameEntry.TABLE_NAME,
-                values,
-                "${FrameEntry._ID}=?",
-                arrayOf(frame.id.toString()))
     }
 
     private fun writeMatchPlayToDatabase(database: SQLiteDatabase, matchPlay: MatchPlay) {
-        // Save the match play result to the game
-        var values = ContentValues()
-        values.put(GameEntry.COLUMN_MATCH_PLAY, matchPlay.result.ordinal)
-        database.update(GameEntry.TABLE_NAME,
-                values,
-                "${GameEntry._ID}=?",
-                arrayOf(matchPlay.gameId.toString()))
-
-        // Save the match play details
-        values = ContentValues().apply {
-            put(MatchPlayEntry.COLUMN_GAME_ID, matchPlay.gameId)
-            put(MatchPlayEntry.COLUMN_OPPONENT_NAME, matchPlay.opponentName)
-            put(MatchPlayEntry.COLUMN_OPPONENT_SCORE, matchPlay.opponentScore)
-        }
-
         /*
          * Due to the way this method was originally implemented, when match play results were updated,
          * often the wrong row in the table was altered. This bug prevented users from saving match play
          * results under certain circumstances. This has been fixed, but the old data cannot be safely
          * removed all at once, without potentially deleting some of the user's real data. As a fix, when
          * a user now saves match play results, any old results for *only that game* are deleted, and the
-         * new results are inserted, as seen below.
+         * new results are inserted.
          */
-        database.delete(MatchPlayEntry.TABLE_NAME,
-                "${MatchPlayEntry.COLUMN_GAME_ID}=?",
-                arrayOf(matchPlay.gameId.toString()))
-
-        database.insert(MatchPlayEntry.TABLE_NAME,
-                null,
-                values)
+        Statements.forDatabase(database).replaceMatchPlay(matchPlay)
     }
 }
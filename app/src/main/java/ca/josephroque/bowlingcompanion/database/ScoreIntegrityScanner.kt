@@ -0,0 +1,235 @@
+package ca.josephroque.bowlingcompanion.database
+
+import android.content.ContentValues
+import android.content.Context
+import android.database.sqlite.SQLiteDatabase
+import android.support.v7.preference.PreferenceManager
+import android.util.Log
+import ca.josephroque.bowlingcompanion.common.Android
+import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.scoring.Fouls
+import ca.josephroque.bowlingcompanion.scoring.FrameCodec
+import ca.josephroque.bowlingcompanion.scoring.GameScorer
+import ca.josephroque.bowlingcompanion.scoring.ScoringFrame
+import ca.josephroque.bowlingcompanion.scoring.ScoringRules
+import kotlinx.coroutines.experimental.Deferred
+import kotlinx.coroutines.experimental.async
+import kotlinx.coroutines.experimental.launch
+import kotlinx.coroutines.experimental.yield
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Rescores every game which was not scored manually from its frames and corrects the score stored
+ * in the database when it does not match. Games are read and corrected in batches, each in its own
+ * transaction, and the last game checked is kept in preferences so an interrupted scan picks up
+ * where it left off.
+ */
+object ScoreIntegrityScanner {
+
+    @Suppress("unused")
+    private const val TAG = "ScoreIntegrityScanner"
+
+    /** Identifier for preference with the id of the last game checked by an unfinished scan. */
+    private const val LAST_SCANNED_GAME_ID = "pref_score_integrity_last_game_id"
+
+    /** Number of games read and corrected in a single transaction. */
+    private const val GAMES_PER_BATCH = 250
+
+    private val isScanning = AtomicBoolean(false)
+
+    /** Progress of a scan. */
+    data class Progress(val gamesScanned: Int, val gamesCorrected: Int, val totalGames: Int)
+
+    interface ProgressDelegate {
+        fun onScanProgress(progress: Progress)
+    }
+
+    // MARK: ScoreIntegrityScanner
+
+    fun isScanUnfinished(context: Context): Boolean {
+        return PreferenceManager.getDefaultSharedPreferences(context).contains(LAST_SCANNED_GAME_ID)
+    }
+
+    /**
+     * Scan the games in the database, starting after the last game checked if a previous scan was
+     * interrupted. Only one scan runs at a time, so if a scan is already running this returns null.
+     *
+     * @param context to access the database and preferences
+     * @param delegate notified on the main thread after each batch of games
+     * @return the final progress of the scan
+     */
+    fun scan(context: Context, delegate: ProgressDelegate? = null): Deferred<Progress>? {
+        if (!isScanning.compareAndSet(false, true)) {
+            return null
+        }
+
+        val appContext = context.applicationContext
+        return async(DatabaseDispatchers.Writer) {
+            try {
+                val database = DatabaseManager.getWritableDatabase(appContext).await()
+                val preferences = PreferenceManager.getDefaultSharedPreferences(appContext)
+                var lastGameId = preferences.getLong(LAST_SCANNED_GAME_ID, 0)
+
+                val scan = BatchScan(database)
+                var progress = Progress(0, 0, scan.countGames(lastGameId))
+                preferences.edit().putLong(LAST_SCANNED_GAME_ID, lastGameId).apply()
+
+                while (true) {
+                    val gamesInBatch = scan.scanBatch(lastGameId)
+                    if (gamesInBatch == 0) {
+                        break
+                    }
+
+                    lastGameId = scan.lastGameId
+                    preferences.edit().putLong(LAST_SCANNED_GAME_ID, lastGameId).apply()
+
+                    progress = progress.copy(
+                            gamesScanned = progress.gamesScanned + gamesInBatch,
+                            gamesCorrected = progress.gamesCorrected + scan.gamesCorrected
+                    )
+
+                    delegate?.let {
+                        val batchProgress = progress
+                        launch(Android) { it.onScanProgress(batchProgress) }
+                    }
+
+                    // Let saves waiting for the writer run between batches
+                    yield()
+                }
+
+                preferences.edit().remove(LAST_SCANNED_GAME_ID).apply()
+                if (progress.gamesCorrected > 0) {
+                    Log.w(TAG, "Corrected ${progress.gamesCorrected} of ${progress.gamesScanned} game scores")
+                }
+
+                return@async progress
+            } finally {
+                isScanning.set(false)
+            }
+        }
+    }
+
+    // MARK: BatchScan
+
+    /** Frame whose pins are overwritten for each game scanned. */
+    private class ScanFrame : ScoringFrame {
+        override val isAccessed = true
+        override val pinState = Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsUp }
+    }
+
+    /**
+     * Reads and corrects one batch of games at a time. All of the buffers are allocated once, so
+     * memory use does not grow with the number of games.
+     */
+    private class BatchScan(private val database: SQLiteDatabase) {
+
+        private val frames = List(ScoringRules.NUMBER_OF_FRAMES) { ScanFrame() }
+        private val scorer = GameScorer(frames)
+
+        private val correctedGameIds = LongArray(GAMES_PER_BATCH)
+        private val correctedScores = IntArray(GAMES_PER_BATCH)
+        private val values = ContentValues()
+        private val whereArgs = arrayOfNulls<String>(1)
+
+        var lastGameId: Long = 0
+            private set
+
+        var gamesCorrected: Int = 0
+            private set
+
+        private val batchQuery = ("SELECT " +
+                "${GameEntry._ID}, " +
+                "${GameEntry.COLUMN_SCORE}, " +
+                "${GameEntry.COLUMN_FRAMES} " +
+                "FROM ${GameEntry.TABLE_NAME} " +
+                "WHERE ${GameEntry.COLUMN_IS_MANUAL}=0 AND ${GameEntry._ID}>? " +
+                "ORDER BY ${GameEntry._ID} " +
+                "LIMIT $GAMES_PER_BATCH")
+
+        fun countGames(afterGameId: Long): Int {
+            val query = "SELECT COUNT(*) FROM ${GameEntry.TABLE_NAME} " +
+                    "WHERE ${GameEntry.COLUMN_IS_MANUAL}=0 AND ${GameEntry._ID}>?"
+            val cursor = database.rawQuery(query, arrayOf(afterGameId.toString()))
+            val count = if (cursor.moveToFirst()) cursor.getInt(0) else 0
+            cursor.close()
+            return count
+        }
+
+        /**
+         * Rescore the next batch of games after [afterGameId], correcting any which do not match
+         * their stored score. Reading and correcting happen in one transaction, so a game cannot be
+         * saved in between.
+         *
+         * @return the number of games in the batch
+         */
+        fun scanBatch(afterGameId: Long): Int {
+            var gamesInBatch = 0
+            gamesCorrected = 0
+
+            database.beginTransaction()
+            try {
+                val cursor = database.rawQuery(batchQuery, arrayOf(afterGameId.toString()))
+                val columnGameId = cursor.getColumnIndex(GameEntry._ID)
+                val columnScore = cursor.getColumnIndex(GameEntry.COLUMN_SCORE)
+                val columnFrames = cursor.getColumnIndex(GameEntry.COLUMN_FRAMES)
+
+                while (cursor.moveToNext()) {
+                    val gameId = cursor.getLong(columnGameId)
+                    val packedFrames = cursor.getBlob(columnFrames)
+                    val gameFouls = FrameCodec.unpackGameFouls(packedFrames)
+
+                    var fouls = 0
+                    for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+                        val pins = FrameCodec.unpackGamePins(packedFrames, frameIdx)
+                        val pinState = frames[frameIdx].pinState
+                        for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                            pinState[ballIdx] = FrameCodec.unpackPins(pins, ballIdx)
+                        }
+
+                        fouls += Fouls.countFouls(FrameCodec.unpackFouls(gameFouls, frameIdx))
+                    }
+
+                    checkGame(gameId, cursor.getInt(columnScore), fouls)
+                    lastGameId = gameId
+                    gamesInBatch++
+                }
+                cursor.close()
+
+                writeCorrectedScores()
+                database.setTransactionSuccessful()
+            } catch (ex: Exception) {
+                Log.e(TAG, "Error scanning game scores.", ex)
+                throw ex
+            } finally {
+                database.endTransaction()
+            }
+
+            return gamesInBatch
+        }
+
+        // MARK: Private functions
+
+        private fun checkGame(gameId: Long, storedScore: Int, fouls: Int) {
+            scorer.markAllDirty()
+            scorer.update()
+            val score = maxOf(scorer.totalScore - fouls * ScoringRules.FOUL_PENALTY, 0)
+            if (score != storedScore) {
+                correctedGameIds[gamesCorrected] = gameId
+                correctedScores[gamesCorrected] = score
+                gamesCorrected++
+            }
+        }
+
+        private fun writeCorrectedScores() {
+            for (i in 0 until gamesCorrected) {
+                values.put(GameEntry.COLUMN_SCORE, correctedScores[i])
+                whereArgs[0] = correctedGameIds[i].toString()
+                database.update(GameEntry.TABLE_NAME, values, "${GameEntry._ID}=?", whereArgs)
+                DataVersion.gameChanged(database, correctedGameIds[i])
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ca.josephroque.bowlingcompanion.database
+
+import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteStatement
+import android.support.annotation.VisibleForTesting
+import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
+import ca.josephroque.bowlingcompanion.database.Contract.MatchPlayEntry
+import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
+import ca.josephroque.bowlingcompanion.games.PackedFrames
+import ca.josephroque.bowlingcompanion.matchplay.MatchPlay
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Precompiled statements for the writes made most often: saving frames, scores and match play
+ * results, and creating new series. Each statement is compiled once for a database and reused,
+ * bound with primitives instead of [android.content.ContentValues].
+ *
+ * Statements are not safe to share between threads, so they should only be used on
+ * [DatabaseDispatchers.Writer].
+ */
+class Statements @VisibleForTesting internal constructor(private val database: SQLiteDatabase) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "Statements"
+
+        private var current: Statements? = null
+
+        /**
+         * Get the statements for a database, compiling them again if the database has changed
+         * since they were last used.
+         *
+         * @param database the database to write to
+         * @return statements compiled against [database]
+         */
+        @Synchronized
+        fun forDatabase(database: SQLiteDatabase): Statements {
+            val statements = current
+            if (statements != null && statements.database === database && database.isOpen) {
+                return statements
+            }
+
+            statements?.close()
+            return Statements(database).apply { current = this }
+        }
+    }
+
+    private val compiled: MutableList<SQLiteStatement> = ArrayList()
+
+    private val updateFramesStatement by compile("UPDATE ${GameEntry.TABLE_NAME} SET " +
+            "${GameEntry.COLUMN_SCORE}=?, " +
+            "${GameEntry.COLUMN_FRAMES}=? " +
+            "WHERE ${GameEntry._ID}=?")
+
+    private val updateGameMatchPlayStatement by compile("UPDATE ${GameEntry.TABLE_NAME} SET " +
+            "${GameEntry.COLUMN_MATCH_PLAY}=? " +
+            "WHERE ${GameEntry._ID}=?")
+
+    private val deleteMatchPlayStatement by compile("DELETE FROM ${MatchPlayEntry.TABLE_NAME} " +
+            "WHERE ${MatchPlayEntry.COLUMN_GAME_ID}=?")
+
+    private val insertMatchPlayStatement by compile("INSERT INTO ${MatchPlayEntry.TABLE_NAME} (" +
+            "${MatchPlayEntry.COLUMN_GAME_ID}, " +
+            "${MatchPlayEntry.COLUMN_OPPONENT_NAME}, " +
+            "${MatchPlayEntry.COLUMN_OPPONENT_SCORE}" +
+            ") VALUES (?, ?, ?)")
+
+    private val insertSeriesStatement by compile("INSERT INTO ${SeriesEntry.TABLE_NAME} (" +
+            "${SeriesEntry.COLUMN_SERIES_DATE}, " +
+            "${SeriesEntry.COLUMN_LEAGUE_ID}" +
+            ") VALUES (?, ?)")
+
+    private val insertGameStatement by compile("INSERT INTO ${GameEntry.TABLE_NAME} (" +
+            "${GameEntry.COLUMN_GAME_NUMBER}, " +
+            "${GameEntry.COLUMN_SCORE}, " +
+            "${GameEntry.COLUMN_FRAMES}, " +
+            "${GameEntry.COLUMN_SERIES_ID}" +
+            ") VALUES (?, 0, ?, ?)")
+
+    // MARK: Statements
+
+    /**
+     * Save the score and frames of a game.
+     *
+     * @param gameId the game to save
+     * @param score the score of the game
+     * @param packedFrames the frames of the game, from [PackedFrames.pack]
+     */
+    fun updateFrames(gameId: Long, score: Int, packedFrames: ByteArray) {
+        val statement = updateFramesStatement
+        statement.bindLong(1, score.toLong())
+        statement.bindBlob(2, packedFrames)
+        statement.bindLong(3, gameId)
+        statement.executeUpdateDelete()
+    }
+
+    /**
+     * Save the result of a match play game, and replace any details of the game with those in
+     * [matchPlay].
+     *
+     * @param matchPlay the match play results to save
+     */
+    fun replaceMatchPlay(matchPlay: MatchPlay) {
+        updateGameMatchPlayStatement.apply {
+            bindLong(1, matchPlay.result.ordinal.toLong())
+            bindLong(2, matchPlay.gameId)
+            executeUpdateDelete()
+        }
+
+        deleteMatchPlayStatement.apply {
+            bindLong(1, matchPlay.gameId)
+            executeUpdateDelete()
+        }
+
+        insertMatchPlayStatement.apply {
+            bindLong(1, matchPlay.gameId)
+            bindString(2, matchPlay.opponentName)
+            bindLong(3, matchPlay.opponentScore.toLong())
+            executeInsert()
+        }
+    }
+
+    /** @return the ID of the new series, or -1 if it could not be inserted */
+    fun insertSeries(leagueId: Long, seriesDate: String): Long {
+        val statement = insertSeriesStatement
+        statement.bindString(1, seriesDate)
+        statement.bindLong(2, leagueId)
+        return statement.executeInsert()
+    }
+
+    /** @return the ID of the new game, with a score of 0, or -1 if it could not be inserted */
+    fun insertGame(seriesId: Long, gameNumber: Int, packedFrames: ByteArray): Long {
+        val statement = insertGameStatement
+        statement.bindLong(1, gameNumber.toLong())
+        statement.bindBlob(2, packedFrames)
+        statement.bindLong(3, seriesId)
+        return statement.executeInsert()
+    }
+
+    // MARK: Private functions
+
+    /** Compile a statement the first time it is used. */
+    private fun compile(sql: String) = lazy(LazyThreadSafetyMode.NONE) {
+        database.compileStatement(sql).apply { compiled.add(this) }
+    }
+
+    @VisibleForTesting
+    internal fun close() {
+        compiled.forEach { it.close() }
+        compiled.clear()
+    }
+}
@@ -4,12 +4,12 @@ import android.os.Parcel
 import ca.josephroque.bowlingcompanion.common.interfaces.IIdentifiable
 import ca.josephroque.bowlingcompanion.common.interfaces.KParcelable
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.common.interfaces.readBoolean
-import ca.josephroque.bowlingcompanion.common.interfaces.writeBoolean
 import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.Pin
-import ca.josephroque.bowlingcompanion.games.lane.toBooleanArray
+import ca.josephroque.bowlingcompanion.games.lane.value
+import ca.josephroque.bowlingcompanion.scoring.FrameCodec
 import ca.josephroque.bowlingcompanion.scoring.Fouls
+import ca.josephroque.bowlingcompanion.scoring.ScoringFrame
+import ca.josephroque.bowlingcompanion.scoring.ScoringRules
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -20,10 +20,10 @@ class Frame(
     val gameId: Long,
     override val id: Long,
     val ordinal: Int,
-    var isAccessed: Boolean,
-    var pinState: Array<Deck>,
+    override var isAccessed: Boolean,
+    override var pinState: Array<Deck>,
     var ballFouled: BooleanArray
-) : IIdentifiable, KParcelable {
+) : IIdentifiable, KParcelable, ScoringFrame {
 
     companion object {
         @Suppress("unused")
@@ -32,29 +32,19 @@ class Frame(
         @Suppress("unused")
         @JvmField val CREATOR = parcelableCreator(::Frame)
 
-        const val NUMBER_OF_BALLS = 3
-        const val LAST_BALL = NUMBER_OF_BALLS - 1
-        const val MAX_VALUE = 15
+        const val NUMBER_OF_BALLS = ScoringRules.NUMBER_OF_BALLS
+        const val LAST_BALL = ScoringRules.LAST_BALL
+        const val MAX_VALUE = ScoringRules.MAX_FRAME_VALUE
     }
 
     val zeroBasedOrdinal: Int
         get() = ordinal - 1
 
-    /** LEGACY: garbage method of serializing fouls to database. */
-    private val dbFoulString: String
-        get() {
-            val builder = StringBuilder()
-            ballFouled.forEachIndexed { index, foul -> if (foul) { builder.append(index + 1) } }
-            if (builder.isEmpty()) { builder.append(0) }
-            return builder.toString()
-        }
-
-    /** LEGACY: garbage method of serializing fouls to database. */
     val dbFouls: Int
-        get() = Fouls.foulStringToInt(dbFoulString)
+        get() = Fouls.foulMask(ballFouled)
 
     val pinsLeftOnDeck: Int
-        get() = pinState[Frame.NUMBER_OF_BALLS].sumBy { if (it.onDeck) it.value else 0 }
+        get() = pinState[Frame.LAST_BALL].value(true)
 
     // MARK: Constructors
 
@@ -62,15 +52,17 @@ class Frame(
             gameId = p.readLong(),
             id = p.readLong(),
             ordinal = p.readInt(),
-            isAccessed = p.readBoolean(),
-            pinState = Array(NUMBER_OF_BALLS) {
-                val pins = BooleanArray(Game.NUMBER_OF_PINS)
-                p.readBooleanArray(pins)
-                return@Array Pin.deckFromBooleanArray(pins)
-            },
-            ballFouled = BooleanArray(NUMBER_OF_BALLS).apply {
-                p.readBooleanArray(this)
-            }
+            packed = p.readInt()
+    )
+
+    /** Unpack a frame from its pins and fouls, as written by [writeToParcel]. */
+    private constructor(gameId: Long, id: Long, ordinal: Int, packed: Int): this(
+            gameId = gameId,
+            id = id,
+            ordinal = ordinal,
+            isAccessed = FrameCodec.isAccessed(packed.toShort()),
+            pinState = Array(NUMBER_OF_BALLS) { FrameCodec.unpackPins(packed.toShort(), it) },
+            ballFouled = BooleanArray(NUMBER_OF_BALLS) { Fouls.isBallFouled(packed ushr 16, it) }
     )
 
     private constructor(other: Frame): this(
@@ -78,9 +70,7 @@ class Frame(
             id = other.id,
             ordinal = other.ordinal,
             isAccessed = other.isAccessed,
-            pinState = Array(NUMBER_OF_BALLS) {
-                return@Array other.pinState[it].map { pin -> pin.deepCopy() }.toTypedArray()
-            },
+            pinState = other.pinState.copyOf(),
             ballFouled = other.ballFouled.clone()
     )
 
@@ -96,10 +86,6 @@ class Frame(
         writeLong(gameId)
         writeLong(id)
         writeInt(ordinal)
-        writeBoolean(isAccessed)
-        for (i in 0 until NUMBER_OF_BALLS) {
-            writeBooleanArray(pinState[i].toBooleanArray())
-        }
-        writeBooleanArray(ballFouled)
+        writeInt((FrameCodec.packPins(pinState, isAccessed).toInt() and 0xFFFF) or (dbFouls shl 16))
     }
 }
@@ -0,0 +1,12 @@
+package ca.josephroque.bowlingcompanion.games
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Reusable holder for the text displayed for a single frame on a score sheet. Filled by
+ * [Game.getTextForFrames] so a score sheet can be bound without allocating.
+ */
+class FrameText {
+    var score: String = ""
+    val balls: Array<String> = Array(Frame.NUMBER_OF_BALLS) { "" }
+}
@@ -254,8 +254,8 @@ class GameFragment : BaseFragment(),
             scoreSheet.apply(gameState.currentFrameIdx, gameState.currentBallIdx, gameState.currentGame)
 
             // Update up/down pins
-            gameState.currentPinState.forEachIndexed { index, pin ->
-                pinLayout.updatePinImage(index, pin.isDown)
+            for (i in 0 until Game.NUMBER_OF_PINS) {
+                pinLayout.updatePinImage(i, gameState.currentPinState.isPinDown(i))
             }
 
             // Update next/prev frame buttons
@@ -367,7 +367,7 @@ class GameFragment : BaseFragment(),
     // MARK: PinLayoutInteractionDelegate
 
     override fun isPinDown(pin: Int): Boolean {
-        return if (gameState.gamesLoaded) gameState.currentPinState[pin].isDown else false
+        return if (gameState.gamesLoaded) gameState.currentPinState.isPinDown(pin) else false
     }
 
     override fun setPins(pins: IntArray, isDown: Boolean) {
@@ -538,7 +538,12 @@ class GameFragment : BaseFragment(),
     // MARK: Dialogs
 
     private fun showBestScorePossible() {
-        context?.let { PossibleScoreDialog.show(it, gameState.currentGame.deepCopy(), gameState.currentFrameIdx, gameState.currentBallIdx) }
+        // Simulations only run for a match play opponent, and take a frame or so
+        val projection = if (gameState.currentGame.matchPlay.opponentScore > 0) gameState.simulateOutcome() else null
+        launch(Android) {
+            val outcome = projection?.await()
+            context?.let { PossibleScoreDialog.show(it, gameState, outcome) }
+        }
     }
 
     private fun showResetGameDialog() {
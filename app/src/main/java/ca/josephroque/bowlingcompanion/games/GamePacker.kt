@@ -0,0 +1,169 @@
+package ca.josephroque.bowlingcompanion.games
+
+import ca.josephroque.bowlingcompanion.matchplay.MatchPlay
+import ca.josephroque.bowlingcompanion.matchplay.MatchPlayResult
+import ca.josephroque.bowlingcompanion.scoring.FrameCodec
+import ca.josephroque.bowlingcompanion.scoring.Fouls
+import ca.josephroque.bowlingcompanion.series.Series
+import java.nio.ByteBuffer
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Packs games into a compact binary format to save in a [android.os.Parcel]. Each game is written
+ * as a block of [GAME_BLOCK_SIZE] bytes, followed by the opponent names from match play and the
+ * ids of any frames which could not be packed into the block. The series the games belong to is
+ * not written, and must be provided to unpack them.
+ */
+object GamePacker {
+
+    @Suppress("unused")
+    private const val TAG = "GamePacker"
+
+    /**
+     * Size of the block for each game: id, ordinal, score, flags, first frame id, pins of each
+     * frame, fouls, match play id, opponent score and match play result.
+     */
+    const val GAME_BLOCK_SIZE = 8 + 2 + 2 + 1 + 8 + (2 * Game.NUMBER_OF_FRAMES) + 4 + 8 + 4 + 1
+
+    private const val IS_LOCKED = 1
+    private const val IS_MANUAL = 1 shl 1
+
+    /** Set when the frame ids of a game are not consecutive, so each is written after the blocks. */
+    private const val HAS_FRAME_IDS = 1 shl 2
+
+    // MARK: GamePacker
+
+    fun pack(games: List<Game>): ByteArray {
+        val opponentNames = Array(games.size) { games[it].matchPlay.opponentName.toByteArray(Charsets.UTF_8) }
+        val gamesWithFrameIds = games.count { !hasConsecutiveFrameIds(it) }
+
+        var size = 4 + games.size * GAME_BLOCK_SIZE
+        size += gamesWithFrameIds * Game.NUMBER_OF_FRAMES * 8
+        opponentNames.forEach { size += 4 + it.size }
+
+        val buffer = ByteBuffer.allocate(size)
+        buffer.putInt(games.size)
+
+        for (game in games) {
+            var flags = 0
+            if (game.isLocked) { flags = flags or IS_LOCKED }
+            if (game.isManual) { flags = flags or IS_MANUAL }
+            if (!hasConsecutiveFrameIds(game)) { flags = flags or HAS_FRAME_IDS }
+
+            buffer.putLong(game.id)
+            buffer.putShort(game.ordinal.toShort())
+            buffer.putShort(game.score.toShort())
+            buffer.put(flags.toByte())
+            buffer.putLong(game.frames[0].id)
+
+            var fouls = 0
+            for (frameIdx in 0 until Game.NUMBER_OF_FRAMES) {
+                val frame = game.frames[frameIdx]
+                buffer.putShort(FrameCodec.packPins(frame.pinState, frame.isAccessed))
+                fouls = FrameCodec.packFouls(fouls, frameIdx, frame.dbFouls)
+            }
+            buffer.putInt(fouls)
+
+            buffer.putLong(game.matchPlay.id)
+            buffer.putInt(game.matchPlay.opponentScore)
+            buffer.put(game.matchPlay.result.ordinal.toByte())
+        }
+
+        for (game in games) {
+            if (!hasConsecutiveFrameIds(game)) {
+                game.frames.forEach { buffer.putLong(it.id) }
+            }
+        }
+
+        for (opponentName in opponentNames) {
+            buffer.putInt(opponentName.size)
+            buffer.put(opponentName)
+        }
+
+        return buffer.array()
+    }
+
+    fun unpack(series: Series, packed: ByteArray): MutableList<Game> {
+        val buffer = ByteBuffer.wrap(packed)
+        val blocks = Array(buffer.getInt()) { GameBlock(buffer) }
+
+        // Frame ids and opponent names follow the blocks, in the same order
+        for (block in blocks) {
+            if (block.flags and HAS_FRAME_IDS != 0) {
+                for (frameIdx in 0 until Game.NUMBER_OF_FRAMES) {
+                    block.frameIds[frameIdx] = buffer.getLong()
+                }
+            }
+        }
+
+        val games: MutableList<Game> = ArrayList(blocks.size)
+        for (block in blocks) {
+            val opponentName = ByteArray(buffer.getInt())
+            buffer.get(opponentName)
+            games.add(block.toGame(series, String(opponentName, Charsets.UTF_8)))
+        }
+
+        return games
+    }
+
+    // MARK: GameBlock
+
+    /** The fixed size block of a single game. */
+    private class GameBlock(buffer: ByteBuffer) {
+        val id = buffer.getLong()
+        val ordinal = buffer.getShort().toInt()
+        val score = buffer.getShort().toInt()
+        val flags = buffer.get().toInt()
+        val frameIds = buffer.getLong().let { firstFrameId -> LongArray(Game.NUMBER_OF_FRAMES) { firstFrameId + it } }
+        val pins = ShortArray(Game.NUMBER_OF_FRAMES) { buffer.getShort() }
+        val fouls = buffer.getInt()
+        val matchPlayId = buffer.getLong()
+        val opponentScore = buffer.getInt()
+        val matchPlayResult = buffer.get().toInt()
+
+        fun toGame(series: Series, opponentName: String): Game {
+            val frames = ArrayList<Frame>(Game.NUMBER_OF_FRAMES)
+            for (frameIdx in 0 until Game.NUMBER_OF_FRAMES) {
+                val frameFouls = FrameCodec.unpackFouls(fouls, frameIdx)
+                frames.add(Frame(
+                        gameId = id,
+                        id = frameIds[frameIdx],
+                        ordinal = frameIdx + 1,
+                        isAccessed = FrameCodec.isAccessed(pins[frameIdx]),
+                        pinState = Array(Frame.NUMBER_OF_BALLS) { FrameCodec.unpackPins(pins[frameIdx], it) },
+                        ballFouled = BooleanArray(Frame.NUMBER_OF_BALLS) { Fouls.isBallFouled(frameFouls, it) }
+                ))
+            }
+
+            return Game(
+                    series = series,
+                    id = id,
+                    ordinal = ordinal,
+                    initialScore = score,
+                    isLocked = flags and IS_LOCKED != 0,
+                    isManual = flags and IS_MANUAL != 0,
+                    frames = frames,
+                    matchPlay = MatchPlay(
+                            gameId = id,
+                            id = matchPlayId,
+                            opponentName = opponentName,
+                            opponentScore = opponentScore,
+                            result = MatchPlayResult.fromInt(matchPlayResult)!!
+                    )
+            )
+        }
+    }
+
+    // MARK: Private functions
+
+    private fun hasConsecutiveFrameIds(game: Game): Boolean {
+        val firstFrameId = game.frames[0].id
+        for (frameIdx in 1 until game.frames.size) {
+            if (game.frames[frameIdx].id != firstFrameId + frameIdx) {
+                return false
+            }
+        }
+        return true
+    }
+}
@@ -5,11 +5,15 @@ import android.os.Parcel
 import ca.josephroque.bowlingcompanion.common.Android
 import ca.josephroque.bowlingcompanion.common.interfaces.KParcelable
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
 import ca.josephroque.bowlingcompanion.database.Saviour
 import ca.josephroque.bowlingcompanion.games.lane.Deck
 import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.reset
+import ca.josephroque.bowlingcompanion.leagues.League
 import ca.josephroque.bowlingcompanion.matchplay.MatchPlayResult
+import ca.josephroque.bowlingcompanion.scoring.LeaveDistribution
+import ca.josephroque.bowlingcompanion.scoring.PossibleScores
+import ca.josephroque.bowlingcompanion.scoring.ScoreProjection
 import ca.josephroque.bowlingcompanion.series.Series
 import ca.josephroque.bowlingcompanion.utils.Analytics
 import kotlinx.coroutines.experimental.CommonPool
@@ -41,20 +45,20 @@ class GameState(
 
     // MARK: Parcelable
 
-    constructor(p: Parcel): this(
-            series = p.readParcelable<Series>(Series::class.java.classLoader)!!,
-            initialGames = arrayListOf<Game>().apply {
-                val parcelableArray = p.readParcelableArray(Game::class.java.classLoader)!!
-                this.addAll(parcelableArray.map { return@map it as Game })
-            },
+    constructor(p: Parcel): this(p.readParcelable<Series>(Series::class.java.classLoader)!!, p)
+
+    private constructor(series: Series, p: Parcel): this(
+            series = series,
+            initialGames = GamePacker.unpack(series, p.createByteArray()!!),
             initialGameIdx = p.readInt(),
             initialFrameIdx = p.readInt(),
             initialBallIdx = p.readInt()
     )
 
     override fun writeToParcel(dest: Parcel, flags: Int) = with(dest) {
+        // Games are packed without their series, since they all belong to this one
         writeParcelable(series, 0)
-        writeParcelableArray(games.toTypedArray(), 0)
+        writeByteArray(GamePacker.pack(games))
         writeInt(currentGameIdx)
         writeInt(currentFrameIdx)
         writeInt(currentBallIdx)
@@ -100,12 +104,18 @@ class GameState(
         set(newBall) {
             if (newBall >= 0 && newBall < Frame.NUMBER_OF_BALLS) {
                 field = newBall
+                updatePossibleScores()
                 delegate?.onBallChanged()
             }
         }
 
     private var skipBallListenerUpdate: Boolean = false
 
+    private val possibleScores = PossibleScores()
+
+    /** How often the bowler leaves each set of pins, loaded along with the games. */
+    private var leaveDistribution: Deferred<LeaveDistribution>? = null
+
     // MARK: Calculated properties
 
     val currentGame: Game
@@ -143,7 +153,7 @@ class GameState(
             return (0 until Game.NUMBER_OF_PINS).filter {
                 return@filter (
                     currentBallIdx == 0 ||
-                    !currentFrame.pinState[currentBallIdx - 1][it].isDown ||
+                    !currentFrame.pinState[currentBallIdx - 1].isPinDown(it) ||
                     (isLastFrame && currentFrame.pinState[currentBallIdx - 1].arePinsCleared)
                 )
             }.toIntArray()
@@ -158,12 +168,108 @@ class GameState(
     val shareableGames: List<Game>
         get() = games.map { it.deepCopy() }
 
+    // MARK: Possible scores
+
+    /** Score a game must be greater than to be highlighted in the league, or 0 if games are not highlighted. */
+    val gameHighlight: Int
+        get() {
+            val gameHighlight = series.league.gameHighlight
+            return if (gameHighlight == -1) League.DEFAULT_GAME_HIGHLIGHT else maxOf(gameHighlight, 0)
+        }
+
+    /** Best final score of the current game, if every ball from the current ball on is thrown perfectly. */
+    var bestPossibleScore: Int = 0
+        private set
+
+    /** Worst final score of the current game, if every ball from the current ball on knocks down no pins. */
+    var worstPossibleScore: Int = 0
+        private set
+
+    /** Pins needed for the current game to be highlighted, or [PossibleScores.UNREACHABLE] if it can't be. */
+    var pinsNeededForHighlight: Int = PossibleScores.UNREACHABLE
+        private set
+
+    /** Pins needed for the current game to beat the match play opponent, or [PossibleScores.UNREACHABLE]. */
+    var pinsNeededToBeatOpponent: Int = PossibleScores.UNREACHABLE
+        private set
+
+    init {
+        updatePossibleScores()
+    }
+
+    /**
+     * Get the fewest pins the bowler must knock down in the rest of the current game to finish with
+     * at least [score], as of the last change to the game.
+     *
+     * @param score the final score to reach
+     * @return the value of the pins to knock down, or [PossibleScores.UNREACHABLE]
+     */
+    fun pinsNeededToReach(score: Int): Int {
+        if (!isGameEditable) {
+            return if (currentGame.score >= score) 0 else PossibleScores.UNREACHABLE
+        }
+
+        return possibleScores.pinsNeeded(score)
+    }
+
+    /** Update the possible scores of the current game, whenever its pins, fouls or current ball change. */
+    private fun updatePossibleScores() {
+        if (!gamesLoaded) { return }
+
+        if (isGameEditable) {
+            // Only fouls on the balls already thrown count against the score
+            val fouls = currentGame.countFoulsBefore(currentFrameIdx, currentBallIdx)
+            possibleScores.update(currentGame.frames, currentFrameIdx, currentBallIdx, fouls)
+            bestPossibleScore = possibleScores.bestScore
+            worstPossibleScore = possibleScores.worstScore
+        } else {
+            bestPossibleScore = currentGame.score
+            worstPossibleScore = currentGame.score
+        }
+
+        val gameHighlight = this.gameHighlight
+        pinsNeededForHighlight = if (gameHighlight > 0) pinsNeededToReach(gameHighlight + 1) else PossibleScores.UNREACHABLE
+        pinsNeededToBeatOpponent = pinsNeededToReach(currentGame.matchPlay.opponentScore + 1)
+    }
+
+    // MARK: Outcome
+
+    /**
+     * Project how the current game and series will end, by simulating the balls left from the
+     * bowler's leave distribution. The game is copied before the simulations start, so it can
+     * change while they run.
+     *
+     * @return the projected scores, or null if the game can't be changed or was not loaded
+     */
+    fun simulateOutcome(): Deferred<ScoreProjection>? {
+        val distribution = leaveDistribution ?: return null
+        if (!isGameEditable) { return null }
+
+        var remainingGames = 0
+        var seriesOffset = 0
+        games.forEachIndexed { gameIdx, game ->
+            when {
+                gameIdx == currentGameIdx -> return@forEachIndexed
+                gameIdx > currentGameIdx && !game.frames[0].isAccessed -> remainingGames++
+                else -> seriesOffset += game.score
+            }
+        }
+
+        val game = currentGame.deepCopy()
+        val frameIdx = currentFrameIdx
+        val ballIdx = currentBallIdx
+        return async(CommonPool) {
+            OutcomeSimulator.simulate(distribution.await(), game, frameIdx, ballIdx, remainingGames, seriesOffset).await()
+        }
+    }
+
     // MARK: GameState
 
     fun toggleFoul() {
         if (!isGameEditable) { return }
         currentFrame.ballFouled[currentBallIdx] = !currentFrame.ballFouled[currentBallIdx]
-        currentGame.markDirty()
+        currentGame.markDirty(currentFrameIdx)
+        updatePossibleScores()
     }
 
     fun toggleLock() {
@@ -173,11 +279,14 @@ class GameState(
         if (currentGame.isLocked) {
             Analytics.trackLockGame()
         }
+
+        updatePossibleScores()
     }
 
     fun lockGame() {
         if (currentGame.isManual) { return }
         currentGame.isLocked = true
+        updatePossibleScores()
     }
 
     fun setManualScore(context: WeakReference<Context>, score: Int) {
@@ -205,6 +314,7 @@ class GameState(
             this.result = result
         }
         currentGame.markDirty()
+        updatePossibleScores()
     }
 
     fun nextBall() {
@@ -240,7 +350,7 @@ class GameState(
         currentBallIdx = newBall
 
         if (gamesLoaded) {
-            currentGame.markDirty()
+            currentGame.markDirty(currentFrameIdx)
         }
     }
 
@@ -257,14 +367,14 @@ class GameState(
 
         if (isDown) {
             for (i in currentBallIdx..Frame.LAST_BALL) {
-                pins.forEach { currentFrame.pinState[i][it].isDown = isDown }
+                currentFrame.pinState[i] = currentFrame.pinState[i].withPins(pins, isDown)
 
                 if (currentFrame.pinState[i].arePinsCleared) {
                     for (j in (i + 1)..Frame.LAST_BALL) {
                         currentFrame.ballFouled[j] = false
 
                         if (isLastFrame && currentBallIdx < Frame.LAST_BALL) {
-                            currentFrame.pinState[j].forEach { it.isDown = false }
+                            currentFrame.pinState[j] = Deck.allPinsUp
                         }
                     }
 
@@ -276,22 +386,21 @@ class GameState(
         } else {
             val werePinsCleared = currentPinState.arePinsCleared
             for (i in currentBallIdx..Frame.LAST_BALL) {
-                pins.forEach { currentFrame.pinState[i][it].isDown = isDown }
+                currentFrame.pinState[i] = currentFrame.pinState[i].withPins(pins, isDown)
             }
 
             // In the last frame, when the first/second ball was a strike and no longer is, copy the state to the later balls
             if (isLastFrame) {
                 if (currentBallIdx < Frame.LAST_BALL && werePinsCleared && !currentPinState.arePinsCleared) {
-                    currentPinState.forEachIndexed { index, pin ->
-                        for (i in (currentBallIdx + 1)..Frame.LAST_BALL) {
-                            currentFrame.pinState[i][index].isDown = pin.isDown
-                        }
+                    for (i in (currentBallIdx + 1)..Frame.LAST_BALL) {
+                        currentFrame.pinState[i] = currentPinState
                     }
                 }
             }
         }
 
-        currentGame.markDirty()
+        currentGame.markDirty(currentFrameIdx)
+        updatePossibleScores()
     }
 
     fun resetGame(context: WeakReference<Context>) {
@@ -300,18 +409,23 @@ class GameState(
         currentGame.frames.forEach { frame ->
             for (i in 0 until Frame.NUMBER_OF_BALLS) {
                 frame.ballFouled[i] = false
-                frame.pinState[i].reset()
+                frame.pinState[i] = Deck.allPinsUp
             }
 
             frame.isAccessed = false
         }
 
+        currentGame.markDirty()
         attemptToSetFrameAndBall(0, 0)
         currentFrame.isAccessed = true
         saveGame(context, true)
     }
 
     fun loadGames(context: Context): Deferred<Boolean> {
+        if (leaveDistribution == null) {
+            leaveDistribution = OutcomeSimulator.loadDistribution(context, series.league.bowler)
+        }
+
         return async(CommonPool) {
             if (!gamesLoaded) {
                 val games = series.fetchGames(context).await()
@@ -340,8 +454,8 @@ class GameState(
     fun saveFrame(context: WeakReference<Context>, ignoreManualScore: Boolean) {
         if (!gamesLoaded) { return }
         if (!ignoreManualScore && currentGame.isManual) { return }
-        val copy = currentFrame.deepCopy()
-        Saviour.instance.saveFrame(context, currentGame.score, copy)
+        val packedFrames = PackedFrames.pack(currentGame.frames)
+        Saviour.instance.saveFrames(context, DatabaseScope.game(currentGame), currentGame.id, currentGame.score, packedFrames)
     }
 
     fun saveGame(context: WeakReference<Context>, ignoreManualScore: Boolean) {
@@ -354,7 +468,7 @@ class GameState(
     fun saveMatchPlay(context: WeakReference<Context>) {
         if (!gamesLoaded) { return }
         val copy = currentGame.matchPlay.deepCopy()
-        Saviour.instance.saveMatchPlay(context, copy)
+        Saviour.instance.saveMatchPlay(context, DatabaseScope.game(currentGame), copy)
     }
 
     // MARK: GameStateDelegate
@@ -0,0 +1,104 @@
+package ca.josephroque.bowlingcompanion.games
+
+import android.content.Context
+import ca.josephroque.bowlingcompanion.bowlers.Bowler
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
+import ca.josephroque.bowlingcompanion.scoring.Fouls
+import ca.josephroque.bowlingcompanion.scoring.GameSimulator
+import ca.josephroque.bowlingcompanion.scoring.LeaveDistribution
+import ca.josephroque.bowlingcompanion.scoring.ScoreProjection
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+import kotlinx.coroutines.experimental.CommonPool
+import kotlinx.coroutines.experimental.Deferred
+import kotlinx.coroutines.experimental.async
+import java.util.Random
+import java.util.concurrent.TimeUnit
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Projects how a game and its series will end by simulating the balls left, from how often the
+ * bowler has left and converted each set of pins in the past.
+ */
+object OutcomeSimulator {
+
+    @Suppress("unused")
+    private const val TAG = "OutcomeSimulator"
+
+    /** Time to spend simulating, so a projection can be shown in the next frame drawn. */
+    const val DEFAULT_BUDGET_MILLIS = 12L
+
+    /** Most simulations to run, when they finish before the budget. */
+    private const val MAX_SIMULATIONS = 20000
+
+    // MARK: OutcomeSimulator
+
+    /**
+     * Count the pins left by every frame the bowler has bowled.
+     *
+     * @param context to access the database
+     * @param bowler the bowler to build the distribution for
+     * @return the bowler's leave distribution
+     */
+    fun loadDistribution(context: Context, bowler: Bowler): Deferred<LeaveDistribution> {
+        return async(DatabaseDispatchers.Reader) {
+            // Each series is counted as it is read, so the bowler's series are never all held at once
+            val builder = LeaveDistribution.Builder()
+            StatSeries.streamSeriesForBowler(context, bowler.id) { statSeries ->
+                for (game in statSeries.games) {
+                    if (game.isManual) { continue }
+                    for (frame in game.frames) {
+                        if (!frame.isAccessed) { continue }
+                        builder.addFrame(frame.pinState, Fouls.foulMask(frame.ballFouled), frame.zeroBasedOrdinal == Game.LAST_FRAME)
+                    }
+                }
+            }.await()
+
+            return@async builder.build()
+        }
+    }
+
+    /**
+     * Simulate the rest of a game and the games after it in its series, split across every core.
+     * The game is copied before returning, so it can be changed while the simulations run.
+     *
+     * @param distribution the bowler's leave distribution
+     * @param game the game in progress
+     * @param frameIdx the current frame
+     * @param ballIdx the current ball, which is the first one simulated
+     * @param remainingGames number of games left in the series after [game]
+     * @param seriesOffset total of the other games in the series which have been bowled
+     * @param budgetMillis time to spend simulating
+     * @return the projected scores
+     */
+    fun simulate(
+        distribution: LeaveDistribution,
+        game: Game,
+        frameIdx: Int,
+        ballIdx: Int,
+        remainingGames: Int,
+        seriesOffset: Int,
+        budgetMillis: Long = DEFAULT_BUDGET_MILLIS
+    ): Deferred<ScoreProjection> {
+        // Only fouls on the balls already thrown count against the score
+        val fouls = game.countFoulsBefore(frameIdx, ballIdx)
+
+        val workers = Runtime.getRuntime().availableProcessors()
+        val seeds = Random()
+        val simulators = List(workers) {
+            GameSimulator(distribution, game.frames, frameIdx, ballIdx, fouls, remainingGames, Random(seeds.nextLong()))
+        }
+
+        val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis)
+        return async(CommonPool) {
+            val batches = simulators.map {
+                async(CommonPool) { it.run(MAX_SIMULATIONS / workers, deadline) }
+            }
+            batches.forEach { it.await() }
+
+            val projection = ScoreProjection(remainingGames, seriesOffset)
+            simulators.forEach { projection.add(it) }
+            return@async projection
+        }
+    }
+}
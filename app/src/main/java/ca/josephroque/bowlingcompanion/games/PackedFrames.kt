@@ -0,0 +1,83 @@
+package ca.josephroque.bowlingcompanion.games
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.scoring.Fouls
+import ca.josephroque.bowlingcompanion.scoring.FrameCodec
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Reads and writes the frames of a game, which are stored together in a single column with
+ * [FrameCodec]. Frames have no rows of their own, so each is identified by its game and ordinal.
+ */
+object PackedFrames {
+
+    @Suppress("unused")
+    private const val TAG = "PackedFrames"
+
+    private val emptyPinState = Array(Frame.NUMBER_OF_BALLS) { Deck.allPinsUp }
+
+    // MARK: PackedFrames
+
+    fun frameId(gameId: Long, frameIdx: Int): Long {
+        return gameId * Game.NUMBER_OF_FRAMES + frameIdx
+    }
+
+    fun pack(frames: List<Frame>): ByteArray {
+        var gameFouls = 0
+        val framePins = ShortArray(Game.NUMBER_OF_FRAMES) {
+            val frame = frames[it]
+            gameFouls = FrameCodec.packFouls(gameFouls, it, frame.dbFouls)
+            FrameCodec.packPins(frame.pinState, frame.isAccessed)
+        }
+        return FrameCodec.packGame(framePins, gameFouls)
+    }
+
+    /**
+     * Pack the frames of a game which has not been played yet.
+     *
+     * @param isFirstFrameAccessed true to mark the first frame as accessed, for the first game of a series
+     * @return the packed frames
+     */
+    fun packEmpty(isFirstFrameAccessed: Boolean): ByteArray {
+        val framePins = ShortArray(Game.NUMBER_OF_FRAMES) {
+            FrameCodec.packPins(emptyPinState, it == 0 && isFirstFrameAccessed)
+        }
+        return FrameCodec.packGame(framePins, 0)
+    }
+
+    /**
+     * Unpack the frames of a game.
+     *
+     * @param gameId the game the frames belong to
+     * @param packed the frames, from [pack]
+     * @param build creates a frame from its ID, ordinal, whether it was accessed, pins and fouls
+     * @return the frames of the game, in order
+     */
+    inline fun <T> unpack(
+        gameId: Long,
+        packed: ByteArray,
+        build: (id: Long, ordinal: Int, isAccessed: Boolean, pinState: Array<Deck>, ballFouled: BooleanArray) -> T
+    ): MutableList<T> {
+        val gameFouls = FrameCodec.unpackGameFouls(packed)
+        val frames: MutableList<T> = ArrayList(Game.NUMBER_OF_FRAMES)
+        for (frameIdx in 0 until Game.NUMBER_OF_FRAMES) {
+            val pins = FrameCodec.unpackGamePins(packed, frameIdx)
+            val fouls = FrameCodec.unpackFouls(gameFouls, frameIdx)
+            frames.add(build(
+                    frameId(gameId, frameIdx),
+                    frameIdx + 1,
+                    FrameCodec.isAccessed(pins),
+                    Array(Frame.NUMBER_OF_BALLS) { FrameCodec.unpackPins(pins, it) },
+                    BooleanArray(Frame.NUMBER_OF_BALLS) { Fouls.isBallFouled(fouls, it) }
+            ))
+        }
+        return frames
+    }
+
+    fun unpack(gameId: Long, packed: ByteArray): MutableList<Frame> {
+        return unpack(gameId, packed) { id, ordinal, isAccessed, pinState, ballFouled ->
+            Frame(gameId, id, ordinal, isAccessed, pinState, ballFouled)
+        }
+    }
+}
@@ -3,18 +3,27 @@ package ca.josephroque.bowlingcompanion.games.dialogs
 import android.content.Context
 import android.support.v7.app.AlertDialog
 import ca.josephroque.bowlingcompanion.R
-import ca.josephroque.bowlingcompanion.games.Frame
 import ca.josephroque.bowlingcompanion.games.Game
+import ca.josephroque.bowlingcompanion.games.GameState
 import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
+import ca.josephroque.bowlingcompanion.scoring.PossibleScores
+import ca.josephroque.bowlingcompanion.scoring.ScoreProjection
 import ca.josephroque.bowlingcompanion.utils.Analytics
 
 /**
  * Copyright (C) 2018 Joseph Roque
  *
- * Calculate the best score the user could possibly get and display it.
+ * Display the best and worst score the user could possibly get, and the pins they need to
+ * highlight the game or beat their match play opponent. When the rest of the game was simulated,
+ * also display its projected score and the chance of beating the opponent.
  */
 object PossibleScoreDialog {
-    fun show(context: Context, currentGame: Game, currentFrame: Int, currentBall: Int) {
+    fun show(context: Context, gameState: GameState, projection: ScoreProjection? = null) {
+        val currentGame = gameState.currentGame
+        val currentFrame = gameState.currentFrameIdx
+        val currentBall = gameState.currentBallIdx
+        val bestScore = gameState.bestPossibleScore
+
         // Get the best ball the user could throw for this frame
         val ball = if (currentFrame == Game.LAST_FRAME) {
             when {
@@ -34,31 +43,50 @@ object PossibleScoreDialog {
             }
         }
 
-        // Set rest of game to strikes and clear all fouls
-        currentGame.frames.forEachIndexed { index, frame ->
-            for (i in 0 until Frame.NUMBER_OF_BALLS) {
-                frame.ballFouled[i] = false
-
-                if (index > currentFrame) {
-                    frame.pinState[i].forEach { it.isDown = true }
-                }
-            }
-        }
-
-        // Set rest of frame to be cleared
-        currentGame.frames[currentFrame].pinState.forEachIndexed { index, deck ->
-            if (index >= currentBall) {
-                deck.forEach { it.isDown = true }
-            }
-        }
-
         AlertDialog.Builder(context)
                 .setTitle(R.string.dialog_best_possible_title)
-                .setMessage(context.resources.getString(R.string.dialog_best_possible_message, ball, currentGame.score))
+                .setMessage(buildMessage(context, gameState, ball, projection))
                 .setPositiveButton(R.string.okay, null)
                 .create()
                 .show()
 
-        Analytics.trackViewPossibleScore(currentGame.score, currentFrame)
+        Analytics.trackViewPossibleScore(bestScore, currentFrame)
+    }
+
+    private fun buildMessage(context: Context, gameState: GameState, ball: String, projection: ScoreProjection?): String {
+        val resources = context.resources
+        val lines = mutableListOf(
+                resources.getString(R.string.dialog_best_possible_message, ball, gameState.bestPossibleScore),
+                resources.getString(R.string.dialog_worst_possible_message, gameState.worstPossibleScore)
+        )
+
+        if (projection != null && projection.simulations > 0) {
+            lines.add(resources.getString(R.string.dialog_projected_score_message, Math.round(projection.averageScore).toInt()))
+        }
+
+        val gameHighlight = gameState.gameHighlight
+        if (gameHighlight > 0) {
+            lines.add(when (gameState.pinsNeededForHighlight) {
+                0 -> resources.getString(R.string.dialog_pins_for_highlight_reached, gameHighlight)
+                PossibleScores.UNREACHABLE -> resources.getString(R.string.dialog_pins_for_highlight_unreachable, gameHighlight)
+                else -> resources.getString(R.string.dialog_pins_for_highlight_message, gameState.pinsNeededForHighlight, gameHighlight)
+            })
+        }
+
+        val opponentScore = gameState.currentGame.matchPlay.opponentScore
+        if (opponentScore > 0) {
+            lines.add(when (gameState.pinsNeededToBeatOpponent) {
+                0 -> resources.getString(R.string.dialog_pins_to_beat_opponent_reached, opponentScore)
+                PossibleScores.UNREACHABLE -> resources.getString(R.string.dialog_pins_to_beat_opponent_unreachable, opponentScore)
+                else -> resources.getString(R.string.dialog_pins_to_beat_opponent_message, gameState.pinsNeededToBeatOpponent, opponentScore)
+            })
+
+            if (projection != null && projection.simulations > 0) {
+                val winPercentage = Math.round(projection.winProbability(opponentScore) * 100).toInt()
+                lines.add(resources.getString(R.string.dialog_win_probability_message, winPercentage, opponentScore))
+            }
+        }
+
+        return lines.joinToString("\n\n")
     }
 }
@@ -48,6 +48,12 @@ class GameOverviewRecyclerViewAdapter(
         private val scoreSheet: ScoreSheet? = view.findViewById(R.id.score_sheet)
         private val checkBox: CheckBox? = view.findViewById(R.id.checkbox_share)
 
+        private val scrollListener = object : ScoreSheet.SheetScrollListener {
+            override fun didScroll(x: Int, y: Int) {
+                scrollOffsets[adapterPosition] = Pair(x, y)
+            }
+        }
+
         override fun bind(item: Game) {
             val context = itemView.context
 
@@ -68,11 +74,7 @@ class GameOverviewRecyclerViewAdapter(
                 val (x, y) = scrollOffsets[adapterPosition] ?: Pair(0, 0)
                 it.scrollTo(x, y)
 
-                it.delegate = object : ScoreSheet.SheetScrollListener {
-                    override fun didScroll(x: Int, y: Int) {
-                        scrollOffsets[adapterPosition] = Pair(x, y)
-                    }
-                }
+                it.delegate = scrollListener
             }
 
             itemView.setOnClickListener(this@GameOverviewRecyclerViewAdapter)
@@ -6,6 +6,7 @@ import android.view.LayoutInflater
 import android.widget.HorizontalScrollView
 import android.widget.LinearLayout
 import ca.josephroque.bowlingcompanion.R
+import ca.josephroque.bowlingcompanion.games.FrameText
 import ca.josephroque.bowlingcompanion.games.Game
 import ca.josephroque.bowlingcompanion.settings.Settings
 import kotlinx.android.synthetic.main.view_score_sheet.view.tv_final_score as tvFinalScore
@@ -27,6 +28,9 @@ class ScoreSheet : HorizontalScrollView {
 
     private var frameViews: Array<FrameView?>
 
+    /** Reused between calls to [apply] so binding a game does not allocate. */
+    private val frameText = Array(Game.NUMBER_OF_FRAMES) { FrameText() }
+
     var delegate: SheetScrollListener? = null
 
     var frameViewDelegate: FrameView.FrameInteractionDelegate? = null
@@ -62,7 +66,7 @@ class ScoreSheet : HorizontalScrollView {
     var finalScore: Int = 0
         set(value) {
             field = value
-            tvFinalScore.text = value.toString()
+            tvFinalScore.text = Game.scoreToText(value)
         }
 
     // MARK: Constructors
@@ -98,25 +102,27 @@ class ScoreSheet : HorizontalScrollView {
         finalScore = game.score
 
         // Update frames with marks and pins
-        val scores = game.getScoreTextForFrames()
-        val balls = game.getBallTextForFrames()
-        updateFrames(currentFrameIdx, currentBallIdx, scores, balls)
+        game.getTextForFrames(frameText)
+        updateFrames(currentFrameIdx, currentBallIdx, frameText)
 
         // Update fouls
-        game.frames.forEachIndexed { frameIdx, frame ->
-            frame.ballFouled.forEachIndexed { ballIdx, foul ->
-                setFoulEnabled(frameIdx, ballIdx, foul)
+        for (frameIdx in 0 until game.frames.size) {
+            val ballFouled = game.frames[frameIdx].ballFouled
+            for (ballIdx in 0 until ballFouled.size) {
+                setFoulEnabled(frameIdx, ballIdx, ballFouled[ballIdx])
             }
         }
     }
 
-    fun updateFrames(currentFrameIdx: Int, currentBallIdx: Int, scores: List<String>, balls: List<Array<String>>) {
-        frameViews.forEachIndexed { frameIdx, it ->
-            it?.isCurrentFrame = (frameIdx == currentFrameIdx)
-            it?.currentBall = currentBallIdx
-            it?.setFrameText(scores[frameIdx])
-            balls[frameIdx].forEachIndexed { ballIdx, ball ->
-                it?.setBallText(ballIdx, ball)
+    fun updateFrames(currentFrameIdx: Int, currentBallIdx: Int, text: Array<FrameText>) {
+        for (frameIdx in 0 until frameViews.size) {
+            val frameView = frameViews[frameIdx] ?: continue
+            frameView.isCurrentFrame = (frameIdx == currentFrameIdx)
+            frameView.currentBall = currentBallIdx
+            frameView.setFrameText(text[frameIdx].score)
+            val balls = text[frameIdx].balls
+            for (ballIdx in 0 until balls.size) {
+                frameView.setBallText(ballIdx, balls[ballIdx])
             }
         }
     }
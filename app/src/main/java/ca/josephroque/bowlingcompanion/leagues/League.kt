@@ -21,13 +21,15 @@ import ca.josephroque.bowlingcompanion.database.Annihilator
 import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
 import ca.josephroque.bowlingcompanion.database.Contract.LeagueEntry
 import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
+import ca.josephroque.bowlingcompanion.database.DataVersion
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
 import ca.josephroque.bowlingcompanion.database.DatabaseManager
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
 import ca.josephroque.bowlingcompanion.games.Game
 import ca.josephroque.bowlingcompanion.scoring.Average
 import ca.josephroque.bowlingcompanion.series.Series
 import ca.josephroque.bowlingcompanion.utils.BCError
 import ca.josephroque.bowlingcompanion.utils.Preferences
-import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.async
 import java.lang.ref.WeakReference
@@ -116,7 +118,7 @@ data class League(
             gamesPerSeries
         }
 
-        return async(CommonPool) {
+        return async(DatabaseDispatchers.Writer) {
             return@async Series.save(
                     context = context,
                     league = this@League,
@@ -145,13 +147,14 @@ data class League(
     }
 
     override fun delete(context: Context): Deferred<Unit> {
-        return async(CommonPool) {
+        return async(DatabaseDispatchers.Writer) {
             if (id < 0) {
                 return@async
             }
 
             Annihilator.instance.delete(
                     weakContext = WeakReference(context),
+                    scope = DatabaseScope.league(this@League),
                     tableName = LeagueEntry.TABLE_NAME,
                     whereClause = "${LeagueEntry._ID}=?",
                     whereArgs = arrayOf(id.toString())
@@ -216,7 +219,7 @@ data class League(
         private fun nameMatchesPracticeLeague(name: String): Boolean = PRACTICE_LEAGUE_NAME.toLowerCase().equals(name.toLowerCase())
 
         private fun isLeagueNameUnique(context: Context, name: String, id: Long = -1): Deferred<Boolean> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val database = DatabaseManager.getReadableDatabase(context).await()
 
                 var cursor: Cursor? = null
@@ -255,7 +258,7 @@ data class League(
             gameHighlight: Int,
             seriesHighlight: Int
         ): Deferred<BCError?> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val errorTitle = if (isEvent) R.string.issue_saving_event else R.string.issue_saving_league
                 val errorMessage: Int?
                 if (nameMatchesPracticeLeague(name)) {
@@ -323,7 +326,7 @@ data class League(
             gameHighlight: Int,
             seriesHighlight: Int
         ): Deferred<Pair<League?, BCError?>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Writer) {
                 val error = validateSavePreconditions(
                         context = context,
                         id = -1,
@@ -412,7 +415,7 @@ data class League(
             gameHighlight: Int,
             seriesHighlight: Int
         ): Deferred<Pair<League?, BCError?>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Writer) {
                 val error = validateSavePreconditions(
                         context = context,
                         id = id,
@@ -445,6 +448,9 @@ data class League(
                 database.beginTransaction()
                 try {
                     database.update(LeagueEntry.TABLE_NAME, values, LeagueEntry._ID + "=?", arrayOf(id.toString()))
+
+                    // Renaming a league can change whether it counts as an open league in statistics
+                    DataVersion.leagueChanged(database, id)
                     database.setTransactionSuccessful()
                 } catch (ex: Exception) {
                     Log.e(TAG, "Error updating league/event details ($name, $additionalPinfall, $additionalGames)", ex)
@@ -473,9 +479,9 @@ data class League(
             includeLeagues: Boolean = true,
             includeEvents: Boolean = false
         ): Deferred<MutableList<League>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val leagues: MutableList<League> = ArrayList()
-                val database = DatabaseManager.getReadableDatabase(context).await()
+                val database = DatabaseManager.getReadableDatabase(context, DatabaseScope.bowler(bowler.id)).await()
 
                 val preferences = PreferenceManager.getDefaultSharedPreferences(context)
                 val sortBy = Sort.fromInt(preferences.getInt(Preferences.LEAGUE_SORT_ORDER, Sort.Alphabetically.ordinal))
@@ -14,15 +14,17 @@ import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.common.interfaces.readDate
 import ca.josephroque.bowlingcompanion.common.interfaces.writeDate
 import ca.josephroque.bowlingcompanion.database.Annihilator
-import ca.josephroque.bowlingcompanion.database.Contract.FrameEntry
 import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
 import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
 import ca.josephroque.bowlingcompanion.database.DatabaseManager
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
+import ca.josephroque.bowlingcompanion.database.Statements
 import ca.josephroque.bowlingcompanion.games.Game
+import ca.josephroque.bowlingcompanion.games.PackedFrames
 import ca.josephroque.bowlingcompanion.leagues.League
 import ca.josephroque.bowlingcompanion.utils.BCError
 import ca.josephroque.bowlingcompanion.utils.DateUtils
-import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.async
 import java.lang.ref.WeakReference
@@ -110,13 +112,14 @@ class Series(
     }
 
     override fun delete(context: Context): Deferred<Unit> {
-        return async(CommonPool) {
+        return async(DatabaseDispatchers.Writer) {
             if (id < 0) {
                 return@async
             }
 
             Annihilator.instance.delete(
                     weakContext = WeakReference(context),
+                    scope = DatabaseScope.series(this@Series),
                     tableName = SeriesEntry.TABLE_NAME,
                     whereClause = "${SeriesEntry._ID}=?",
                     whereArgs = arrayOf(id.toString())
@@ -174,40 +177,22 @@ class Series(
             matchPlay: List<Byte>,
             openDatabase: SQLiteDatabase? = null
         ): Deferred<Pair<Series?, BCError?>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Writer) {
                 val database = openDatabase ?: DatabaseManager.getWritableDatabase(context).await()
                 val inTransaction = openDatabase != null && openDatabase.inTransaction()
-                var values = ContentValues().apply {
-                    put(SeriesEntry.COLUMN_SERIES_DATE, DateUtils.dateToSeriesDate(date))
-                    put(SeriesEntry.COLUMN_LEAGUE_ID, league.id)
-                }
+                val statements = Statements.forDatabase(database)
 
                 val seriesId: Long
                 if (!inTransaction) {
                     database.beginTransaction()
                 }
                 try {
-                    seriesId = database.insert(SeriesEntry.TABLE_NAME, null, values)
+                    seriesId = statements.insertSeries(league.id, DateUtils.dateToSeriesDate(date))
 
                     if (seriesId != -1L) {
                         for (gameIdx in 0 until numberOfGames) {
-                            values = ContentValues().apply {
-                                put(GameEntry.COLUMN_GAME_NUMBER, gameIdx + 1)
-                                put(GameEntry.COLUMN_SCORE, 0)
-                                put(GameEntry.COLUMN_SERIES_ID, seriesId)
-                            }
-                            val gameId = database.insert(GameEntry.TABLE_NAME, null, values)
-
-                            if (gameId != -1L) {
-                                for (frameIdx in 0 until Game.NUMBER_OF_FRAMES) {
-                                    values = ContentValues().apply {
-                                        put(FrameEntry.COLUMN_FRAME_NUMBER, frameIdx + 1)
-                                        put(FrameEntry.COLUMN_GAME_ID, gameId)
-                                        put(FrameEntry.COLUMN_IS_ACCESSED, gameIdx == 0 && frameIdx == 0)
-                                    }
-                                    database.insert(FrameEntry.TABLE_NAME, null, values)
-                                }
-                            } else {
+                            val gameId = statements.insertGame(seriesId, gameIdx + 1, PackedFrames.packEmpty(gameIdx == 0))
+                            if (gameId == -1L) {
                                 throw IllegalStateException("Game was not saved, ID is -1")
                             }
                         }
@@ -249,7 +234,7 @@ class Series(
             matchPlay: List<Byte>,
             openDatabase: SQLiteDatabase? = null
         ): Deferred<Pair<Series?, BCError?>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Writer) {
                 val database = openDatabase ?: DatabaseManager.getWritableDatabase(context).await()
                 val inTransaction = openDatabase != null && openDatabase.inTransaction()
                 val values = ContentValues().apply {
@@ -277,9 +262,9 @@ class Series(
         }
 
         fun fetchAll(context: Context, league: League): Deferred<MutableList<Series>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val seriesList: MutableList<Series> = ArrayList()
-                val database = DatabaseManager.getReadableDatabase(context).await()
+                val database = DatabaseManager.getReadableDatabase(context, DatabaseScope.league(league)).await()
 
                 val rawSeriesQuery = ("SELECT " +
                         "series.${SeriesEntry._ID} AS sid, " +
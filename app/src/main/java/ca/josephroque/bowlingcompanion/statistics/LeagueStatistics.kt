@@ -0,0 +1,395 @@
+package ca.josephroque.bowlingcompanion.statistics
+
+import android.content.ContentValues
+import android.content.Context
+import android.content.SharedPreferences
+import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteException
+import android.support.v7.preference.PreferenceManager
+import android.util.Log
+import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
+import ca.josephroque.bowlingcompanion.database.Contract.LeagueEntry
+import ca.josephroque.bowlingcompanion.database.Contract.LeagueStatisticsEntry
+import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
+import ca.josephroque.bowlingcompanion.database.Contract.TeamBowlerEntry
+import ca.josephroque.bowlingcompanion.database.DataVersion
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
+import ca.josephroque.bowlingcompanion.database.DatabaseHelper
+import ca.josephroque.bowlingcompanion.database.DatabaseManager
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
+import ca.josephroque.bowlingcompanion.leagues.League
+import ca.josephroque.bowlingcompanion.settings.Settings
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeriesSource
+import kotlinx.coroutines.experimental.CommonPool
+import kotlinx.coroutines.experimental.Deferred
+import kotlinx.coroutines.experimental.async
+import kotlinx.coroutines.experimental.launch
+import java.util.Arrays
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Statistics aggregated for each league, so statistics for a league, bowler, or team can be
+ * combined from them without reading every frame. Aggregates are kept up to date as games are
+ * saved, by removing the game's series from the aggregate before the save and adding it back after.
+ *
+ * An aggregate is built again from the league's frames when it is older than the league's
+ * [DataVersion], which happens when games are deleted, or when a change could not be removed from
+ * it, such as lowering the score of the league's high single.
+ */
+object LeagueStatistics {
+
+    @Suppress("unused")
+    private const val TAG = "LeagueStatistics"
+
+    /** Series evaluated together on a single thread when an aggregate is built. */
+    private const val SERIES_PER_CHUNK = 50
+
+    /** Preferences which change the value of statistics within a league. */
+    private val keyPreferences = arrayOf(
+            Settings.BooleanSetting.CountH2AsH,
+            Settings.BooleanSetting.CountS2AsS
+    )
+
+    /** A save in progress, with the aggregate of the league it changes. */
+    class Change(
+        val leagueId: Long,
+        val gameId: Long,
+        val preferences: SharedPreferences,
+        val aggregate: List<Statistic>,
+        val removed: List<Statistic>
+    )
+
+    // MARK: LeagueStatistics
+
+    /**
+     * Get the aggregate for a league, building it from the league's frames if it is out of date.
+     *
+     * @param context to access the database
+     * @param leagueId the league
+     * @param preferences the user's preferences
+     * @return the league's statistics
+     */
+    fun get(context: Context, leagueId: Long, preferences: SharedPreferences): Deferred<List<Statistic>> {
+        return async(DatabaseDispatchers.Reader) {
+            val database = DatabaseManager.getReadableDatabase(context, DatabaseScope.league(leagueId)).await()
+            val dataVersion = DataVersion.getLeagueVersion(database, leagueId)
+            load(database, leagueId, preferences, dataVersion)?.let { return@async it }
+
+            val statistics = build(context, leagueId, preferences)
+            launch(DatabaseDispatchers.Writer) {
+                try {
+                    val writableDatabase = DatabaseManager.getWritableDatabase(context, DatabaseScope.league(leagueId)).await()
+
+                    // Statistics built while the league changed are already out of date
+                    if (DataVersion.getLeagueVersion(writableDatabase, leagueId) == dataVersion) {
+                        save(writableDatabase, leagueId, preferences, dataVersion, statistics)
+                    }
+                } catch (ex: SQLiteException) {
+                    Log.e(TAG, "Could not save statistics for league $leagueId", ex)
+                }
+            }
+
+            return@async statistics
+        }
+    }
+
+    /**
+     * Remove a game's series from its league's aggregate, before the game is saved. Must be called
+     * in the same transaction as the save, before anything is written.
+     *
+     * @param database the database being written to
+     * @param gameId the game about to be saved
+     * @param preferences the user's preferences
+     * @return the change to pass to [applyChange] after the save, or null if the league has no
+     *         aggregate to keep up to date
+     */
+    fun beginChange(database: SQLiteDatabase, gameId: Long, preferences: SharedPreferences): Change? {
+        val leagueId = getLeagueIdForGame(database, gameId) ?: return null
+        val aggregate = load(database, leagueId, preferences, DataVersion.getLeagueVersion(database, leagueId)) ?: return null
+        val series = StatSeries.loadSeriesForGame(database, gameId) ?: return null
+
+        val removed = getFreshStatistics(preferences)
+        StatisticsEvaluator(removed).evaluate(series)
+        return Change(leagueId, gameId, preferences, aggregate, removed)
+    }
+
+    /**
+     * Add a game's series back to its league's aggregate, after the game is saved and
+     * [DataVersion.gameChanged] has been called, in the same transaction.
+     *
+     * @param database the database being written to
+     * @param change from [beginChange]
+     */
+    fun applyChange(database: SQLiteDatabase, change: Change) {
+        val added = getFreshStatistics(change.preferences)
+        StatSeries.loadSeriesForGame(database, change.gameId)?.let {
+            StatisticsEvaluator(added).evaluate(it)
+        }
+
+        for (i in change.aggregate.indices) {
+            // Leave the aggregate out of date, so it is built again the next time it is needed
+            if (!change.aggregate[i].remove(change.removed[i])) {
+                return
+            }
+            change.aggregate[i].combine(added[i])
+        }
+
+        val dataVersion = DataVersion.getLeagueVersion(database, change.leagueId)
+        save(database, change.leagueId, change.preferences, dataVersion, change.aggregate)
+    }
+
+    /**
+     * Get the leagues of a bowler which are included in their statistics.
+     *
+     * @param database to read from
+     * @param bowlerId the bowler
+     * @param preferences the user's preferences, which can exclude open leagues and events
+     * @return IDs of the leagues
+     */
+    fun getLeagueIdsForBowler(database: SQLiteDatabase, bowlerId: Long, preferences: SharedPreferences): List<Long> {
+        val query = "SELECT league.${LeagueEntry._ID} " +
+                "FROM ${LeagueEntry.TABLE_NAME} as league " +
+                "WHERE league.${LeagueEntry.COLUMN_BOWLER_ID}=? "
+        return queryLeagueIds(database, query, bowlerId, preferences)
+    }
+
+    /**
+     * Get the leagues of each bowler on a team which are included in the team's statistics.
+     *
+     * @param database to read from
+     * @param teamId the team
+     * @param preferences the user's preferences, which can exclude open leagues and events
+     * @return IDs of the leagues
+     */
+    fun getLeagueIdsForTeam(database: SQLiteDatabase, teamId: Long, preferences: SharedPreferences): List<Long> {
+        val query = "SELECT league.${LeagueEntry._ID} " +
+                "FROM ${TeamBowlerEntry.TABLE_NAME} as teamBowlers " +
+                "INNER JOIN ${LeagueEntry.TABLE_NAME} as league " +
+                "ON teamBowlers.${TeamBowlerEntry.COLUMN_BOWLER_ID}=league.${LeagueEntry.COLUMN_BOWLER_ID} " +
+                "WHERE teamBowlers.${TeamBowlerEntry.COLUMN_TEAM_ID}=? "
+        return queryLeagueIds(database, query, teamId, preferences)
+    }
+
+    // MARK: Verification
+
+    /**
+     * Build each up to date aggregate again from its league's frames, and remove any which do not
+     * match, so they are built again the next time they are needed. Each league's aggregate is read
+     * just before it is built, and only removed if the league has not changed since, so a save
+     * while the league is built is not mistaken for a mismatch. Run by [LeagueStatisticsJobService]
+     * while the device is idle.
+     *
+     * @param context to access the database
+     * @return the number of aggregates which did not match
+     */
+    fun verify(context: Context): Deferred<Int> {
+        return async(CommonPool) {
+            val preferences = PreferenceManager.getDefaultSharedPreferences(context)
+            val preferencesKey = buildPreferencesKey(preferences)
+
+            val leagueIds = async(DatabaseDispatchers.Reader) {
+                // Each league's aggregate is read again under the league's scope before it is
+                // compared, so listing them doesn't need to wait for any save or delete
+                val database = DatabaseHelper.getInstance(context).readableDatabase
+                val leagueIds: MutableList<Long> = ArrayList()
+                val cursor = database.query(
+                        LeagueStatisticsEntry.TABLE_NAME,
+                        arrayOf(LeagueStatisticsEntry.COLUMN_LEAGUE_ID),
+                        "${LeagueStatisticsEntry.COLUMN_PREFERENCES}=?",
+                        arrayOf(preferencesKey),
+                        null,
+                        null,
+                        null
+                )
+                while (cursor.moveToNext()) {
+                    leagueIds.add(cursor.getLong(0))
+                }
+                cursor.close()
+                return@async leagueIds
+            }.await()
+
+            var mismatches = 0
+            for (leagueId in leagueIds) {
+                if (!isActive) {
+                    break
+                }
+
+                val (dataVersion, bytes) = async(DatabaseDispatchers.Reader) {
+                    val database = DatabaseManager.getReadableDatabase(context, DatabaseScope.league(leagueId)).await()
+                    val dataVersion = DataVersion.getLeagueVersion(database, leagueId)
+                    return@async Pair(dataVersion, loadBytes(database, leagueId, preferences, dataVersion))
+                }.await()
+                bytes ?: continue
+
+                val expected = StatisticHelper.marshallStatistics(build(context, leagueId, preferences))
+                if (Arrays.equals(expected, bytes)) {
+                    continue
+                }
+
+                val removed = async(DatabaseDispatchers.Writer) {
+                    val database = DatabaseManager.getWritableDatabase(context, DatabaseScope.league(leagueId)).await()
+
+                    // The league changed while it was built, so the aggregate can't be compared
+                    if (DataVersion.getLeagueVersion(database, leagueId) != dataVersion) {
+                        return@async false
+                    }
+
+                    database.delete(
+                            LeagueStatisticsEntry.TABLE_NAME,
+                            "${LeagueStatisticsEntry.COLUMN_LEAGUE_ID}=? AND ${LeagueStatisticsEntry.COLUMN_PREFERENCES}=?",
+                            arrayOf(leagueId.toString(), preferencesKey)
+                    )
+                    return@async true
+                }.await()
+
+                if (removed) {
+                    Log.w(TAG, "Statistics for league $leagueId did not match its frames")
+                    mismatches++
+                }
+            }
+
+            return@async mismatches
+        }
+    }
+
+    // MARK: Private functions
+
+    /** Statistics which are modified by a league's data, in the same order as [StatisticHelper]. */
+    private fun getFreshStatistics(preferences: SharedPreferences): MutableList<Statistic> {
+        val statistics = StatisticHelper.getFreshStatistics()
+        statistics.removeAll { it.levels == 0 }
+        for (statistic in statistics) {
+            statistic.updatePreferences(preferences)
+        }
+
+        return statistics
+    }
+
+    private suspend fun build(context: Context, leagueId: Long, preferences: SharedPreferences): List<Statistic> {
+        val statistics = getFreshStatistics(preferences)
+        val database = DatabaseManager.getReadableDatabase(context, DatabaseScope.league(leagueId)).await()
+        StatisticsAggregator.aggregate(database, StatSeriesSource.forLeague(leagueId), statistics)
+
+        // Only statistics which could not be aggregated need each series
+        val evaluated = statistics.filterNot { StatisticsAggregator.isAggregated(it) }
+        if (evaluated.isEmpty()) {
+            return statistics
+        }
+
+        // Series are read in chunks on the reader, and each chunk is evaluated on the common pool
+        // with its own statistics, so the reader is free as soon as the cursor is finished
+        val partialStatistics: MutableList<Deferred<List<Statistic>>> = ArrayList()
+        var chunk: MutableList<StatSeries> = ArrayList(SERIES_PER_CHUNK)
+        StatSeries.streamSeriesForLeague(context, leagueId, StatisticHelper.getLevels(evaluated)) {
+            chunk.add(it)
+            if (chunk.size == SERIES_PER_CHUNK) {
+                partialStatistics.add(evaluate(chunk, preferences))
+                chunk = ArrayList(SERIES_PER_CHUNK)
+            }
+        }.await()
+
+        if (chunk.isNotEmpty()) {
+            partialStatistics.add(evaluate(chunk, preferences))
+        }
+
+        for (partial in partialStatistics) {
+            val partialList = partial.await()
+            for (i in evaluated.indices) {
+                evaluated[i].combine(partialList[i])
+            }
+        }
+
+        return statistics
+    }
+
+    /**
+     * Evaluate a chunk of a league's series with a fresh set of statistics.
+     *
+     * @return the statistics which could not be aggregated, in the same order as [build] evaluates them
+     */
+    private fun evaluate(seriesList: List<StatSeries>, preferences: SharedPreferences): Deferred<List<Statistic>> {
+        return async(CommonPool) {
+            val partial = getFreshStatistics(preferences)
+            partial.removeAll { StatisticsAggregator.isAggregated(it) }
+            StatisticsEvaluator(partial).evaluate(seriesList)
+            return@async partial
+        }
+    }
+
+    private fun load(database: SQLiteDatabase, leagueId: Long, preferences: SharedPreferences, dataVersion: Long): List<Statistic>? {
+        val bytes = loadBytes(database, leagueId, preferences, dataVersion) ?: return null
+        return try {
+            StatisticHelper.unmarshallStatistics(bytes)
+        } catch (ex: RuntimeException) {
+            Log.e(TAG, "Could not read statistics for league $leagueId", ex)
+            null
+        }
+    }
+
+    private fun loadBytes(database: SQLiteDatabase, leagueId: Long, preferences: SharedPreferences, dataVersion: Long): ByteArray? {
+        val cursor = database.query(
+                LeagueStatisticsEntry.TABLE_NAME,
+                arrayOf(LeagueStatisticsEntry.COLUMN_STATISTICS),
+                "${LeagueStatisticsEntry.COLUMN_LEAGUE_ID}=? AND " +
+                        "${LeagueStatisticsEntry.COLUMN_PREFERENCES}=? AND " +
+                        "${LeagueStatisticsEntry.COLUMN_DATA_VERSION}=?",
+                arrayOf(leagueId.toString(), buildPreferencesKey(preferences), StatisticHelper.stampDataVersion(dataVersion.toString())),
+                null,
+                null,
+                null
+        )
+        val bytes = if (cursor.moveToFirst()) cursor.getBlob(0) else null
+        cursor.close()
+        return bytes
+    }
+
+    private fun save(database: SQLiteDatabase, leagueId: Long, preferences: SharedPreferences, dataVersion: Long, statistics: List<Statistic>) {
+        val values = ContentValues().apply {
+            put(LeagueStatisticsEntry.COLUMN_LEAGUE_ID, leagueId)
+            put(LeagueStatisticsEntry.COLUMN_PREFERENCES, buildPreferencesKey(preferences))
+            put(LeagueStatisticsEntry.COLUMN_DATA_VERSION, StatisticHelper.stampDataVersion(dataVersion.toString()))
+            put(LeagueStatisticsEntry.COLUMN_STATISTICS, StatisticHelper.marshallStatistics(statistics))
+        }
+        database.insertWithOnConflict(LeagueStatisticsEntry.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE)
+    }
+
+    private fun getLeagueIdForGame(database: SQLiteDatabase, gameId: Long): Long? {
+        val query = "SELECT series.${SeriesEntry.COLUMN_LEAGUE_ID} " +
+                "FROM ${GameEntry.TABLE_NAME} as game " +
+                "INNER JOIN ${SeriesEntry.TABLE_NAME} as series " +
+                "ON game.${GameEntry.COLUMN_SERIES_ID}=series.${SeriesEntry._ID} " +
+                "WHERE game.${GameEntry._ID}=?"
+        val cursor = database.rawQuery(query, arrayOf(gameId.toString()))
+        val leagueId = if (cursor.moveToFirst()) cursor.getLong(0) else null
+        cursor.close()
+        return leagueId
+    }
+
+    private fun queryLeagueIds(database: SQLiteDatabase, query: String, id: Long, preferences: SharedPreferences): List<Long> {
+        val includeOpen = Settings.BooleanSetting.IncludeOpen.getValue(preferences)
+        val includeEvents = Settings.BooleanSetting.IncludeEvents.getValue(preferences)
+
+        val filteredQuery = query +
+                (if (!includeOpen) "AND league.${LeagueEntry.COLUMN_LEAGUE_NAME}!=? " else "") +
+                (if (!includeEvents) "AND league.${LeagueEntry.COLUMN_IS_EVENT}!=? " else "")
+        val args = listOfNotNull(
+                id.toString(),
+                if (!includeOpen) League.PRACTICE_LEAGUE_NAME else null,
+                if (!includeEvents) "1" else null
+        ).toTypedArray()
+
+        val leagueIds: MutableList<Long> = ArrayList()
+        val cursor = database.rawQuery(filteredQuery, args)
+        while (cursor.moveToNext()) {
+            leagueIds.add(cursor.getLong(0))
+        }
+        cursor.close()
+        return leagueIds
+    }
+
+    private fun buildPreferencesKey(preferences: SharedPreferences): String {
+        return keyPreferences.joinToString(separator = "|") { if (it.getValue(preferences)) "1" else "0" }
+    }
+}
@@ -0,0 +1,75 @@
+package ca.josephroque.bowlingcompanion.statistics
+
+import android.app.job.JobInfo
+import android.app.job.JobParameters
+import android.app.job.JobScheduler
+import android.app.job.JobService
+import android.content.ComponentName
+import android.content.Context
+import kotlinx.coroutines.experimental.CommonPool
+import kotlinx.coroutines.experimental.Deferred
+import kotlinx.coroutines.experimental.launch
+import java.util.concurrent.CancellationException
+import java.util.concurrent.TimeUnit
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Checks the statistics aggregated for each league still match their frames with
+ * [LeagueStatistics.verify], once a day while the device is idle and charging.
+ */
+class LeagueStatisticsJobService : JobService() {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "LeagueStatisticsJob"
+
+        /** Identifier for the job with the [JobScheduler]. */
+        private const val JOB_ID = 1
+
+        /** Time between checks that aggregates match their leagues' frames. */
+        private val VERIFY_INTERVAL = TimeUnit.DAYS.toMillis(1)
+
+        /** Schedule the check, if it is not already scheduled. */
+        fun schedule(context: Context) {
+            val scheduler = context.getSystemService(Context.JOB_SCHEDULER_SERVICE) as JobScheduler
+            if (scheduler.allPendingJobs.any { it.id == JOB_ID }) {
+                return
+            }
+
+            val job = JobInfo.Builder(JOB_ID, ComponentName(context, LeagueStatisticsJobService::class.java))
+                    .setRequiresDeviceIdle(true)
+                    .setRequiresCharging(true)
+                    .setPeriodic(VERIFY_INTERVAL)
+                    .build()
+            scheduler.schedule(job)
+        }
+    }
+
+    private var verification: Deferred<Int>? = null
+
+    // MARK: JobService
+
+    override fun onStartJob(params: JobParameters?): Boolean {
+        val verification = LeagueStatistics.verify(applicationContext)
+        this.verification = verification
+
+        launch(CommonPool) {
+            try {
+                verification.await()
+            } catch (ex: CancellationException) {
+                return@launch
+            }
+
+            jobFinished(params, false)
+        }
+        return true
+    }
+
+    override fun onStopJob(params: JobParameters?): Boolean {
+        // Stopped when the device is no longer idle, so check again the next time it is
+        verification?.cancel()
+        verification = null
+        return true
+    }
+}
@@ -20,6 +20,12 @@ interface Statistic : StatisticListItem, KParcelable {
 
     companion object {
         const val EMPTY_STATISTIC = "—"
+
+        /** Levels of data a statistic can be modified by, combined in [levels]. */
+        const val LEVEL_SERIES = 1
+        const val LEVEL_GAME = 1 shl 1
+        const val LEVEL_FRAME = 1 shl 2
+        const val LEVEL_ALL = LEVEL_SERIES or LEVEL_GAME or LEVEL_FRAME
     }
 
     val titleId: Int
@@ -34,6 +40,14 @@ interface Statistic : StatisticListItem, KParcelable {
 
     val secondaryGraphDataLabelId: Int?
 
+    /**
+     * Levels of data which this statistic is modified by. A statistic is only offered the series,
+     * games, and frames of the levels it declares, so this must include every level it overrides
+     * [isModifiedBy] for.
+     */
+    val levels: Int
+        get() = 0
+
     fun updatePreferences(preferences: SharedPreferences) {}
 
     fun getSubtitle(): String? { return null }
@@ -56,6 +70,33 @@ interface Statistic : StatisticListItem, KParcelable {
 
     fun zero()
 
+    /**
+     * Add the values of another instance of the same statistic to this one, as if this statistic
+     * had also been modified by everything [other] was modified by.
+     *
+     * @param other a statistic of the same type as this one
+     */
+    fun combine(other: Statistic)
+
+    /**
+     * Remove the values of another instance of the same statistic from this one, as if this
+     * statistic had never been modified by everything [other] was modified by.
+     *
+     * @param other a statistic of the same type as this one, which has been combined into it
+     * @return false if the values could not be removed, and the statistic must be built again
+     */
+    fun remove(other: Statistic): Boolean
+
+    /** Values of the statistic to store with [StatisticHelper.marshallStatistics]. */
+    val storedValues: IntArray
+
+    /**
+     * Restore the values of the statistic after it has been stored.
+     *
+     * @param values from [storedValues]
+     */
+    fun restoreValues(values: IntArray)
+
     fun getTitle(resources: Resources): String {
         return resources.getString(titleId)
     }
@@ -105,6 +146,27 @@ interface PercentageStatistic : Statistic {
         numerator = 0
         denominator = 0
     }
+
+    override fun combine(other: Statistic) {
+        other as PercentageStatistic
+        numerator += other.numerator
+        denominator += other.denominator
+    }
+
+    override fun remove(other: Statistic): Boolean {
+        other as PercentageStatistic
+        numerator -= other.numerator
+        denominator -= other.denominator
+        return true
+    }
+
+    override val storedValues: IntArray
+        get() = intArrayOf(numerator, denominator)
+
+    override fun restoreValues(values: IntArray) {
+        numerator = values[0]
+        denominator = values[1]
+    }
 }
 
 interface AverageStatistic : Statistic {
@@ -142,6 +204,27 @@ interface AverageStatistic : Statistic {
         total = 0
         divisor = 0
     }
+
+    override fun combine(other: Statistic) {
+        other as AverageStatistic
+        total += other.total
+        divisor += other.divisor
+    }
+
+    override fun remove(other: Statistic): Boolean {
+        other as AverageStatistic
+        total -= other.total
+        divisor -= other.divisor
+        return true
+    }
+
+    override val storedValues: IntArray
+        get() = intArrayOf(total, divisor)
+
+    override fun restoreValues(values: IntArray) {
+        total = values[0]
+        divisor = values[1]
+    }
 }
 
 interface IntegerStatistic : Statistic {
@@ -169,6 +252,22 @@ interface IntegerStatistic : Statistic {
     override fun zero() {
         value = 0
     }
+
+    override fun combine(other: Statistic) {
+        value += (other as IntegerStatistic).value
+    }
+
+    override fun remove(other: Statistic): Boolean {
+        value -= (other as IntegerStatistic).value
+        return true
+    }
+
+    override val storedValues: IntArray
+        get() = intArrayOf(value)
+
+    override fun restoreValues(values: IntArray) {
+        value = values[0]
+    }
 }
 
 interface StringStatistic : Statistic {
@@ -196,4 +295,20 @@ interface StringStatistic : Statistic {
     override fun zero() {
         value = ""
     }
+
+    override fun combine(other: Statistic) {
+        if (value.isEmpty()) {
+            value = (other as StringStatistic).value
+        }
+    }
+
+    override fun remove(other: Statistic): Boolean {
+        return true
+    }
+
+    /** Names are not stored, since they are set again from the unit whenever statistics are loaded. */
+    override val storedValues: IntArray
+        get() = IntArray(0)
+
+    override fun restoreValues(values: IntArray) {}
 }
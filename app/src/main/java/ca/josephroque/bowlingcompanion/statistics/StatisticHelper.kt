@@ -1,6 +1,7 @@
 package ca.josephroque.bowlingcompanion.statistics
 
 import android.os.Parcel
+import ca.josephroque.bowlingcompanion.BuildConfig
 import ca.josephroque.bowlingcompanion.statistics.impl.average.Game10AverageStatistic
 import ca.josephroque.bowlingcompanion.statistics.impl.average.Game11AverageStatistic
 import ca.josephroque.bowlingcompanion.statistics.impl.average.Game12AverageStatistic
@@ -86,6 +87,7 @@ import ca.josephroque.bowlingcompanion.statistics.impl.series.HighSeriesOf6Stati
 import ca.josephroque.bowlingcompanion.statistics.impl.series.HighSeriesOf7Statistic
 import ca.josephroque.bowlingcompanion.statistics.impl.series.HighSeriesOf8Statistic
 import ca.josephroque.bowlingcompanion.statistics.impl.series.HighSeriesOf9Statistic
+import java.nio.ByteBuffer
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -94,6 +96,11 @@ import ca.josephroque.bowlingcompanion.statistics.impl.series.HighSeriesOf9Stati
  */
 object StatisticHelper {
 
+    /** Version of the format written by [marshallStatistics], to increase whenever it changes. */
+    private const val STORAGE_FORMAT_VERSION = 1
+
+    private const val BYTES_PER_INT = 4
+
     fun getFreshStatistics(): MutableList<Statistic> = mutableListOf(
         // General
         BowlerNameStatistic(),
@@ -190,6 +197,77 @@ object StatisticHelper {
         GamesTiedStatistic()
     )
 
+    /** Get every [Statistic.levels] of data which [statistics] are modified by. */
+    fun getLevels(statistics: List<Statistic>): Int {
+        return statistics.fold(0) { levels, statistic -> levels or statistic.levels }
+    }
+
+    fun writeStatistics(p: Parcel, statistics: List<Statistic>) = with(p) {
+        writeInt(statistics.size)
+        writeIntArray(statistics.map { it.titleId }.toIntArray())
+        for (statistic in statistics) {
+            writeParcelable(statistic, 0)
+        }
+    }
+
+    fun readStatistics(p: Parcel): MutableList<Statistic> {
+        val statisticsSize = p.readInt()
+        val statisticTypes = IntArray(statisticsSize)
+        p.readIntArray(statisticTypes)
+
+        val statistics: MutableList<Statistic> = ArrayList(statisticsSize)
+        for (i in 0 until statisticsSize) {
+            statistics.add(readParcelable(p, statisticTypes[i]))
+        }
+        return statistics
+    }
+
+    /**
+     * Stamp the version of the data stored statistics were built from. Statistics are stored by
+     * their resource IDs, which can change between builds, so the app's version and the version of
+     * the format written by [marshallStatistics] are both part of the stamp.
+     *
+     * @param dataVersion version of the data the statistics were built from
+     * @return the version to store the statistics with
+     */
+    fun stampDataVersion(dataVersion: String): String {
+        return "$STORAGE_FORMAT_VERSION/${BuildConfig.VERSION_CODE}/$dataVersion"
+    }
+
+    /**
+     * Write statistics to bytes which can be stored, and read with [unmarshallStatistics]. The
+     * number of statistics is followed by each statistic's ID, the number of its
+     * [Statistic.storedValues], and the values, all as big-endian ints.
+     */
+    fun marshallStatistics(statistics: List<Statistic>): ByteArray {
+        val values = statistics.map { it.storedValues }
+        val buffer = ByteBuffer.allocate(BYTES_PER_INT * (1 + values.sumBy { 2 + it.size }))
+        buffer.putInt(statistics.size)
+        for (i in statistics.indices) {
+            buffer.putInt(statistics[i].titleId)
+            buffer.putInt(values[i].size)
+            values[i].forEach { buffer.putInt(it) }
+        }
+        return buffer.array()
+    }
+
+    /**
+     * Read statistics written by [marshallStatistics].
+     *
+     * @throws RuntimeException if the bytes are not valid
+     */
+    fun unmarshallStatistics(bytes: ByteArray): MutableList<Statistic> {
+        val buffer = ByteBuffer.wrap(bytes)
+        val statisticsSize = buffer.int
+        val statistics: MutableList<Statistic> = ArrayList(statisticsSize)
+        for (i in 0 until statisticsSize) {
+            val statistic = getStatistic(buffer.int.toLong())
+            statistic.restoreValues(IntArray(buffer.int) { buffer.int })
+            statistics.add(statistic)
+        }
+        return statistics
+    }
+
     fun readParcelable(p: Parcel, id: Int): Statistic {
         return when (id) {
             BowlerNameStatistic.Id -> p.readParcelable<BowlerNameStatistic>(BowlerNameStatistic::class.java.classLoader)!!
@@ -0,0 +1,160 @@
+package ca.josephroque.bowlingcompanion.statistics
+
+import android.database.sqlite.SQLiteDatabase
+import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
+import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
+import ca.josephroque.bowlingcompanion.matchplay.MatchPlayResult
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeriesSource
+import ca.josephroque.bowlingcompanion.statistics.impl.average.PerGameAverageStatistic
+import ca.josephroque.bowlingcompanion.statistics.impl.matchplay.GamesLostStatistic
+import ca.josephroque.bowlingcompanion.statistics.impl.matchplay.GamesTiedStatistic
+import ca.josephroque.bowlingcompanion.statistics.impl.matchplay.GamesWonStatistic
+import ca.josephroque.bowlingcompanion.statistics.impl.overall.GameAverageStatistic
+import ca.josephroque.bowlingcompanion.statistics.impl.overall.HighSingleStatistic
+import ca.josephroque.bowlingcompanion.statistics.impl.overall.NumberOfGamesStatistic
+import ca.josephroque.bowlingcompanion.statistics.impl.overall.TotalPinfallStatistic
+import ca.josephroque.bowlingcompanion.statistics.impl.series.HighSeriesStatistic
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Fills statistics which only depend on the scores and match play results of games with grouped
+ * queries, instead of reading every series. Values match those from [StatisticsEvaluator], which
+ * skips games with a score of 0.
+ */
+object StatisticsAggregator {
+
+    @Suppress("unused")
+    private const val TAG = "StatisticsAggregator"
+
+    // MARK: StatisticsAggregator
+
+    /**
+     * Check if a statistic can be filled by [aggregate].
+     *
+     * @param statistic the statistic to check
+     * @return true if the statistic is filled by [aggregate], false if it must be evaluated
+     */
+    fun isAggregated(statistic: Statistic): Boolean {
+        return statistic is HighSingleStatistic ||
+                statistic is TotalPinfallStatistic ||
+                statistic is NumberOfGamesStatistic ||
+                statistic is GameAverageStatistic ||
+                statistic is PerGameAverageStatistic ||
+                statistic is GamesWonStatistic ||
+                statistic is GamesLostStatistic ||
+                statistic is GamesTiedStatistic ||
+                statistic is HighSeriesStatistic
+    }
+
+    /**
+     * Fill statistics from the games of a source. Only statistics which are [isAggregated] are
+     * changed, and they should be fresh.
+     *
+     * @param database to read from
+     * @param source the series to aggregate
+     * @param statistics the statistics to fill
+     */
+    fun aggregate(database: SQLiteDatabase, source: StatSeriesSource, statistics: List<Statistic>) {
+        val aggregated = statistics.filter { isAggregated(it) }
+        if (aggregated.isEmpty()) {
+            return
+        }
+
+        if (aggregated.any { it !is HighSeriesStatistic }) {
+            aggregateGames(database, source, aggregated)
+        }
+
+        if (aggregated.any { it is HighSeriesStatistic }) {
+            aggregateSeries(database, source, aggregated)
+        }
+    }
+
+    // MARK: Private functions
+
+    /** Fill statistics of games, with one row for each game number. */
+    private fun aggregateGames(database: SQLiteDatabase, source: StatSeriesSource, statistics: List<Statistic>) {
+        val matchPlay = "game.${GameEntry.COLUMN_MATCH_PLAY}"
+        val query = ("SELECT " +
+                "game.${GameEntry.COLUMN_GAME_NUMBER} AS ordinal, " +
+                "COUNT(*) AS games, " +
+                "SUM(game.${GameEntry.COLUMN_SCORE}) AS total, " +
+                "MAX(game.${GameEntry.COLUMN_SCORE}) AS high, " +
+                "SUM($matchPlay=${MatchPlayResult.WON.ordinal}) AS won, " +
+                "SUM($matchPlay=${MatchPlayResult.LOST.ordinal}) AS lost, " +
+                "SUM($matchPlay=${MatchPlayResult.TIED.ordinal}) AS tied, " +
+                "SUM($matchPlay!=${MatchPlayResult.NONE.ordinal}) AS matchPlay " +
+                "FROM ${source.tables}" +
+                "WHERE ${source.selection}" +
+                "AND game.${GameEntry.COLUMN_SCORE}>0 " +
+                "GROUP BY game.${GameEntry.COLUMN_GAME_NUMBER}")
+
+        val cursor = database.rawQuery(query, source.args)
+        if (cursor.moveToFirst()) {
+            while (!cursor.isAfterLast) {
+                val ordinal = cursor.getInt(cursor.getColumnIndex("ordinal"))
+                val games = cursor.getInt(cursor.getColumnIndex("games"))
+                val total = cursor.getInt(cursor.getColumnIndex("total"))
+                val high = cursor.getInt(cursor.getColumnIndex("high"))
+                val won = cursor.getInt(cursor.getColumnIndex("won"))
+                val lost = cursor.getInt(cursor.getColumnIndex("lost"))
+                val tied = cursor.getInt(cursor.getColumnIndex("tied"))
+                val matchPlayGames = cursor.getInt(cursor.getColumnIndex("matchPlay"))
+
+                for (statistic in statistics) {
+                    when (statistic) {
+                        is HighSingleStatistic -> statistic.value = maxOf(statistic.value, high)
+                        is TotalPinfallStatistic -> statistic.value += total
+                        is NumberOfGamesStatistic -> statistic.value += games
+                        is GameAverageStatistic -> {
+                            statistic.total += total
+                            statistic.divisor += games
+                        }
+                        is PerGameAverageStatistic -> if (statistic.gameNumber == ordinal) {
+                            statistic.total += total
+                            statistic.divisor += games
+                        }
+                        is GamesWonStatistic -> {
+                            statistic.numerator += won
+                            statistic.denominator += matchPlayGames
+                        }
+                        is GamesLostStatistic -> {
+                            statistic.numerator += lost
+                            statistic.denominator += matchPlayGames
+                        }
+                        is GamesTiedStatistic -> {
+                            statistic.numerator += tied
+                            statistic.denominator += matchPlayGames
+                        }
+                    }
+                }
+
+                cursor.moveToNext()
+            }
+        }
+        cursor.close()
+    }
+
+    /** Fill statistics of series, with the highest total for each number of games in a series. */
+    private fun aggregateSeries(database: SQLiteDatabase, source: StatSeriesSource, statistics: List<Statistic>) {
+        val query = ("SELECT games, MAX(total) AS high FROM (" +
+                "SELECT " +
+                "COUNT(*) AS games, " +
+                "SUM(game.${GameEntry.COLUMN_SCORE}) AS total " +
+                "FROM ${source.tables}" +
+                "WHERE ${source.selection}" +
+                "GROUP BY series.${SeriesEntry._ID}" +
+                ") GROUP BY games")
+
+        val highSeries = statistics.filterIsInstance<HighSeriesStatistic>().associateBy { it.seriesSize }
+        val cursor = database.rawQuery(query, source.args)
+        if (cursor.moveToFirst()) {
+            while (!cursor.isAfterLast) {
+                val games = cursor.getInt(cursor.getColumnIndex("games"))
+                highSeries[games]?.let { it.value = cursor.getInt(cursor.getColumnIndex("high")) }
+                cursor.moveToNext()
+            }
+        }
+        cursor.close()
+    }
+}
@@ -0,0 +1,92 @@
+package ca.josephroque.bowlingcompanion.statistics
+
+import android.content.ContentValues
+import android.content.SharedPreferences
+import android.database.sqlite.SQLiteDatabase
+import android.util.Log
+import ca.josephroque.bowlingcompanion.database.Contract.StatisticsCacheEntry
+import ca.josephroque.bowlingcompanion.settings.Settings
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Statistics which have been built for a unit, saved with the version of the data they were built
+ * from so they can be shown again without reading every frame, until the data changes.
+ */
+object StatisticsCache {
+
+    @Suppress("unused")
+    private const val TAG = "StatisticsCache"
+
+    /** Preferences which change the value of statistics, and so are part of each key. */
+    private val keyPreferences = arrayOf(
+            Settings.BooleanSetting.IncludeOpen,
+            Settings.BooleanSetting.IncludeEvents,
+            Settings.BooleanSetting.CountH2AsH,
+            Settings.BooleanSetting.CountS2AsS
+    )
+
+    // MARK: StatisticsCache
+
+    /**
+     * Build the key for a unit's statistics with the current preferences.
+     *
+     * @param unitKey identifies the unit
+     * @param preferences the user's preferences
+     * @return the key to cache the statistics with
+     */
+    fun buildKey(unitKey: String, preferences: SharedPreferences): String {
+        val key = StringBuilder(unitKey)
+        for (setting in keyPreferences) {
+            key.append('|').append(if (setting.getValue(preferences)) 1 else 0)
+        }
+        return key.toString()
+    }
+
+    /**
+     * Load cached statistics.
+     *
+     * @param database to read from
+     * @param key from [buildKey]
+     * @param dataVersion version of the data the statistics must have been built from
+     * @return the statistics, or null if they were not cached or the data has changed
+     */
+    fun load(database: SQLiteDatabase, key: String, dataVersion: String): MutableList<Statistic>? {
+        val cursor = database.query(
+                StatisticsCacheEntry.TABLE_NAME,
+                arrayOf(StatisticsCacheEntry.COLUMN_STATISTICS),
+                "${StatisticsCacheEntry.COLUMN_CACHE_KEY}=? AND ${StatisticsCacheEntry.COLUMN_DATA_VERSION}=?",
+                arrayOf(key, StatisticHelper.stampDataVersion(dataVersion)),
+                null,
+                null,
+                null
+        )
+        val bytes = if (cursor.moveToFirst()) cursor.getBlob(0) else null
+        cursor.close()
+        bytes ?: return null
+
+        return try {
+            StatisticHelper.unmarshallStatistics(bytes)
+        } catch (ex: RuntimeException) {
+            Log.e(TAG, "Could not read cached statistics for $key", ex)
+            null
+        }
+    }
+
+    /**
+     * Cache statistics, replacing any cached for the same key.
+     *
+     * @param database to write to
+     * @param key from [buildKey]
+     * @param dataVersion version of the data the statistics were built from
+     * @param statistics the statistics to cache
+     */
+    fun save(database: SQLiteDatabase, key: String, dataVersion: String, statistics: List<Statistic>) {
+        val values = ContentValues().apply {
+            put(StatisticsCacheEntry.COLUMN_CACHE_KEY, key)
+            put(StatisticsCacheEntry.COLUMN_DATA_VERSION, StatisticHelper.stampDataVersion(dataVersion))
+            put(StatisticsCacheEntry.COLUMN_STATISTICS, StatisticHelper.marshallStatistics(statistics))
+        }
+        database.insertWithOnConflict(StatisticsCacheEntry.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE)
+    }
+}
@@ -0,0 +1,72 @@
+package ca.josephroque.bowlingcompanion.statistics
+
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Updates a set of statistics from a list of series, visiting each series, game, and frame once.
+ * Statistics are sorted by the [Statistic.levels] they are modified by when the evaluator is
+ * created, so each level is only offered to the statistics which use it.
+ */
+class StatisticsEvaluator(statistics: List<Statistic>) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "StatisticsEvaluator"
+    }
+
+    private val seriesStatistics = statistics.filter { it.levels and Statistic.LEVEL_SERIES != 0 }.toTypedArray()
+    private val gameStatistics = statistics.filter { it.levels and Statistic.LEVEL_GAME != 0 }.toTypedArray()
+    private val frameStatistics = statistics.filter { it.levels and Statistic.LEVEL_FRAME != 0 }.toTypedArray()
+
+    // MARK: StatisticsEvaluator
+
+    fun evaluate(seriesList: List<StatSeries>) {
+        for (series in seriesList) {
+            evaluate(series)
+        }
+    }
+
+    fun evaluate(series: StatSeries) {
+        for (statistic in seriesStatistics) {
+            if (statistic.isModifiedBy(series)) {
+                statistic.modify(series)
+            }
+        }
+
+        if (gameStatistics.isEmpty() && frameStatistics.isEmpty()) {
+            return
+        }
+
+        for (game in series.games) {
+            // Don't process games with scores of 0
+            if (game.score == 0) {
+                continue
+            }
+
+            for (statistic in gameStatistics) {
+                if (statistic.isModifiedBy(game)) {
+                    statistic.modify(game)
+                }
+            }
+
+            // Don't process frames for manual games
+            if (game.isManual || frameStatistics.isEmpty()) {
+                continue
+            }
+
+            for (frame in game.frames) {
+                if (!frame.isAccessed) {
+                    continue
+                }
+
+                for (statistic in frameStatistics) {
+                    if (statistic.isModifiedBy(frame)) {
+                        statistic.modify(frame)
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ca.josephroque.bowlingcompanion.statistics.graph
+
+import ca.josephroque.bowlingcompanion.statistics.Statistic
+import ca.josephroque.bowlingcompanion.statistics.StatisticHelper
+import ca.josephroque.bowlingcompanion.statistics.StatisticsEvaluator
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+import ca.josephroque.bowlingcompanion.utils.DateUtils
+import com.github.mikephil.charting.data.Entry
+import java.util.Calendar
+import java.util.Date
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Values of every statistic which can be graphed, for each week of a unit's series. The series of
+ * each week are evaluated once for all statistics, and each week is combined into the weeks before
+ * it for accumulated values, so graphing another statistic only has to read its values.
+ */
+class StatisticsGraphData private constructor(
+    val labels: List<String>,
+    private val statisticIds: List<Long>,
+    private val hasSecondary: BooleanArray,
+    private val weeks: List<FloatArray>
+) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "StatisticsGraphData"
+
+        /** Each week holds the primary and secondary values of each statistic, then the accumulated values. */
+        private const val VALUES_PER_STATISTIC = 4
+    }
+
+    // MARK: StatisticsGraphData
+
+    /**
+     * Get the entries of each line of a statistic's graph.
+     *
+     * @param statisticId the statistic
+     * @param accumulative true to include every week before each entry in its value
+     * @return entries of the primary line, then the secondary line if the statistic has one, or
+     *         an empty list if the statistic cannot be graphed
+     */
+    fun getEntries(statisticId: Long, accumulative: Boolean): List<List<Entry>> {
+        val index = statisticIds.indexOf(statisticId)
+        if (index == -1 || weeks.isEmpty()) {
+            return emptyList()
+        }
+
+        val offset = index * VALUES_PER_STATISTIC + if (accumulative) 2 else 0
+        val primary = weeks.mapIndexed { week, values -> Entry(week.toFloat(), values[offset]) }
+        if (!hasSecondary[index]) {
+            return listOf(primary)
+        }
+
+        val secondary = weeks.mapIndexed { week, values -> Entry(week.toFloat(), values[offset + 1]) }
+        return listOf(primary, secondary)
+    }
+
+    /**
+     * Builds graph values from series added in order of date. Only the series of the current week
+     * are evaluated at a time, so series do not need to be kept once added.
+     */
+    class Builder {
+
+        private val accumulated = getGraphableStatistics()
+        private var statistics = getGraphableStatistics()
+        private var evaluator = StatisticsEvaluator(statistics)
+
+        private val labels: MutableList<String> = ArrayList()
+        private val weeks: MutableList<FloatArray> = ArrayList()
+
+        private val calendar = Calendar.getInstance()
+        private var lastDate: Date? = null
+        private var lastYear = 0
+        private var lastWeek = 0
+
+        fun add(series: StatSeries) {
+            calendar.time = series.date
+            val newYear = calendar.get(Calendar.YEAR)
+            val newWeek = calendar.get(Calendar.WEEK_OF_YEAR)
+
+            // Either the year or week has incremented, so the last week is complete
+            val lastDate = this.lastDate
+            if (lastDate != null && (newYear > lastYear || newWeek > lastWeek)) {
+                endWeek(lastDate)
+            }
+
+            evaluator.evaluate(series)
+
+            this.lastDate = series.date
+            lastYear = newYear
+            lastWeek = newWeek
+        }
+
+        fun build(): StatisticsGraphData {
+            lastDate?.let { endWeek(it) }
+            lastDate = null
+
+            return StatisticsGraphData(
+                    labels = labels,
+                    statisticIds = accumulated.map { it.id },
+                    hasSecondary = BooleanArray(accumulated.size) { accumulated[it].secondaryGraphY != null },
+                    weeks = weeks
+            )
+        }
+
+        private fun endWeek(lastDate: Date) {
+            val values = FloatArray(statistics.size * VALUES_PER_STATISTIC)
+            for (i in statistics.indices) {
+                accumulated[i].combine(statistics[i])
+
+                val offset = i * VALUES_PER_STATISTIC
+                values[offset] = statistics[i].primaryGraphY!!
+                values[offset + 1] = statistics[i].secondaryGraphY ?: 0F
+                values[offset + 2] = accumulated[i].primaryGraphY!!
+                values[offset + 3] = accumulated[i].secondaryGraphY ?: 0F
+            }
+
+            weeks.add(values)
+            labels.add(DateUtils.dateToShort(lastDate))
+
+            statistics = getGraphableStatistics()
+            evaluator = StatisticsEvaluator(statistics)
+        }
+
+        private fun getGraphableStatistics(): List<Statistic> {
+            return StatisticHelper.getFreshStatistics().filter { it.canBeGraphed }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ca.josephroque.bowlingcompanion.statistics.immutable
+
+import ca.josephroque.bowlingcompanion.games.Frame
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * The balls of a [StatFrame] which statistics look at, each as a bitset of the
+ * [DeckClassification] features of its pins. The frame is classified once when it is loaded,
+ * including the extra racks of the 10th frame, so each statistic only has to test bits.
+ *
+ * Features which depend on preferences, such as [DeckClassification.HEAD_PIN_2], are always set,
+ * and statistics choose whether to count them.
+ */
+class FrameFeatures(pinState: Array<Deck>, ballFouled: BooleanArray, isLastFrame: Boolean) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "FrameFeatures"
+
+        /** Set for every ball which was thrown, so a ball which hit no pins has features. */
+        const val THROWN = 1 shl 30
+
+        private fun featuresOf(deck: Deck): Int = DeckClassification.features[deck.mask] or THROWN
+    }
+
+    /** Each ball thrown at a full rack. Only the 10th frame can have more than one. */
+    val firstBalls: IntArray
+
+    /** The first ball of the frame's spare chance, or 0 if every rack was struck. */
+    val leave: Int
+
+    /** The ball thrown at [leave], or 0 if there was no leave. */
+    val secondBall: Int
+
+    /**
+     * A first ball in the 10th frame which left pins, but was the last ball of the frame so could
+     * not be spared, or 0 if there was none.
+     */
+    val unsparedLeave: Int
+
+    /** Number of balls fouled. */
+    val fouls: Int
+
+    init {
+        val cleared = BooleanArray(Frame.NUMBER_OF_BALLS) { pinState[it] === Deck.allPinsDown }
+
+        // The rack is set again after each strike or spare in the 10th frame
+        val first = featuresOf(pinState[0])
+        firstBalls = when {
+            !isLastFrame -> intArrayOf(first)
+            cleared[0] && cleared[1] -> intArrayOf(first, featuresOf(pinState[1]), featuresOf(pinState[2]))
+            cleared[0] -> intArrayOf(first, featuresOf(pinState[1]))
+            cleared[1] -> intArrayOf(first, featuresOf(pinState[2]))
+            else -> intArrayOf(first)
+        }
+
+        val leaveIdx = when {
+            !cleared[0] -> 0
+            isLastFrame && !cleared[1] -> 1
+            else -> -1
+        }
+        leave = if (leaveIdx >= 0) featuresOf(pinState[leaveIdx]) else 0
+        secondBall = if (leaveIdx >= 0) featuresOf(pinState[leaveIdx + 1]) else 0
+        unsparedLeave = if (isLastFrame && cleared[1] && !cleared[2]) featuresOf(pinState[2]) else 0
+        fouls = ballFouled.count { it }
+    }
+}
@@ -6,12 +6,12 @@ import ca.josephroque.bowlingcompanion.common.interfaces.KParcelable
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.common.interfaces.readBoolean
 import ca.josephroque.bowlingcompanion.common.interfaces.writeBoolean
-import ca.josephroque.bowlingcompanion.database.Contract.FrameEntry
+import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
 import ca.josephroque.bowlingcompanion.games.Frame
 import ca.josephroque.bowlingcompanion.games.Game
 import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.Pin
 import ca.josephroque.bowlingcompanion.games.lane.toBooleanArray
+import ca.josephroque.bowlingcompanion.games.lane.value
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -27,11 +27,14 @@ class StatFrame(
 ) : IIdentifiable, KParcelable {
 
     val pinsLeftOnDeck: Int
-        get() = pinState[Frame.LAST_BALL].sumBy { if (it.onDeck) it.value else 0 }
+        get() = pinState[Frame.LAST_BALL].value(true)
 
     val zeroBasedOrdinal: Int
         get() = ordinal - 1
 
+    /** Features of the balls in the frame, shared by every statistic. */
+    val features = FrameFeatures(pinState, ballFouled, zeroBasedOrdinal == Game.LAST_FRAME)
+
     // MARK: Constructor
 
     private constructor(p: Parcel): this(
@@ -41,7 +44,7 @@ class StatFrame(
             pinState = Array(Frame.NUMBER_OF_BALLS) {
                 val pins = BooleanArray(Game.NUMBER_OF_PINS)
                 p.readBooleanArray(pins)
-                return@Array Pin.deckFromBooleanArray(pins)
+                return@Array Deck.fromBooleanArray(pins)
             },
             ballFouled = BooleanArray(Frame.NUMBER_OF_BALLS).apply {
                 p.readBooleanArray(this)
@@ -67,14 +70,13 @@ class StatFrame(
         @Suppress("unused")
         @JvmField val CREATOR = parcelableCreator(::StatFrame)
 
+        /**
+         * Frames are only read for games whose frames are evaluated. Games with a score of 0 and
+         * manual games are still read, without frames.
+         */
         val QUERY_FIELDS = arrayOf(
-            "frame.${FrameEntry._ID} as fid",
-            "frame.${FrameEntry.COLUMN_FRAME_NUMBER}",
-            "frame.${FrameEntry.COLUMN_IS_ACCESSED}",
-            "frame.${FrameEntry.COLUMN_FOULS}",
-            "frame.${FrameEntry.COLUMN_PIN_STATE[0]}",
-            "frame.${FrameEntry.COLUMN_PIN_STATE[1]}",
-            "frame.${FrameEntry.COLUMN_PIN_STATE[2]}"
+            "CASE WHEN game.${GameEntry.COLUMN_SCORE}>0 AND game.${GameEntry.COLUMN_IS_MANUAL}=0 " +
+                    "THEN game.${GameEntry.COLUMN_FRAMES} END AS frames"
         )
     }
 }
@@ -2,27 +2,21 @@ package ca.josephroque.bowlingcompanion.statistics.immutable
 
 import android.content.Context
 import android.database.Cursor
+import android.database.sqlite.SQLiteDatabase
 import android.os.Parcel
-import android.support.v7.preference.PreferenceManager
 import ca.josephroque.bowlingcompanion.common.interfaces.IIdentifiable
 import ca.josephroque.bowlingcompanion.common.interfaces.KParcelable
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.common.interfaces.readDate
 import ca.josephroque.bowlingcompanion.common.interfaces.writeDate
-import ca.josephroque.bowlingcompanion.database.Contract.BowlerEntry
 import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
-import ca.josephroque.bowlingcompanion.database.Contract.FrameEntry
-import ca.josephroque.bowlingcompanion.database.Contract.LeagueEntry
 import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
-import ca.josephroque.bowlingcompanion.database.Contract.TeamBowlerEntry
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
 import ca.josephroque.bowlingcompanion.database.DatabaseHelper
-import ca.josephroque.bowlingcompanion.games.Frame
-import ca.josephroque.bowlingcompanion.games.Game
-import ca.josephroque.bowlingcompanion.games.lane.Pin
+import ca.josephroque.bowlingcompanion.games.PackedFrames
 import ca.josephroque.bowlingcompanion.leagues.League
 import ca.josephroque.bowlingcompanion.matchplay.MatchPlayResult
-import ca.josephroque.bowlingcompanion.scoring.Fouls
-import ca.josephroque.bowlingcompanion.settings.Settings
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.utils.DateUtils
 import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
@@ -71,185 +65,140 @@ class StatSeries(
         @Suppress("unused")
         @JvmField val CREATOR = parcelableCreator(::StatSeries)
 
-        private val queryFields = (
-                "series.${SeriesEntry._ID} as sid, " +
-                "series.${SeriesEntry.COLUMN_SERIES_DATE}, " +
-                "${StatGame.QUERY_FIELDS.joinToString(separator = ", ")}, " +
-                "${StatFrame.QUERY_FIELDS.joinToString(separator = ", ")} ")
+        private val SERIES_QUERY_FIELDS = arrayOf(
+                "series.${SeriesEntry._ID} as sid",
+                "series.${SeriesEntry.COLUMN_SERIES_DATE}"
+        )
 
-        fun loadSeriesForTeam(context: Context, teamId: Long): Deferred<List<StatSeries>> {
-            val preferences = PreferenceManager.getDefaultSharedPreferences(context)
-            val includeOpen = Settings.BooleanSetting.IncludeOpen.getValue(preferences)
-            val includeEvents = Settings.BooleanSetting.IncludeEvents.getValue(preferences)
+        fun loadSeriesForTeam(context: Context, teamId: Long, levels: Int = Statistic.LEVEL_ALL): Deferred<List<StatSeries>> {
+            return collectSeries { streamSeriesForTeam(context, teamId, levels, it) }
+        }
 
-            val query = ("SELECT " +
-                    queryFields +
-                    "FROM ${TeamBowlerEntry.TABLE_NAME} as teamBowlers " +
-                    "INNER JOIN ${BowlerEntry.TABLE_NAME} as bowler " +
-                    "ON ${TeamBowlerEntry.COLUMN_BOWLER_ID}=bowler.${BowlerEntry._ID} " +
-                    "INNER JOIN ${LeagueEntry.TABLE_NAME} as league " +
-                    "ON bowler.${BowlerEntry._ID}=${LeagueEntry.COLUMN_BOWLER_ID} " +
-                    "INNER JOIN ${SeriesEntry.TABLE_NAME} as series " +
-                    "ON league.${LeagueEntry._ID}=${SeriesEntry.COLUMN_LEAGUE_ID} " +
-                    "INNER JOIN ${GameEntry.TABLE_NAME} as game " +
-                    "ON series.${SeriesEntry._ID}=game.${GameEntry.COLUMN_SERIES_ID} " +
-                    "INNER JOIN ${FrameEntry.TABLE_NAME} as frame " +
-                    "ON game.${GameEntry._ID}=frame.${FrameEntry.COLUMN_GAME_ID} " +
-                    "WHERE teamBowlers.${TeamBowlerEntry.COLUMN_TEAM_ID}=? " +
-                    (if (!includeOpen) "AND league.${LeagueEntry.COLUMN_LEAGUE_NAME}!=? " else "") +
-                    (if (!includeEvents) "AND league.${LeagueEntry.COLUMN_IS_EVENT}!=? " else "") +
-                    "ORDER BY " +
-                    "series.${SeriesEntry.COLUMN_SERIES_DATE}, " +
-                    "series.${SeriesEntry._ID}, " +
-                    "game.${GameEntry.COLUMN_GAME_NUMBER}, " +
-                    "frame.${FrameEntry.COLUMN_FRAME_NUMBER}")
-            val args = listOfNotNull(
-                    teamId.toString(),
-                    if (!includeOpen) League.PRACTICE_LEAGUE_NAME else null,
-                    if (!includeEvents) "1" else null
-            ).toTypedArray()
-            return loadSeries(context, query, args)
+        fun streamSeriesForTeam(context: Context, teamId: Long, levels: Int = Statistic.LEVEL_ALL, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+            return streamSeries(context, StatSeriesSource.forTeam(context, teamId), levels, consumer)
         }
 
-        fun loadSeriesForBowler(context: Context, bowlerId: Long): Deferred<List<StatSeries>> {
-            val preferences = PreferenceManager.getDefaultSharedPreferences(context)
-            val includeOpen = Settings.BooleanSetting.IncludeOpen.getValue(preferences)
-            val includeEvents = Settings.BooleanSetting.IncludeEvents.getValue(preferences)
+        fun loadSeriesForBowler(context: Context, bowlerId: Long, levels: Int = Statistic.LEVEL_ALL): Deferred<List<StatSeries>> {
+            return collectSeries { streamSeriesForBowler(context, bowlerId, levels, it) }
+        }
 
-            val query = ("SELECT " +
-                    queryFields +
-                    "FROM ${LeagueEntry.TABLE_NAME} as league " +
-                    "INNER JOIN ${SeriesEntry.TABLE_NAME} as series " +
-                    "ON league.${LeagueEntry._ID}=${SeriesEntry.COLUMN_LEAGUE_ID} " +
-                    "INNER JOIN ${GameEntry.TABLE_NAME} as game " +
-                    "ON series.${SeriesEntry._ID}=game.${GameEntry.COLUMN_SERIES_ID} " +
-                    "INNER JOIN ${FrameEntry.TABLE_NAME} as frame " +
-                    "ON game.${GameEntry._ID}=frame.${FrameEntry.COLUMN_GAME_ID} " +
-                    "WHERE league.${LeagueEntry.COLUMN_BOWLER_ID}=? " +
-                    (if (!includeOpen) "AND league.${LeagueEntry.COLUMN_LEAGUE_NAME}!=? " else "") +
-                    (if (!includeEvents) "AND league.${LeagueEntry.COLUMN_IS_EVENT}!=? " else "") +
-                    "ORDER BY " +
-                    "series.${SeriesEntry.COLUMN_SERIES_DATE}, " +
-                    "series.${SeriesEntry._ID}, " +
-                    "game.${GameEntry.COLUMN_GAME_NUMBER}, " +
-                    "frame.${FrameEntry.COLUMN_FRAME_NUMBER}")
-            val args = listOfNotNull(
-                    bowlerId.toString(),
-                    if (!includeOpen) League.PRACTICE_LEAGUE_NAME else null,
-                    if (!includeEvents) "1" else null
-            ).toTypedArray()
-            return loadSeries(context, query, args)
+        fun streamSeriesForBowler(context: Context, bowlerId: Long, levels: Int = Statistic.LEVEL_ALL, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+            return streamSeries(context, StatSeriesSource.forBowler(context, bowlerId), levels, consumer)
         }
 
-        fun loadSeriesForLeague(context: Context, leagueId: Long): Deferred<List<StatSeries>> {
-            val query = ("SELECT " +
-                    queryFields +
-                    "FROM ${SeriesEntry.TABLE_NAME} as series " +
-                    "INNER JOIN ${GameEntry.TABLE_NAME} as game " +
-                    "ON series.${SeriesEntry._ID}=game.${GameEntry.COLUMN_SERIES_ID} " +
-                    "INNER JOIN ${FrameEntry.TABLE_NAME} as frame " +
-                    "ON game.${GameEntry._ID}=frame.${FrameEntry.COLUMN_GAME_ID} " +
-                    "WHERE series.${SeriesEntry.COLUMN_LEAGUE_ID}=? " +
-                    "ORDER BY " +
-                    "series.${SeriesEntry.COLUMN_SERIES_DATE}, " +
-                    "series.${SeriesEntry._ID}, " +
-                    "game.${GameEntry.COLUMN_GAME_NUMBER}, " +
-                    "frame.${FrameEntry.COLUMN_FRAME_NUMBER}")
-            val args = arrayOf(leagueId.toString())
-            return loadSeries(context, query, args)
+        fun loadSeriesForLeague(context: Context, leagueId: Long, levels: Int = Statistic.LEVEL_ALL): Deferred<List<StatSeries>> {
+            return collectSeries { streamSeriesForLeague(context, leagueId, levels, it) }
         }
 
-        fun loadSeriesForSeries(context: Context, seriesId: Long): Deferred<List<StatSeries>> {
-            val query = ("SELECT " +
-                    queryFields +
-                    "FROM ${SeriesEntry.TABLE_NAME} as series " +
-                    "INNER JOIN ${GameEntry.TABLE_NAME} as game " +
-                    "ON series.${SeriesEntry._ID}=game.${GameEntry.COLUMN_SERIES_ID} " +
-                    "INNER JOIN ${FrameEntry.TABLE_NAME} as frame " +
-                    "ON game.${GameEntry._ID}=frame.${FrameEntry.COLUMN_GAME_ID} " +
-                    "WHERE series.${SeriesEntry._ID}=? " +
-                    "ORDER BY game.${GameEntry.COLUMN_GAME_NUMBER}, frame.${FrameEntry.COLUMN_FRAME_NUMBER}")
-            val args = arrayOf(seriesId.toString())
-            return loadSeries(context, query, args)
+        fun streamSeriesForLeague(context: Context, leagueId: Long, levels: Int = Statistic.LEVEL_ALL, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+            return streamSeries(context, StatSeriesSource.forLeague(leagueId), levels, consumer)
         }
 
-        private fun loadSeries(context: Context, query: String, args: Array<String>): Deferred<List<StatSeries>> {
-            return async(CommonPool) {
-                val db = DatabaseHelper.getInstance(context).writableDatabase
+        fun loadSeriesForSeries(context: Context, seriesId: Long, levels: Int = Statistic.LEVEL_ALL): Deferred<List<StatSeries>> {
+            return collectSeries { streamSeriesForSeries(context, seriesId, levels, it) }
+        }
 
-                var lastGameId: Long = -1
-                var lastSeriesId: Long = -1
+        fun streamSeriesForSeries(context: Context, seriesId: Long, levels: Int = Statistic.LEVEL_ALL, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+            return streamSeries(context, StatSeriesSource.forSeries(seriesId), levels, consumer)
+        }
+
+        /**
+         * Load the series a game belongs to on the calling thread, so it can be read from within a
+         * transaction on [database].
+         */
+        fun loadSeriesForGame(database: SQLiteDatabase, gameId: Long): StatSeries? {
+            var series: StatSeries? = null
+            readSeries(database, StatSeriesSource.forSeriesOfGame(gameId), Statistic.LEVEL_ALL) { series = it }
+            return series
+        }
+
+        private fun getQueryFields(levels: Int): String {
+            val frameFields = if (levels and Statistic.LEVEL_FRAME != 0) StatFrame.QUERY_FIELDS else emptyArray()
+            return (SERIES_QUERY_FIELDS + StatGame.QUERY_FIELDS + frameFields).joinToString(separator = ", ") + " "
+        }
+
+        private fun collectSeries(stream: ((StatSeries) -> Unit) -> Deferred<Unit>): Deferred<List<StatSeries>> {
+            return async(CommonPool) {
                 val series: MutableList<StatSeries> = ArrayList()
-                var games: MutableList<StatGame> = ArrayList(League.MAX_NUMBER_OF_GAMES)
-                var frames: MutableList<StatFrame> = ArrayList(Game.NUMBER_OF_FRAMES)
+                stream { series.add(it) }.await()
+                return@async series
+            }
+        }
 
-                fun buildSeriesFromCursor(cursor: Cursor): StatSeries {
-                    return StatSeries(
-                            id = cursor.getLong(cursor.getColumnIndex("sid")),
-                            games = games,
-                            date = DateUtils.seriesDateToDate(cursor.getString(cursor.getColumnIndex(SeriesEntry.COLUMN_SERIES_DATE)))
-                    )
-                }
+        private fun streamSeries(context: Context, source: StatSeriesSource, levels: Int, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+            return async(DatabaseDispatchers.Reader) {
+                val db = DatabaseHelper.getInstance(context).writableDatabase
+                readSeries(db, source, levels, consumer)
+            }
+        }
 
-                fun buildGameFromCursor(cursor: Cursor): StatGame {
-                    return StatGame(
-                            id = cursor.getLong(cursor.getColumnIndex("gid")),
-                            ordinal = cursor.getInt(cursor.getColumnIndex(GameEntry.COLUMN_GAME_NUMBER)),
-                            score = cursor.getInt(cursor.getColumnIndex(GameEntry.COLUMN_SCORE)),
-                            isManual = cursor.getInt(cursor.getColumnIndex(GameEntry.COLUMN_IS_MANUAL)) == 1,
-                            frames = frames,
-                            matchPlay = MatchPlayResult.fromInt(cursor.getInt(cursor.getColumnIndex(GameEntry.COLUMN_MATCH_PLAY)))!!
-                    )
-                }
+        /**
+         * Read series from a cursor and pass each to [consumer] as soon as it is complete, so only
+         * one series is held in memory at a time unless the consumer keeps them.
+         */
+        private fun readSeries(db: SQLiteDatabase, source: StatSeriesSource, levels: Int, consumer: (StatSeries) -> Unit) {
+            val query = ("SELECT " +
+                    getQueryFields(levels) +
+                    "FROM ${source.tables}" +
+                    "WHERE ${source.selection}" +
+                    "ORDER BY " +
+                    "series.${SeriesEntry.COLUMN_SERIES_DATE}, " +
+                    "series.${SeriesEntry._ID}, " +
+                    "game.${GameEntry.COLUMN_GAME_NUMBER}")
 
-                var cursor: Cursor? = null
-                try {
-                    cursor = db.rawQuery(query, args, null)
-                    if (cursor.moveToFirst()) {
-                        while (!cursor.isAfterLast) {
-                            val newGameId = cursor.getLong(cursor.getColumnIndex("gid"))
-                            if (newGameId != lastGameId && lastGameId != -1L) {
-                                cursor.moveToPrevious()
-                                games.add(buildGameFromCursor(cursor))
-                                frames = ArrayList(Game.NUMBER_OF_FRAMES)
-                                cursor.moveToNext()
-                            }
+            var lastSeriesId: Long = -1
+            var games: MutableList<StatGame> = ArrayList(League.MAX_NUMBER_OF_GAMES)
 
-                            val newSeriesId = cursor.getLong(cursor.getColumnIndex("sid"))
-                            if (newSeriesId != lastSeriesId && lastSeriesId != -1L) {
-                                cursor.moveToPrevious()
-                                series.add(buildSeriesFromCursor(cursor))
-                                games = ArrayList(League.MAX_NUMBER_OF_GAMES)
-                                cursor.moveToNext()
-                            }
+            fun buildSeriesFromCursor(cursor: Cursor): StatSeries {
+                return StatSeries(
+                        id = cursor.getLong(cursor.getColumnIndex("sid")),
+                        games = games,
+                        date = DateUtils.seriesDateToDate(cursor.getString(cursor.getColumnIndex(SeriesEntry.COLUMN_SERIES_DATE)))
+                )
+            }
 
-                            frames.add(StatFrame(
-                                    id = cursor.getLong(cursor.getColumnIndex("fid")),
-                                    ordinal = cursor.getInt(cursor.getColumnIndex(FrameEntry.COLUMN_FRAME_NUMBER)),
-                                    isAccessed = cursor.getInt(cursor.getColumnIndex(FrameEntry.COLUMN_IS_ACCESSED)) == 1,
-                                    pinState = Array(Frame.NUMBER_OF_BALLS) {
-                                        return@Array Pin.deckFromInt(cursor.getInt(cursor.getColumnIndex(FrameEntry.COLUMN_PIN_STATE[it])))
-                                    },
-                                    ballFouled = BooleanArray(Frame.NUMBER_OF_BALLS) {
-                                        return@BooleanArray Fouls.foulIntToString(cursor.getInt(cursor.getColumnIndex(FrameEntry.COLUMN_FOULS))).contains((it + 1).toString())
-                                    }
-                            ))
+            fun buildGameFromCursor(cursor: Cursor): StatGame {
+                val gameId = cursor.getLong(cursor.getColumnIndex("gid"))
 
-                            lastSeriesId = newSeriesId
-                            lastGameId = newGameId
-                            cursor.moveToNext()
-                        }
+                // Games are read without frames when no statistic needs them
+                val framesIndex = cursor.getColumnIndex("frames")
+                val frames = if (framesIndex != -1 && !cursor.isNull(framesIndex)) {
+                    PackedFrames.unpack(gameId, cursor.getBlob(framesIndex), ::StatFrame)
+                } else {
+                    emptyList<StatFrame>()
+                }
 
-                        cursor.moveToPrevious()
+                return StatGame(
+                        id = gameId,
+                        ordinal = cursor.getInt(cursor.getColumnIndex(GameEntry.COLUMN_GAME_NUMBER)),
+                        score = cursor.getInt(cursor.getColumnIndex(GameEntry.COLUMN_SCORE)),
+                        isManual = cursor.getInt(cursor.getColumnIndex(GameEntry.COLUMN_IS_MANUAL)) == 1,
+                        frames = frames,
+                        matchPlay = MatchPlayResult.fromInt(cursor.getInt(cursor.getColumnIndex(GameEntry.COLUMN_MATCH_PLAY)))!!
+                )
+            }
 
-                        games.add(buildGameFromCursor(cursor))
-                        series.add(buildSeriesFromCursor(cursor))
+            var cursor: Cursor? = null
+            try {
+                cursor = db.rawQuery(query, source.args, null)
+                while (cursor.moveToNext()) {
+                    val newSeriesId = cursor.getLong(cursor.getColumnIndex("sid"))
+                    if (newSeriesId != lastSeriesId && lastSeriesId != -1L) {
+                        cursor.moveToPrevious()
+                        consumer(buildSeriesFromCursor(cursor))
+                        games = ArrayList(League.MAX_NUMBER_OF_GAMES)
+                        cursor.moveToNext()
                     }
-                } finally {
-                    cursor?.close()
+
+                    games.add(buildGameFromCursor(cursor))
+                    lastSeriesId = newSeriesId
                 }
 
-                return@async series
+                if (cursor.moveToLast()) {
+                    consumer(buildSeriesFromCursor(cursor))
+                }
+            } finally {
+                cursor?.close()
             }
         }
     }
@@ -0,0 +1,106 @@
+package ca.josephroque.bowlingcompanion.statistics.immutable
+
+import android.content.Context
+import android.support.v7.preference.PreferenceManager
+import ca.josephroque.bowlingcompanion.database.Contract.BowlerEntry
+import ca.josephroque.bowlingcompanion.database.Contract.GameEntry
+import ca.josephroque.bowlingcompanion.database.Contract.LeagueEntry
+import ca.josephroque.bowlingcompanion.database.Contract.SeriesEntry
+import ca.josephroque.bowlingcompanion.database.Contract.TeamBowlerEntry
+import ca.josephroque.bowlingcompanion.leagues.League
+import ca.josephroque.bowlingcompanion.settings.Settings
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * The series statistics are read from: the tables joined through to each game as `series` and
+ * `game`, and the selection which limits them to a single bowler, league, team or series.
+ */
+class StatSeriesSource private constructor(
+    val tables: String,
+    val selection: String,
+    val args: Array<String>
+) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "StatSeriesSource"
+
+        private const val GAMES = "INNER JOIN ${GameEntry.TABLE_NAME} as game " +
+                "ON series.${SeriesEntry._ID}=game.${GameEntry.COLUMN_SERIES_ID} "
+        private const val SERIES_AND_GAMES = "${SeriesEntry.TABLE_NAME} as series $GAMES"
+
+        fun forTeam(context: Context, teamId: Long): StatSeriesSource {
+            val preferences = PreferenceManager.getDefaultSharedPreferences(context)
+            val includeOpen = Settings.BooleanSetting.IncludeOpen.getValue(preferences)
+            val includeEvents = Settings.BooleanSetting.IncludeEvents.getValue(preferences)
+
+            return StatSeriesSource(
+                    tables = "${TeamBowlerEntry.TABLE_NAME} as teamBowlers " +
+                            "INNER JOIN ${BowlerEntry.TABLE_NAME} as bowler " +
+                            "ON ${TeamBowlerEntry.COLUMN_BOWLER_ID}=bowler.${BowlerEntry._ID} " +
+                            "INNER JOIN ${LeagueEntry.TABLE_NAME} as league " +
+                            "ON bowler.${BowlerEntry._ID}=${LeagueEntry.COLUMN_BOWLER_ID} " +
+                            "INNER JOIN ${SeriesEntry.TABLE_NAME} as series " +
+                            "ON league.${LeagueEntry._ID}=${SeriesEntry.COLUMN_LEAGUE_ID} " +
+                            GAMES,
+                    selection = "teamBowlers.${TeamBowlerEntry.COLUMN_TEAM_ID}=? " +
+                            (if (!includeOpen) "AND league.${LeagueEntry.COLUMN_LEAGUE_NAME}!=? " else "") +
+                            (if (!includeEvents) "AND league.${LeagueEntry.COLUMN_IS_EVENT}!=? " else ""),
+                    args = listOfNotNull(
+                            teamId.toString(),
+                            if (!includeOpen) League.PRACTICE_LEAGUE_NAME else null,
+                            if (!includeEvents) "1" else null
+                    ).toTypedArray()
+            )
+        }
+
+        fun forBowler(context: Context, bowlerId: Long): StatSeriesSource {
+            val preferences = PreferenceManager.getDefaultSharedPreferences(context)
+            val includeOpen = Settings.BooleanSetting.IncludeOpen.getValue(preferences)
+            val includeEvents = Settings.BooleanSetting.IncludeEvents.getValue(preferences)
+
+            return StatSeriesSource(
+                    tables = "${LeagueEntry.TABLE_NAME} as league " +
+                            "INNER JOIN ${SeriesEntry.TABLE_NAME} as series " +
+                            "ON league.${LeagueEntry._ID}=${SeriesEntry.COLUMN_LEAGUE_ID} " +
+                            GAMES,
+                    selection = "league.${LeagueEntry.COLUMN_BOWLER_ID}=? " +
+                            (if (!includeOpen) "AND league.${LeagueEntry.COLUMN_LEAGUE_NAME}!=? " else "") +
+                            (if (!includeEvents) "AND league.${LeagueEntry.COLUMN_IS_EVENT}!=? " else ""),
+                    args = listOfNotNull(
+                            bowlerId.toString(),
+                            if (!includeOpen) League.PRACTICE_LEAGUE_NAME else null,
+                            if (!includeEvents) "1" else null
+                    ).toTypedArray()
+            )
+        }
+
+        fun forLeague(leagueId: Long): StatSeriesSource {
+            return StatSeriesSource(
+                    tables = SERIES_AND_GAMES,
+                    selection = "series.${SeriesEntry.COLUMN_LEAGUE_ID}=? ",
+                    args = arrayOf(leagueId.toString())
+            )
+        }
+
+        fun forSeries(seriesId: Long): StatSeriesSource {
+            return StatSeriesSource(
+                    tables = SERIES_AND_GAMES,
+                    selection = "series.${SeriesEntry._ID}=? ",
+                    args = arrayOf(seriesId.toString())
+            )
+        }
+
+        /** The series a game belongs to. */
+        fun forSeriesOfGame(gameId: Long): StatSeriesSource {
+            return StatSeriesSource(
+                    tables = SERIES_AND_GAMES,
+                    selection = "series.${SeriesEntry._ID}=(" +
+                            "SELECT ${GameEntry.COLUMN_SERIES_ID} FROM ${GameEntry.TABLE_NAME} WHERE ${GameEntry._ID}=?" +
+                            ") ",
+                    args = arrayOf(gameId.toString())
+            )
+        }
+    }
+}
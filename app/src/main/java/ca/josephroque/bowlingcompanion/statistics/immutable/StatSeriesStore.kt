@@ -0,0 +1,289 @@
+package ca.josephroque.bowlingcompanion.statistics.immutable
+
+import android.os.Parcel
+import ca.josephroque.bowlingcompanion.common.interfaces.KParcelable
+import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
+import ca.josephroque.bowlingcompanion.games.Frame
+import ca.josephroque.bowlingcompanion.matchplay.MatchPlayResult
+import ca.josephroque.bowlingcompanion.scoring.FrameCodec
+import ca.josephroque.bowlingcompanion.scoring.Fouls
+import java.nio.ByteBuffer
+import java.util.Date
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Series, with their games and frames, held in parallel primitive arrays instead of an object for
+ * each. The games of each series and the frames of each game are found by offsets, the pins of
+ * each frame are packed by [FrameCodec], and a [StatSeries] is only created when a series is read,
+ * so a held series takes a few bytes per frame.
+ *
+ * A store is written to a parcel as a single byte array, which can also be kept on its own with
+ * [toByteArray] and read with [fromByteArray].
+ */
+class StatSeriesStore private constructor(
+    private val seriesIds: LongArray,
+    private val seriesDates: LongArray,
+    private val seriesGameOffsets: IntArray,
+    private val gameIds: LongArray,
+    private val gameOrdinals: ByteArray,
+    private val gameScores: ShortArray,
+    private val gameFlags: ByteArray,
+    private val gameFrameOffsets: IntArray,
+    private val frameIds: LongArray,
+    private val frameOrdinals: ByteArray,
+    private val framePins: ShortArray,
+    private val frameFouls: ByteArray
+) : KParcelable {
+
+    /** Number of series in the store. */
+    val size: Int
+        get() = seriesIds.size
+
+    // MARK: Constructors
+
+    private constructor(p: Parcel): this(fromByteArray(p.createByteArray()!!))
+
+    private constructor(other: StatSeriesStore): this(
+            seriesIds = other.seriesIds,
+            seriesDates = other.seriesDates,
+            seriesGameOffsets = other.seriesGameOffsets,
+            gameIds = other.gameIds,
+            gameOrdinals = other.gameOrdinals,
+            gameScores = other.gameScores,
+            gameFlags = other.gameFlags,
+            gameFrameOffsets = other.gameFrameOffsets,
+            frameIds = other.frameIds,
+            frameOrdinals = other.frameOrdinals,
+            framePins = other.framePins,
+            frameFouls = other.frameFouls
+    )
+
+    // MARK: StatSeriesStore
+
+    operator fun get(index: Int): StatSeries {
+        val games = (seriesGameOffsets[index] until seriesGameOffsets[index + 1]).map { getGame(it) }
+        return StatSeries(
+                id = seriesIds[index],
+                games = games,
+                date = Date(seriesDates[index])
+        )
+    }
+
+    fun forEach(consumer: (StatSeries) -> Unit) {
+        for (i in 0 until size) {
+            consumer(get(i))
+        }
+    }
+
+    fun toByteArray(): ByteArray {
+        val gameCount = gameIds.size
+        val frameCount = frameIds.size
+        val buffer = ByteBuffer.allocate(
+                COUNTS_SIZE +
+                size * SERIES_SIZE + Integer.BYTES +
+                gameCount * GAME_SIZE + Integer.BYTES +
+                frameCount * FRAME_SIZE
+        )
+
+        buffer.putInt(size).putInt(gameCount).putInt(frameCount)
+        seriesIds.forEach { buffer.putLong(it) }
+        seriesDates.forEach { buffer.putLong(it) }
+        seriesGameOffsets.forEach { buffer.putInt(it) }
+        gameIds.forEach { buffer.putLong(it) }
+        buffer.put(gameOrdinals)
+        gameScores.forEach { buffer.putShort(it) }
+        buffer.put(gameFlags)
+        gameFrameOffsets.forEach { buffer.putInt(it) }
+        frameIds.forEach { buffer.putLong(it) }
+        buffer.put(frameOrdinals)
+        framePins.forEach { buffer.putShort(it) }
+        buffer.put(frameFouls)
+        return buffer.array()
+    }
+
+    // MARK: Private functions
+
+    private fun getGame(index: Int): StatGame {
+        val frames = (gameFrameOffsets[index] until gameFrameOffsets[index + 1]).map { getFrame(it) }
+        val flags = gameFlags[index].toInt()
+        return StatGame(
+                id = gameIds[index],
+                ordinal = gameOrdinals[index].toInt(),
+                score = gameScores[index].toInt(),
+                isManual = flags and GAME_IS_MANUAL != 0,
+                frames = frames,
+                matchPlay = MatchPlayResult.fromInt(flags shr GAME_MATCH_PLAY_SHIFT)!!
+        )
+    }
+
+    private fun getFrame(index: Int): StatFrame {
+        val pins = framePins[index]
+        val fouls = frameFouls[index].toInt()
+        return StatFrame(
+                id = frameIds[index],
+                ordinal = frameOrdinals[index].toInt(),
+                isAccessed = FrameCodec.isAccessed(pins),
+                pinState = Array(Frame.NUMBER_OF_BALLS) { FrameCodec.unpackPins(pins, it) },
+                ballFouled = BooleanArray(Frame.NUMBER_OF_BALLS) { Fouls.isBallFouled(fouls, it) }
+        )
+    }
+
+    // MARK: Parcelable
+
+    override fun writeToParcel(dest: Parcel, flags: Int) = with(dest) {
+        writeByteArray(toByteArray())
+    }
+
+    /**
+     * Adds series to a new store. Series can be passed to [add] as they are read from the
+     * database, and are not kept once added.
+     */
+    class Builder {
+
+        private var seriesCount = 0
+        private var gameCount = 0
+        private var frameCount = 0
+
+        private var seriesIds = LongArray(INITIAL_SERIES_CAPACITY)
+        private var seriesDates = LongArray(INITIAL_SERIES_CAPACITY)
+        private var seriesGameOffsets = IntArray(INITIAL_SERIES_CAPACITY + 1)
+        private var gameIds = LongArray(INITIAL_SERIES_CAPACITY)
+        private var gameOrdinals = ByteArray(INITIAL_SERIES_CAPACITY)
+        private var gameScores = ShortArray(INITIAL_SERIES_CAPACITY)
+        private var gameFlags = ByteArray(INITIAL_SERIES_CAPACITY)
+        private var gameFrameOffsets = IntArray(INITIAL_SERIES_CAPACITY + 1)
+        private var frameIds = LongArray(INITIAL_SERIES_CAPACITY)
+        private var frameOrdinals = ByteArray(INITIAL_SERIES_CAPACITY)
+        private var framePins = ShortArray(INITIAL_SERIES_CAPACITY)
+        private var frameFouls = ByteArray(INITIAL_SERIES_CAPACITY)
+
+        fun add(series: StatSeries) {
+            if (seriesCount == seriesIds.size) {
+                val capacity = seriesIds.size * 2
+                seriesIds = seriesIds.copyOf(capacity)
+                seriesDates = seriesDates.copyOf(capacity)
+                seriesGameOffsets = seriesGameOffsets.copyOf(capacity + 1)
+            }
+
+            seriesIds[seriesCount] = series.id
+            seriesDates[seriesCount] = series.date.time
+            for (game in series.games) {
+                addGame(game)
+            }
+
+            seriesCount++
+            seriesGameOffsets[seriesCount] = gameCount
+        }
+
+        fun build(): StatSeriesStore {
+            return StatSeriesStore(
+                    seriesIds = seriesIds.copyOf(seriesCount),
+                    seriesDates = seriesDates.copyOf(seriesCount),
+                    seriesGameOffsets = seriesGameOffsets.copyOf(seriesCount + 1),
+                    gameIds = gameIds.copyOf(gameCount),
+                    gameOrdinals = gameOrdinals.copyOf(gameCount),
+                    gameScores = gameScores.copyOf(gameCount),
+                    gameFlags = gameFlags.copyOf(gameCount),
+                    gameFrameOffsets = gameFrameOffsets.copyOf(gameCount + 1),
+                    frameIds = frameIds.copyOf(frameCount),
+                    frameOrdinals = frameOrdinals.copyOf(frameCount),
+                    framePins = framePins.copyOf(frameCount),
+                    frameFouls = frameFouls.copyOf(frameCount)
+            )
+        }
+
+        private fun addGame(game: StatGame) {
+            if (gameCount == gameIds.size) {
+                val capacity = gameIds.size * 2
+                gameIds = gameIds.copyOf(capacity)
+                gameOrdinals = gameOrdinals.copyOf(capacity)
+                gameScores = gameScores.copyOf(capacity)
+                gameFlags = gameFlags.copyOf(capacity)
+                gameFrameOffsets = gameFrameOffsets.copyOf(capacity + 1)
+            }
+
+            gameIds[gameCount] = game.id
+            gameOrdinals[gameCount] = game.ordinal.toByte()
+            gameScores[gameCount] = game.score.toShort()
+            gameFlags[gameCount] = ((if (game.isManual) GAME_IS_MANUAL else 0) or
+                    (game.matchPlay.ordinal shl GAME_MATCH_PLAY_SHIFT)).toByte()
+            for (frame in game.frames) {
+                addFrame(frame)
+            }
+
+            gameCount++
+            gameFrameOffsets[gameCount] = frameCount
+        }
+
+        private fun addFrame(frame: StatFrame) {
+            if (frameCount == frameIds.size) {
+                val capacity = frameIds.size * 2
+                frameIds = frameIds.copyOf(capacity)
+                frameOrdinals = frameOrdinals.copyOf(capacity)
+                framePins = framePins.copyOf(capacity)
+                frameFouls = frameFouls.copyOf(capacity)
+            }
+
+            frameIds[frameCount] = frame.id
+            frameOrdinals[frameCount] = frame.ordinal.toByte()
+            framePins[frameCount] = FrameCodec.packPins(frame.pinState, frame.isAccessed)
+            frameFouls[frameCount] = Fouls.foulMask(frame.ballFouled).toByte()
+            frameCount++
+        }
+    }
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "StatSeriesStore"
+
+        @Suppress("unused")
+        @JvmField val CREATOR = parcelableCreator(::StatSeriesStore)
+
+        private const val INITIAL_SERIES_CAPACITY = 16
+
+        /** Flags of a game, with its [MatchPlayResult] in the bits after [GAME_IS_MANUAL]. */
+        private const val GAME_IS_MANUAL = 1
+        private const val GAME_MATCH_PLAY_SHIFT = 1
+
+        private const val COUNTS_SIZE = 3 * Integer.BYTES
+        private const val SERIES_SIZE = 2 * java.lang.Long.BYTES + Integer.BYTES
+        private const val GAME_SIZE = java.lang.Long.BYTES + 1 + java.lang.Short.BYTES + 1 + Integer.BYTES
+        private const val FRAME_SIZE = java.lang.Long.BYTES + 1 + java.lang.Short.BYTES + 1
+
+        fun fromByteArray(bytes: ByteArray): StatSeriesStore {
+            val buffer = ByteBuffer.wrap(bytes)
+            val seriesCount = buffer.int
+            val gameCount = buffer.int
+            val frameCount = buffer.int
+
+            val seriesIds = LongArray(seriesCount) { buffer.long }
+            val seriesDates = LongArray(seriesCount) { buffer.long }
+            val seriesGameOffsets = IntArray(seriesCount + 1) { buffer.int }
+            val gameIds = LongArray(gameCount) { buffer.long }
+            val gameOrdinals = ByteArray(gameCount).also { buffer.get(it) }
+            val gameScores = ShortArray(gameCount) { buffer.short }
+            val gameFlags = ByteArray(gameCount).also { buffer.get(it) }
+            val gameFrameOffsets = IntArray(gameCount + 1) { buffer.int }
+            val frameIds = LongArray(frameCount) { buffer.long }
+            val frameOrdinals = ByteArray(frameCount).also { buffer.get(it) }
+            val framePins = ShortArray(frameCount) { buffer.short }
+            val frameFouls = ByteArray(frameCount).also { buffer.get(it) }
+
+            return StatSeriesStore(
+                    seriesIds = seriesIds,
+                    seriesDates = seriesDates,
+                    seriesGameOffsets = seriesGameOffsets,
+                    gameIds = gameIds,
+                    gameOrdinals = gameOrdinals,
+                    gameScores = gameScores,
+                    gameFlags = gameFlags,
+                    gameFrameOffsets = gameFrameOffsets,
+                    frameIds = frameIds,
+                    frameOrdinals = frameOrdinals,
+                    framePins = framePins,
+                    frameFouls = frameFouls
+            )
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ca.josephroque.bowlingcompanion.statistics.impl.average
 
 import ca.josephroque.bowlingcompanion.statistics.AverageStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatGame
 
@@ -25,6 +26,7 @@ abstract class PerGameAverageStatistic(override var total: Int = 0, override var
 
     override val category = StatisticsCategory.Average
     override fun isModifiedBy(game: StatGame) = game.score > 0
+    override val levels = Statistic.LEVEL_GAME
 
     // MARK: PerGameAverageStatistic
 
@@ -4,8 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isAce
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -17,7 +16,7 @@ class AcesStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBallStatist
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedBy(deck: Deck) = deck.isAce
+    override val features = DeckClassification.ACE
 
     override val titleId = Id
     override val id = Id.toLong()
@@ -4,9 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isChopOff
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -18,10 +16,7 @@ class ChopOffsSparedStatistic(numerator: Int = 0, denominator: Int = 0) : Second
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedByFirstBall(deck: Deck) = deck.isChopOff
-
-    /** @Override */
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
+    override val leaveFeatures = DeckClassification.CHOP_OFF
 
     override val titleId = Id
     override val id = Id.toLong()
@@ -4,8 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isChopOff
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -17,7 +16,7 @@ class ChopOffsStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBallSta
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedBy(deck: Deck) = deck.isChopOff
+    override val features = DeckClassification.CHOP_OFF
 
     override val titleId = Id
     override val id = Id.toLong()
@@ -4,9 +4,7 @@ import android.content.SharedPreferences
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isHeadPin
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.settings.Settings
 
 /**
@@ -31,9 +29,8 @@ class HeadPinsSparedStatistic(numerator: Int = 0, denominator: Int = 0) : Second
 
     // MARK: Statistic
 
-    override fun isModifiedByFirstBall(deck: Deck) = deck.isHeadPin(countH2asH)
-
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
+    override val leaveFeatures: Int
+        get() = if (countH2asH) DeckClassification.HEAD_PIN or DeckClassification.HEAD_PIN_2 else DeckClassification.HEAD_PIN
 
     override fun updatePreferences(preferences: SharedPreferences) {
         countH2asH = Settings.BooleanSetting.CountH2AsH.getValue(preferences)
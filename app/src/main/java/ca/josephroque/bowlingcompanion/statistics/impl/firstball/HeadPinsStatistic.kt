@@ -4,8 +4,7 @@ import android.content.SharedPreferences
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isHeadPin
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.settings.Settings
 
 /**
@@ -29,7 +28,8 @@ class HeadPinsStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBallSta
 
     // MARK: Statistic
 
-    override fun isModifiedBy(deck: Deck) = deck.isHeadPin(countH2asH)
+    override val features: Int
+        get() = if (countH2asH) DeckClassification.HEAD_PIN or DeckClassification.HEAD_PIN_2 else DeckClassification.HEAD_PIN
 
     override fun updatePreferences(preferences: SharedPreferences) {
         countH2asH = Settings.BooleanSetting.CountH2AsH.getValue(preferences)
@@ -3,8 +3,7 @@ package ca.josephroque.bowlingcompanion.statistics.impl.firstball
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isLeftTwelve
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -15,7 +14,7 @@ class LeftTwelvesStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBall
 
     // MARK: Statistic
 
-    override fun isModifiedBy(deck: Deck) = deck.isLeftTwelve
+    override val features = DeckClassification.LEFT_TWELVE
 
     override val titleId = Id
     override val id = Id.toLong()
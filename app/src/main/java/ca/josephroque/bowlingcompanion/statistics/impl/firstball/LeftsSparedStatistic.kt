@@ -3,9 +3,7 @@ package ca.josephroque.bowlingcompanion.statistics.impl.firstball
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isLeft
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -27,9 +25,7 @@ class LeftsSparedStatistic(numerator: Int = 0, denominator: Int = 0) : SecondBal
 
     // MARK: Statistic
 
-    override fun isModifiedByFirstBall(deck: Deck) = deck.isLeft
-
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
+    override val leaveFeatures = DeckClassification.LEFT
 
     // MARK: Constructors
 
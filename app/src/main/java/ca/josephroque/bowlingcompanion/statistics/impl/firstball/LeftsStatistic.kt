@@ -4,8 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isLeft
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -28,7 +27,7 @@ class LeftsStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBallStatis
 
     // MARK: Statistic
 
-    override fun isModifiedBy(deck: Deck) = deck.isLeft
+    override val features = DeckClassification.LEFT
 
     // MARK: Constructors
 
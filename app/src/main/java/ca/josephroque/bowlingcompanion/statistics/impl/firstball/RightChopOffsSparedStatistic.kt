@@ -4,9 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isRightChopOff
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -18,10 +16,7 @@ class RightChopOffsSparedStatistic(numerator: Int = 0, denominator: Int = 0) : S
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedByFirstBall(deck: Deck) = deck.isRightChopOff
-
-    /** @Override */
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
+    override val leaveFeatures = DeckClassification.RIGHT_CHOP_OFF
 
     // MARK: Overrides
 
@@ -4,8 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isRightChopOff
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -17,7 +16,7 @@ class RightChopOffsStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBa
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedBy(deck: Deck) = deck.isRightChopOff
+    override val features = DeckClassification.RIGHT_CHOP_OFF
 
     // MARK: Overrides
 
@@ -4,8 +4,7 @@ import android.content.SharedPreferences
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isRightSplit
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.settings.Settings
 
 /**
@@ -29,7 +28,8 @@ class RightSplitsStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBall
 
     // MARK: Statistic
 
-    override fun isModifiedBy(deck: Deck) = deck.isRightSplit(countS2asS)
+    override val features: Int
+        get() = if (countS2asS) DeckClassification.RIGHT_SPLIT or DeckClassification.RIGHT_SPLIT_2 else DeckClassification.RIGHT_SPLIT
 
     override fun updatePreferences(preferences: SharedPreferences) {
         countS2asS = Settings.BooleanSetting.CountS2AsS.getValue(preferences)
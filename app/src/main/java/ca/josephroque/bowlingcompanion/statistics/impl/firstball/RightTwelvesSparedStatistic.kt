@@ -3,9 +3,7 @@ package ca.josephroque.bowlingcompanion.statistics.impl.firstball
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isRightTwelve
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -16,9 +14,7 @@ class RightTwelvesSparedStatistic(numerator: Int = 0, denominator: Int = 0) : Se
 
     // MARK: Statistic
 
-    override fun isModifiedByFirstBall(deck: Deck) = deck.isRightTwelve
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
-
+    override val leaveFeatures = DeckClassification.RIGHT_TWELVE
     override val titleId = Id
     override val id = Id.toLong()
     override val secondaryGraphDataLabelId = R.string.statistic_right_twelves
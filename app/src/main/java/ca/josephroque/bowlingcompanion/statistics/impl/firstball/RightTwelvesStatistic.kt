@@ -3,8 +3,7 @@ package ca.josephroque.bowlingcompanion.statistics.impl.firstball
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isRightTwelve
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -15,7 +14,7 @@ class RightTwelvesStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBal
 
     // MARK: Statistic
 
-    override fun isModifiedBy(deck: Deck) = deck.isRightTwelve
+    override val features = DeckClassification.RIGHT_TWELVE
 
     override val titleId = Id
     override val id = Id.toLong()
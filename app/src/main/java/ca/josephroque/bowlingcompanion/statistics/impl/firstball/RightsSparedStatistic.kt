@@ -4,9 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isRight
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -18,10 +16,7 @@ class RightsSparedStatistic(numerator: Int = 0, denominator: Int = 0) : SecondBa
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedByFirstBall(deck: Deck) = deck.isRight
-
-    /** @Override */
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
+    override val leaveFeatures = DeckClassification.RIGHT
 
     // MARK: Overrides
 
@@ -1,9 +1,8 @@
 package ca.josephroque.bowlingcompanion.statistics.impl.firstball
 
-import ca.josephroque.bowlingcompanion.games.Game
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.statistics.PercentageStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatFrame
 
@@ -19,53 +18,69 @@ abstract class SecondBallStatistic(override var numerator: Int = 0, override var
 
     /** @Override */
     override fun modify(frame: StatFrame) {
-        if (frame.zeroBasedOrdinal == Game.LAST_FRAME) {
-            // In the 10th frame, for each time the first or second ball cleared the lane,
-            // add another second ball opportunity and check if the statistic is modified
-            if (!frame.pinState[0].arePinsCleared && isModifiedByFirstBall(frame.pinState[0], frame.pinState[1])) {
-                denominator++
-                numerator += if (isModifiedBySecondBall(frame.pinState[1])) 1 else 0
-            } else if (frame.pinState[0].arePinsCleared && !frame.pinState[1].arePinsCleared && isModifiedByFirstBall(frame.pinState[1], frame.pinState[2])) {
-                denominator++
-                numerator += if (isModifiedBySecondBall(frame.pinState[2])) 1 else 0
-            } else if (frame.pinState[1].arePinsCleared && !frame.pinState[2].arePinsCleared && isModifiedByFirstBall(frame.pinState[2])) {
-                incompatible++
-            }
-        } else {
-            // Every frame which is not a strike adds 1 possible hit
-            if (!frame.pinState[0].arePinsCleared && isModifiedByFirstBall(frame.pinState[0], frame.pinState[1])) {
-                denominator++
-                numerator += if (isModifiedBySecondBall(frame.pinState[1])) 1 else 0
-            }
+        val features = frame.features
+        if (features.leave != 0 && isModifiedByFirstBall(features.leave, features.secondBall)) {
+            denominator++
+            numerator += if (isModifiedBySecondBall(features.secondBall)) 1 else 0
+        } else if (features.unsparedLeave != 0 && isModifiedByFirstBall(features.unsparedLeave)) {
+            incompatible++
         }
     }
 
+    /** @Override */
+    override fun combine(other: Statistic) {
+        super.combine(other)
+        incompatible += (other as SecondBallStatistic).incompatible
+    }
+
+    /** @Override */
+    override fun remove(other: Statistic): Boolean {
+        incompatible -= (other as SecondBallStatistic).incompatible
+        return super.remove(other)
+    }
+
+    /** @Override */
+    override val storedValues: IntArray
+        get() = intArrayOf(numerator, denominator, incompatible)
+
+    /** @Override */
+    override fun restoreValues(values: IntArray) {
+        super.restoreValues(values)
+        incompatible = values[2]
+    }
+
     // MARK: SecondBallStatistic
 
+    /** Features of a first ball, from [DeckClassification], which give a chance to modify this statistic. */
+    abstract val leaveFeatures: Int
+
     /**
-     * Indicates if this statistic will be modified by a given [Deck] which is the first ball of a frame.
-     * Also provides the second ball for special cases. By default calls `isModifiedByFirstBall(deck)`.
+     * Indicates if this statistic will be modified by a first ball which left pins. Also provides
+     * the second ball for special cases. By default calls `isModifiedByFirstBall(firstBall)`.
      *
-     * @param firstBall the first ball of the two shots
-     * @param secondBall the second ball of the two shots
+     * @param firstBall features of the first ball of the two shots
+     * @param secondBall features of the second ball of the two shots
      * @return true if the first ball provides the right conditions for the statistic to be valid, false otherwise
      */
-    open fun isModifiedByFirstBall(firstBall: Deck, secondBall: Deck): Boolean {
+    open fun isModifiedByFirstBall(firstBall: Int, secondBall: Int): Boolean {
         return isModifiedByFirstBall(firstBall)
     }
 
-    /** Indicates if this statistic will be modified by a given [Deck] which is the first ball of a frame. */
-    open fun isModifiedByFirstBall(deck: Deck): Boolean {
-        return false
+    /** Indicates if this statistic will be modified by the features of the first ball of a frame. */
+    open fun isModifiedByFirstBall(firstBall: Int): Boolean {
+        return firstBall and leaveFeatures != 0
     }
 
-    /** Indicates if this statistic will be modified by a given [Deck] which is the second ball of a frame. */
-    abstract fun isModifiedBySecondBall(deck: Deck): Boolean
+    /** Indicates if this statistic will be modified by the features of the second ball of a frame. */
+    open fun isModifiedBySecondBall(secondBall: Int): Boolean {
+        return secondBall and DeckClassification.CLEARED != 0
+    }
 
     // MARK: Overrides
 
     override val category = StatisticsCategory.FirstBall
     override fun isModifiedBy(frame: StatFrame) = true
+    override val levels = Statistic.LEVEL_FRAME
 
     /** @Override */
     override fun getSubtitle(): String? {
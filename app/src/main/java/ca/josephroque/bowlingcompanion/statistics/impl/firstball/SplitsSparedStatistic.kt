@@ -4,9 +4,7 @@ import android.content.SharedPreferences
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isSplit
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.settings.Settings
 
 /**
@@ -31,9 +29,8 @@ class SplitsSparedStatistic(numerator: Int = 0, denominator: Int = 0) : SecondBa
 
     // MARK: Statistic
 
-    override fun isModifiedByFirstBall(deck: Deck) = deck.isSplit(countS2asS)
-
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
+    override val leaveFeatures: Int
+        get() = if (countS2asS) DeckClassification.SPLIT or DeckClassification.SPLIT_2 else DeckClassification.SPLIT
 
     override fun updatePreferences(preferences: SharedPreferences) {
         countS2asS = Settings.BooleanSetting.CountS2AsS.getValue(preferences)
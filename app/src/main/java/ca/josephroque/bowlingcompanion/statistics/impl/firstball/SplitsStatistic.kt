@@ -4,8 +4,7 @@ import android.content.SharedPreferences
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isSplit
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.settings.Settings
 
 /**
@@ -29,7 +28,8 @@ class SplitsStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBallStati
 
     // MARK: Statistic
 
-    override fun isModifiedBy(deck: Deck) = deck.isSplit(countS2asS)
+    override val features: Int
+        get() = if (countS2asS) DeckClassification.SPLIT or DeckClassification.SPLIT_2 else DeckClassification.SPLIT
 
     override fun updatePreferences(preferences: SharedPreferences) {
         countS2asS = Settings.BooleanSetting.CountS2AsS.getValue(preferences)
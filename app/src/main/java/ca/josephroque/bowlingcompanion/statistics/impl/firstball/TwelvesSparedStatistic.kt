@@ -3,9 +3,7 @@ package ca.josephroque.bowlingcompanion.statistics.impl.firstball
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isTwelve
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -16,9 +14,7 @@ class TwelvesSparedStatistic(numerator: Int = 0, denominator: Int = 0) : SecondB
 
     // MARK: Statistic
 
-    override fun isModifiedByFirstBall(deck: Deck) = deck.isTwelve
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
-
+    override val leaveFeatures = DeckClassification.TWELVE
     override val titleId = Id
     override val id = Id.toLong()
     override val secondaryGraphDataLabelId = R.string.statistic_twelves
@@ -5,6 +5,7 @@ import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.statistics.IntegerStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatFrame
 
@@ -19,7 +20,7 @@ class FoulsStatistic(override var value: Int = 0) : IntegerStatistic {
 
     /** @Override */
     override fun modify(frame: StatFrame) {
-        value += frame.ballFouled.sumBy { if (it) 1 else 0 }
+        value += frame.features.fouls
     }
 
     // MARK: Overrides
@@ -28,6 +29,7 @@ class FoulsStatistic(override var value: Int = 0) : IntegerStatistic {
     override val id = Id.toLong()
     override val category = StatisticsCategory.Fouls
     override fun isModifiedBy(frame: StatFrame) = true
+    override val levels = Statistic.LEVEL_FRAME
 
     // MARK: Parcelable
 
@@ -6,6 +6,7 @@ import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.matchplay.MatchPlayResult
 import ca.josephroque.bowlingcompanion.statistics.PercentageStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatGame
 
@@ -33,6 +34,7 @@ class GamesTiedStatistic(override var numerator: Int = 0, override var denominat
     override val category = StatisticsCategory.MatchPlay
     override val secondaryGraphDataLabelId = R.string.statistic_total_match_play_games_recorded
     override fun isModifiedBy(game: StatGame) = game.matchPlay != MatchPlayResult.NONE
+    override val levels = Statistic.LEVEL_GAME
 
     // MARK: Parcelable
 
@@ -5,6 +5,7 @@ import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.statistics.AverageStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatGame
 
@@ -29,6 +30,7 @@ class GameAverageStatistic(override var total: Int = 0, override var divisor: In
     override val id = Id.toLong()
     override val category = StatisticsCategory.Overall
     override fun isModifiedBy(game: StatGame) = game.score > 0
+    override val levels = Statistic.LEVEL_GAME
 
     // MARK: Parcelable
 
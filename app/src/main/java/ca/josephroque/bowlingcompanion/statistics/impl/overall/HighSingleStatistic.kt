@@ -5,6 +5,7 @@ import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.statistics.IntegerStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatGame
 
@@ -22,12 +23,25 @@ class HighSingleStatistic(override var value: Int = 0) : IntegerStatistic {
         value = maxOf(value, game.score)
     }
 
+    /** @Override */
+    override fun combine(other: Statistic) {
+        value = maxOf(value, (other as HighSingleStatistic).value)
+    }
+
+    /** @Override */
+    override fun remove(other: Statistic): Boolean {
+        // The highest value is only known to be unchanged if a lower value was removed
+        val removed = (other as HighSingleStatistic).value
+        return removed == 0 || removed < value
+    }
+
     // MARK: Overrides
 
     override val titleId = Id
     override val id = Id.toLong()
     override val category = StatisticsCategory.Overall
     override fun isModifiedBy(game: StatGame) = true
+    override val levels = Statistic.LEVEL_GAME
 
     // MARK: Parcelable
 
@@ -4,8 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isHitLeftOfMiddle
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.impl.firstball.FirstBallStatistic
 
@@ -19,7 +18,7 @@ class LeftOfMiddleHitsStatistic(numerator: Int = 0, denominator: Int = 0) : Firs
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedBy(deck: Deck) = deck.isHitLeftOfMiddle
+    override val features = DeckClassification.HIT_LEFT_OF_MIDDLE
 
     // MARK: Overrides
 
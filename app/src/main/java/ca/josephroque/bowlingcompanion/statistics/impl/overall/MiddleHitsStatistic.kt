@@ -3,8 +3,7 @@ package ca.josephroque.bowlingcompanion.statistics.impl.overall
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isMiddleHit
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.impl.firstball.FirstBallStatistic
 
@@ -28,7 +27,7 @@ class MiddleHitsStatistic(numerator: Int = 0, denominator: Int = 0) : FirstBallS
 
     // MARK: Statistic
 
-    override fun isModifiedBy(deck: Deck) = deck.isMiddleHit
+    override val features = DeckClassification.MIDDLE_HIT
 
     // MARK: Constructors
 
@@ -5,6 +5,7 @@ import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.statistics.IntegerStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatGame
 
@@ -28,6 +29,7 @@ class NumberOfGamesStatistic(override var value: Int = 0) : IntegerStatistic {
     override val id = Id.toLong()
     override val category = StatisticsCategory.Overall
     override fun isModifiedBy(game: StatGame) = game.score > 0
+    override val levels = Statistic.LEVEL_GAME
 
     // MARK: Parcelable
 
@@ -4,8 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.isHitRightOfMiddle
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.impl.firstball.FirstBallStatistic
 
@@ -19,7 +18,7 @@ class RightOfMiddleHitsStatistic(numerator: Int = 0, denominator: Int = 0) : Fir
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedBy(deck: Deck) = deck.isHitRightOfMiddle
+    override val features = DeckClassification.HIT_RIGHT_OF_MIDDLE
 
     // MARK: Overrides
 
@@ -4,11 +4,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.lane.Deck
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isAce
-import ca.josephroque.bowlingcompanion.games.lane.isHeadPin
-import ca.josephroque.bowlingcompanion.games.lane.isSplit
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.impl.firstball.SecondBallStatistic
 
@@ -22,13 +18,14 @@ class SpareConversionsStatistic(numerator: Int = 0, denominator: Int = 0) : Seco
     // MARK: Modifiers
 
     /** @Override */
-    override fun isModifiedByFirstBall(firstBall: Deck, secondBall: Deck): Boolean {
+    override fun isModifiedByFirstBall(firstBall: Int, secondBall: Int): Boolean {
         // Don't add a spare chance if the first ball was a split / head pin / aces, unless the second shot was a spare
-        return !firstBall.arePinsCleared && ((!firstBall.isAce && !firstBall.isHeadPin && !firstBall.isSplit(countS2asS = true)) || secondBall.arePinsCleared)
+        return firstBall and DeckClassification.CLEARED == 0 &&
+                (firstBall and UNLIKELY_SPARES == 0 || secondBall and DeckClassification.CLEARED != 0)
     }
 
     /** @Override */
-    override fun isModifiedBySecondBall(deck: Deck) = deck.arePinsCleared
+    override val leaveFeatures = 0
 
     // MARK: Overrides
 
@@ -46,6 +43,10 @@ class SpareConversionsStatistic(numerator: Int = 0, denominator: Int = 0) : Seco
 
         /** Unique ID for the statistic. */
         const val Id = R.string.statistic_spare_conversion
+
+        /** First balls which are not counted as spare chances, unless they were spared. */
+        private const val UNLIKELY_SPARES = DeckClassification.ACE or DeckClassification.HEAD_PIN or
+                DeckClassification.SPLIT or DeckClassification.SPLIT_2
     }
 
     /**
@@ -3,10 +3,9 @@ package ca.josephroque.bowlingcompanion.statistics.impl.overall
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
-import ca.josephroque.bowlingcompanion.games.Game
-import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
-import ca.josephroque.bowlingcompanion.games.lane.isMiddleHit
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
 import ca.josephroque.bowlingcompanion.statistics.PercentageStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatFrame
 
@@ -29,6 +28,7 @@ class StrikeMiddleHitsStatistic(override var numerator: Int = 0, override var de
     override val category = StatisticsCategory.Overall
     override val secondaryGraphDataLabelId = R.string.statistic_total_shots_at_middle
     override fun isModifiedBy(frame: StatFrame) = true
+    override val levels = Statistic.LEVEL_FRAME
 
     // MARK: Statistic
 
@@ -36,21 +36,11 @@ class StrikeMiddleHitsStatistic(override var numerator: Int = 0, override var de
         // This function has a similar construction to `FirstBallStatistic.modify(StatFrame)
         // and the two should remain aligned
 
-        // Every frame adds 1 possible hit
-        denominator += if (frame.pinState[0].isMiddleHit) 1 else 0
-        numerator += if (frame.pinState[0].arePinsCleared) 1 else 0
-        if (frame.zeroBasedOrdinal == Game.LAST_FRAME) {
-            // In the 10th frame, for each time the first or second ball cleared the lane,
-            // check if the statistic is modified
-            if (frame.pinState[0].arePinsCleared) {
-                denominator += if (frame.pinState[1].isMiddleHit) 1 else 0
-                numerator += if (frame.pinState[1].arePinsCleared) 1 else 0
-            }
-
-            if (frame.pinState[1].arePinsCleared) {
-                denominator += if (frame.pinState[2].isMiddleHit) 1 else 0
-                numerator += if (frame.pinState[2].arePinsCleared) 1 else 0
-            }
+        // Every shot at a full rack which hit the middle adds 1 possible strike, which includes
+        // each time the first or second ball cleared the lane in the 10th frame
+        for (firstBall in frame.features.firstBalls) {
+            denominator += if (firstBall and DeckClassification.MIDDLE_HIT != 0) 1 else 0
+            numerator += if (firstBall and DeckClassification.CLEARED != 0) 1 else 0
         }
     }
 
@@ -5,6 +5,7 @@ import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.statistics.AverageStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatFrame
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatGame
@@ -35,6 +36,7 @@ class AveragePinsLeftStatistic(override var total: Int = 0, override var divisor
     override val category = StatisticsCategory.PinsOnDeck
     override fun isModifiedBy(frame: StatFrame) = true
     override fun isModifiedBy(game: StatGame) = !game.isManual && game.score > 0
+    override val levels = Statistic.LEVEL_GAME or Statistic.LEVEL_FRAME
 
     // MARK: Parcelable
 
@@ -5,6 +5,7 @@ import android.os.Parcelable
 import ca.josephroque.bowlingcompanion.R
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.statistics.IntegerStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatFrame
 
@@ -28,6 +29,7 @@ class TotalPinsLeftStatistic(override var value: Int = 0) : IntegerStatistic {
     override val id = Id.toLong()
     override val category = StatisticsCategory.PinsOnDeck
     override fun isModifiedBy(frame: StatFrame) = true
+    override val levels = Statistic.LEVEL_FRAME
 
     // MARK: Parcelable
 
@@ -1,6 +1,7 @@
 package ca.josephroque.bowlingcompanion.statistics.impl.series
 
 import ca.josephroque.bowlingcompanion.statistics.IntegerStatistic
+import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
 
@@ -20,10 +21,23 @@ abstract class HighSeriesStatistic(override var value: Int = 0) : IntegerStatist
         }
     }
 
+    /** @Override */
+    override fun combine(other: Statistic) {
+        value = maxOf(value, (other as HighSeriesStatistic).value)
+    }
+
+    /** @Override */
+    override fun remove(other: Statistic): Boolean {
+        // The highest value is only known to be unchanged if a lower value was removed
+        val removed = (other as HighSeriesStatistic).value
+        return removed == 0 || removed < value
+    }
+
     // MARK: Overrides
     override val secondaryGraphDataLabelId: Int?
         get() = null
     override fun isModifiedBy(series: StatSeries) = true
+    override val levels = Statistic.LEVEL_SERIES
     override val category = StatisticsCategory.Series
 
     // MARK: HighSeriesStatistic
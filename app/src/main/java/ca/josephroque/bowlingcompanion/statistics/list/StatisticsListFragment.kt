@@ -1,16 +1,19 @@
 package ca.josephroque.bowlingcompanion.statistics.list
 
+import android.content.Context
 import android.os.Bundle
 import android.view.LayoutInflater
 import android.view.View
 import android.view.ViewGroup
 import ca.josephroque.bowlingcompanion.R
+import ca.josephroque.bowlingcompanion.common.Android
 import ca.josephroque.bowlingcompanion.common.fragments.ListFragment
 import ca.josephroque.bowlingcompanion.common.interfaces.IIdentifiable
 import ca.josephroque.bowlingcompanion.statistics.unit.StatisticsUnit
 import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.async
+import kotlinx.coroutines.experimental.launch
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -63,13 +66,27 @@ class StatisticsListFragment : ListFragment<StatisticListItem, StatisticsRecycle
 
     override fun fetchItems(): Deferred<MutableList<StatisticListItem>> {
         context?.let {
-            return unit.getStatistics(it)
+            val statistics = unit.getStatistics(it)
+            showOverview(it, statistics)
+            return statistics
         }
 
         return async(CommonPool) {
             mutableListOf<StatisticListItem>()
         }
     }
+
+    // MARK: Private functions
+
+    /** Show the statistics which are quick to build, until the rest of the statistics are ready. */
+    private fun showOverview(context: Context, statistics: Deferred<MutableList<StatisticListItem>>) {
+        launch(Android) {
+            val overview = unit.getOverviewStatistics(context).await()
+            if (!statistics.isCompleted && overview.isNotEmpty()) {
+                adapter?.items = overview
+            }
+        }
+    }
 }
 
 /** An item to display in the list of statistics. */
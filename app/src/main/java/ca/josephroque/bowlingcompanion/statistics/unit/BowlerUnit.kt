@@ -1,11 +1,17 @@
 package ca.josephroque.bowlingcompanion.statistics.unit
 
 import android.content.Context
+import android.content.SharedPreferences
+import android.database.sqlite.SQLiteDatabase
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.bowlers.Bowler
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
+import ca.josephroque.bowlingcompanion.database.DataVersion
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
+import ca.josephroque.bowlingcompanion.statistics.LeagueStatistics
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeriesSource
 import ca.josephroque.bowlingcompanion.statistics.impl.general.GameNameStatistic
 import ca.josephroque.bowlingcompanion.statistics.impl.general.LeagueNameStatistic
 import ca.josephroque.bowlingcompanion.statistics.impl.general.SeriesNameStatistic
@@ -22,6 +28,8 @@ class BowlerUnit(val bowlerId: Long, bowlerName: String, parcel: Parcel? = null)
     override val excludedCategories: Set<StatisticsCategory> = emptySet()
     override val excludedStatisticIds: Set<Int> = setOf(LeagueNameStatistic.Id, SeriesNameStatistic.Id, GameNameStatistic.Id)
     override val canShowGraphs = true
+    override val scope = DatabaseScope.bowler(bowlerId)
+    override val cacheKey = "bowler:$bowlerId"
 
     // MARK: Constructors
 
@@ -33,8 +41,24 @@ class BowlerUnit(val bowlerId: Long, bowlerName: String, parcel: Parcel? = null)
 
     // MARK: StatisticsUnit
 
-    override fun getSeriesForStatistics(context: Context): Deferred<List<StatSeries>> {
-        return StatSeries.loadSeriesForBowler(context, bowlerId)
+    override fun getSeriesForStatistics(context: Context, levels: Int): Deferred<List<StatSeries>> {
+        return StatSeries.loadSeriesForBowler(context, bowlerId, levels)
+    }
+
+    override fun streamSeriesForStatistics(context: Context, levels: Int, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+        return StatSeries.streamSeriesForBowler(context, bowlerId, levels, consumer)
+    }
+
+    override fun getSeriesSource(context: Context): StatSeriesSource {
+        return StatSeriesSource.forBowler(context, bowlerId)
+    }
+
+    override fun getDataVersion(database: SQLiteDatabase): String {
+        return DataVersion.getBowlerVersion(database, bowlerId).toString()
+    }
+
+    override fun getLeaguesForStatistics(database: SQLiteDatabase, preferences: SharedPreferences): List<Long> {
+        return LeagueStatistics.getLeagueIdsForBowler(database, bowlerId, preferences)
     }
 
     // MARK: KParcelable
@@ -5,6 +5,7 @@ import android.os.Parcel
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.common.interfaces.readDate
 import ca.josephroque.bowlingcompanion.common.interfaces.writeDate
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
 import ca.josephroque.bowlingcompanion.games.Game
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
@@ -40,6 +41,7 @@ class GameUnit(
     override val excludedCategories = setOf(StatisticsCategory.Average, StatisticsCategory.MatchPlay, StatisticsCategory.Series)
     override val excludedStatisticIds = setOf(AveragePinsLeftStatistic.Id, GameAverageStatistic.Id, HighSingleStatistic.Id, TotalPinfallStatistic.Id, NumberOfGamesStatistic.Id)
     override val canShowGraphs = false
+    override val scope = DatabaseScope.game(gameId)
 
     // MARK: Constructors
 
@@ -55,9 +57,9 @@ class GameUnit(
 
     // MARK: StatisticsUnit
 
-    override fun getSeriesForStatistics(context: Context): Deferred<List<StatSeries>> {
+    override fun getSeriesForStatistics(context: Context, levels: Int): Deferred<List<StatSeries>> {
         return async(CommonPool) {
-            val seriesList = StatSeries.loadSeriesForSeries(context, seriesId).await()
+            val seriesList = StatSeries.loadSeriesForSeries(context, seriesId, levels).await()
             var series = seriesList.firstOrNull() ?: return@async seriesList
 
             series = StatSeries(
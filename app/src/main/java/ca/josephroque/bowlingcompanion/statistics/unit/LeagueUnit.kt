@@ -1,11 +1,16 @@
 package ca.josephroque.bowlingcompanion.statistics.unit
 
 import android.content.Context
+import android.content.SharedPreferences
+import android.database.sqlite.SQLiteDatabase
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
 import ca.josephroque.bowlingcompanion.leagues.League
+import ca.josephroque.bowlingcompanion.database.DataVersion
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeriesSource
 import ca.josephroque.bowlingcompanion.statistics.impl.general.GameNameStatistic
 import ca.josephroque.bowlingcompanion.statistics.impl.general.SeriesNameStatistic
 import kotlinx.coroutines.experimental.Deferred
@@ -23,6 +28,8 @@ class LeagueUnit(val bowlerName: String, val leagueId: Long, leagueName: String,
     override val excludedCategories: Set<StatisticsCategory> = emptySet()
     override val excludedStatisticIds: Set<Int> = setOf(SeriesNameStatistic.Id, GameNameStatistic.Id)
     override val canShowGraphs = true
+    override val scope = DatabaseScope.league(leagueId)
+    override val cacheKey = "league:$leagueId"
 
     // MARK: Constructors
 
@@ -35,8 +42,24 @@ class LeagueUnit(val bowlerName: String, val leagueId: Long, leagueName: String,
 
     // MARK: StatisticsUnit
 
-    override fun getSeriesForStatistics(context: Context): Deferred<List<StatSeries>> {
-        return StatSeries.loadSeriesForLeague(context, leagueId)
+    override fun getSeriesForStatistics(context: Context, levels: Int): Deferred<List<StatSeries>> {
+        return StatSeries.loadSeriesForLeague(context, leagueId, levels)
+    }
+
+    override fun streamSeriesForStatistics(context: Context, levels: Int, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+        return StatSeries.streamSeriesForLeague(context, leagueId, levels, consumer)
+    }
+
+    override fun getSeriesSource(context: Context): StatSeriesSource {
+        return StatSeriesSource.forLeague(leagueId)
+    }
+
+    override fun getDataVersion(database: SQLiteDatabase): String {
+        return DataVersion.getLeagueVersion(database, leagueId).toString()
+    }
+
+    override fun getLeaguesForStatistics(database: SQLiteDatabase, preferences: SharedPreferences): List<Long> {
+        return listOf(leagueId)
     }
 
     // MARK: Parcelable
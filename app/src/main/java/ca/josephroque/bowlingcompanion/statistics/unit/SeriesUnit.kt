@@ -5,9 +5,11 @@ import android.os.Parcel
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
 import ca.josephroque.bowlingcompanion.common.interfaces.readDate
 import ca.josephroque.bowlingcompanion.common.interfaces.writeDate
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
 import ca.josephroque.bowlingcompanion.series.Series
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeriesSource
 import ca.josephroque.bowlingcompanion.statistics.impl.general.GameNameStatistic
 import ca.josephroque.bowlingcompanion.utils.DateUtils
 import kotlinx.coroutines.experimental.Deferred
@@ -33,6 +35,7 @@ class SeriesUnit(
     override val excludedCategories: Set<StatisticsCategory> = setOf(StatisticsCategory.Average, StatisticsCategory.Series)
     override val excludedStatisticIds: Set<Int> = setOf(GameNameStatistic.Id)
     override val canShowGraphs = false
+    override val scope = DatabaseScope.series(seriesId)
 
     // MARK: Constructors
 
@@ -46,8 +49,12 @@ class SeriesUnit(
 
     // MARK: StatisticsUnit
 
-    override fun getSeriesForStatistics(context: Context): Deferred<List<StatSeries>> {
-        return StatSeries.loadSeriesForSeries(context, seriesId)
+    override fun getSeriesForStatistics(context: Context, levels: Int): Deferred<List<StatSeries>> {
+        return StatSeries.loadSeriesForSeries(context, seriesId, levels)
+    }
+
+    override fun getSeriesSource(context: Context): StatSeriesSource {
+        return StatSeriesSource.forSeries(seriesId)
     }
 
     // MARK: Parcelable
@@ -1,33 +1,45 @@
 package ca.josephroque.bowlingcompanion.statistics.unit
 
 import android.content.Context
+import android.content.SharedPreferences
+import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteException
 import android.os.Parcel
 import android.support.v7.preference.PreferenceManager
+import android.util.Log
 import ca.josephroque.bowlingcompanion.common.interfaces.KParcelable
 import ca.josephroque.bowlingcompanion.common.interfaces.readBoolean
 import ca.josephroque.bowlingcompanion.common.interfaces.writeBoolean
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
+import ca.josephroque.bowlingcompanion.database.DatabaseManager
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
+import ca.josephroque.bowlingcompanion.statistics.LeagueStatistics
 import ca.josephroque.bowlingcompanion.statistics.Statistic
 import ca.josephroque.bowlingcompanion.statistics.StatisticHelper
+import ca.josephroque.bowlingcompanion.statistics.StatisticsAggregator
+import ca.josephroque.bowlingcompanion.statistics.StatisticsCache
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
+import ca.josephroque.bowlingcompanion.statistics.StatisticsEvaluator
+import ca.josephroque.bowlingcompanion.statistics.graph.StatisticsGraphData
 import ca.josephroque.bowlingcompanion.statistics.graph.StatisticsGraphLine
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeriesSource
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeriesStore
 import ca.josephroque.bowlingcompanion.statistics.impl.average.PerGameAverageStatistic
 import ca.josephroque.bowlingcompanion.statistics.impl.series.HighSeriesStatistic
 import ca.josephroque.bowlingcompanion.statistics.list.StatisticListItem
 import ca.josephroque.bowlingcompanion.utils.Analytics
-import ca.josephroque.bowlingcompanion.utils.DateUtils
-import com.github.mikephil.charting.data.Entry
 import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.async
-import java.util.Calendar
+import kotlinx.coroutines.experimental.launch
 
 /**
  * Copyright (C) 2018 Joseph Roque
  *
  * A single unit which provides a list of statistics to be displayed.
  */
-abstract class StatisticsUnit(initialSeries: List<StatSeries>? = null, initialStatistics: MutableList<Statistic>? = null) : KParcelable {
+abstract class StatisticsUnit(initialStatistics: MutableList<Statistic>? = null) : KParcelable {
 
     companion object {
         @Suppress("unused")
@@ -38,52 +50,29 @@ abstract class StatisticsUnit(initialSeries: List<StatSeries>? = null, initialSt
     abstract val excludedCategories: Set<StatisticsCategory>
     abstract val excludedStatisticIds: Set<Int>
 
-    private var cachedSeries: List<StatSeries>? = initialSeries
+    /** Data the unit's statistics are read from, so reads only wait for saves and deletes of it. */
+    abstract val scope: DatabaseScope
+
     private var cachedStatistics: MutableList<Statistic>? = initialStatistics
+    private var cachedGraphData: Deferred<StatisticsGraphData>? = null
+
+    /** Series held to build graphs and statistics again, and the data version they were read at. */
+    private var cachedSeries: StatSeriesStore? = null
+    private var cachedSeriesVersion: String? = null
 
     abstract val canShowGraphs: Boolean
 
-    private val statisticListItems: MutableList<StatisticListItem>?
-        get() {
-            val statistics = cachedStatistics?.toMutableList() ?: return null
-            val statisticListItems: MutableList<StatisticListItem> = ArrayList(statistics.size + StatisticsCategory.values().size)
+    /** Identifies the unit in the [StatisticsCache], or null if its statistics are not cached. */
+    protected open val cacheKey: String? = null
 
-            // Add categories in place in the list
-            var lastCategory: StatisticsCategory? = null
-            for (statistic in statistics) {
-                if (statistic.category != lastCategory) {
-                    statisticListItems.add(statistic.category)
-                    lastCategory = statistic.category
-                }
-                statisticListItems.add(statistic)
-            }
-
-            return statisticListItems
-        }
+    private val statisticListItems: MutableList<StatisticListItem>?
+        get() = cachedStatistics?.let { buildListItems(it) }
 
     // MARK: Constructors
 
     protected constructor(p: Parcel? = null): this(
-            initialSeries = if (p != null && p.readBoolean()) {
-                ArrayList<StatSeries>().apply {
-                    val array = p.readParcelableArray(StatSeries::class.java.classLoader)!!
-                    for (i in 0 until array.size) {
-                        add(array[i] as StatSeries)
-                    }
-                }
-            } else {
-                null
-            },
             initialStatistics = if (p != null && p.readBoolean()) {
-                ArrayList<Statistic>().apply {
-                    val statisticsSize = p.readInt()
-                    val statisticTypes = IntArray(statisticsSize)
-                    p.readIntArray(statisticTypes)
-
-                    for (i in 0 until statisticsSize) {
-                        this.add(StatisticHelper.readParcelable(p, statisticTypes[i]))
-                    }
-                }
+                StatisticHelper.readStatistics(p)
             } else {
                 null
             }
@@ -91,11 +80,50 @@ abstract class StatisticsUnit(initialSeries: List<StatSeries>? = null, initialSt
 
     // MARK: StatisticsUnit
 
-    protected abstract fun getSeriesForStatistics(context: Context): Deferred<List<StatSeries>>
+    /**
+     * Get the unit's series, with only the [Statistic.levels] of data in [levels]. Games are always
+     * loaded, but frames are not unless [Statistic.LEVEL_FRAME] is included.
+     */
+    protected abstract fun getSeriesForStatistics(context: Context, levels: Int): Deferred<List<StatSeries>>
+
+    /**
+     * Pass each of the unit's series to [consumer] in order of date. Units with many series should
+     * read them from the database one at a time, rather than loading them all with
+     * [getSeriesForStatistics].
+     */
+    protected open fun streamSeriesForStatistics(context: Context, levels: Int, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+        return async(CommonPool) {
+            getSeriesForStatistics(context, levels).await().forEach(consumer)
+        }
+    }
+
+    /**
+     * Get the version of the data the unit's statistics are built from, which changes whenever
+     * the data does. Only called for units with a [cacheKey].
+     */
+    protected open fun getDataVersion(database: SQLiteDatabase): String = ""
+
+    /**
+     * Get the leagues whose statistics make up the unit's, so they can be combined from each
+     * league's [LeagueStatistics], or null if the unit's statistics are built from its series.
+     */
+    protected open fun getLeaguesForStatistics(database: SQLiteDatabase, preferences: SharedPreferences): List<Long>? = null
+
+    /**
+     * Get the series of the unit as a [StatSeriesSource], so statistics of its scores can be
+     * filled by the [StatisticsAggregator], or null if they must be evaluated from each series.
+     */
+    protected open fun getSeriesSource(context: Context): StatSeriesSource? = null
 
     fun clearCache() {
-        cachedSeries = null
         cachedStatistics = null
+        cachedGraphData = null
+
+        // Held series are only reused while the unit's data version is unchanged, so units without one drop them
+        if (cacheKey == null) {
+            cachedSeries = null
+            cachedSeriesVersion = null
+        }
     }
 
     fun getStatistics(context: Context): Deferred<MutableList<StatisticListItem>> {
@@ -108,55 +136,32 @@ abstract class StatisticsUnit(initialSeries: List<StatSeries>? = null, initialSt
         }
     }
 
-    fun getStatisticGraphData(context: Context, statisticId: Long, accumulative: Boolean): Deferred<Pair<List<StatisticsGraphLine>, List<String>>> {
+    /**
+     * Get the statistics which can be filled by the [StatisticsAggregator], which are available
+     * long before the rest of the unit's statistics are built.
+     */
+    fun getOverviewStatistics(context: Context): Deferred<MutableList<StatisticListItem>> {
         return async(CommonPool) {
-            val graphData: MutableList<MutableList<Entry>> = ArrayList()
-            val graphLabels: MutableList<String> = ArrayList()
+            val source = getSeriesSource(context) ?: return@async ArrayList<StatisticListItem>()
+            val statistics = getFreshStatistics(PreferenceManager.getDefaultSharedPreferences(context))
+            statistics.retainAll { StatisticsAggregator.isAggregated(it) }
 
-            val seriesList = this@StatisticsUnit.cachedSeries ?: getSeriesForStatistics(context).await()
-            val statistic = StatisticHelper.getStatistic(statisticId)
-
-            if (!statistic.canBeGraphed || seriesList.isEmpty()) {
-                return@async Pair(emptyList<StatisticsGraphLine>(), graphLabels)
-            }
-
-            // To determine current week and when to add a new entry to the chart
-            val calendar = Calendar.getInstance()
-            calendar.time = seriesList[0].date
-            var lastDate = seriesList[0].date
-            var lastYear = calendar.get(Calendar.YEAR)
-            var lastWeek = calendar.get(Calendar.WEEK_OF_YEAR)
-            var xPos = 0F
-
-            fun updateGraph() {
-                addGraphEntries(graphData, xPos, statistic)
-                graphLabels.add(DateUtils.dateToShort(lastDate))
-                if (!accumulative) statistic.zero()
-                xPos++
-            }
-
-            for (series in seriesList) {
-                calendar.time = series.date
-                val newDate = series.date
-                val newYear = calendar.get(Calendar.YEAR)
-                val newWeek = calendar.get(Calendar.WEEK_OF_YEAR)
-
-                // Either the year or week has incremented, so an entry should be added to the graph
-                if (newYear > lastYear || newWeek > lastWeek) {
-                    updateGraph()
-                }
-
-                adjustStatisticBySeries(statistic, series)
+            StatisticsAggregator.aggregate(DatabaseManager.getReadableDatabase(context, scope).await(), source, statistics)
+            removeInvalidStatistics(statistics)
+            return@async buildListItems(statistics)
+        }
+    }
 
-                lastDate = newDate
-                lastYear = newYear
-                lastWeek = newWeek
+    fun getStatisticGraphData(context: Context, statisticId: Long, accumulative: Boolean): Deferred<Pair<List<StatisticsGraphLine>, List<String>>> {
+        return async(CommonPool) {
+            val statistic = StatisticHelper.getStatistic(statisticId)
+            val graphData = getGraphData(context).await()
+            val entries = graphData.getEntries(statisticId, accumulative)
+            if (entries.isEmpty()) {
+                return@async Pair(emptyList<StatisticsGraphLine>(), emptyList<String>())
             }
 
-            // Add the final entry
-            updateGraph()
-
-            val lines: List<StatisticsGraphLine> = graphData.mapIndexed { index, data ->
+            val lines: List<StatisticsGraphLine> = entries.mapIndexed { index, data ->
                 val label = when (index) {
                     0 -> context.resources.getString(statistic.primaryGraphDataLabelId)
                     1 -> context.resources.getString(statistic.secondaryGraphDataLabelId!!)
@@ -165,7 +170,7 @@ abstract class StatisticsUnit(initialSeries: List<StatSeries>? = null, initialSt
                 return@mapIndexed StatisticsGraphLine(label, data)
             }
 
-            return@async Pair(lines, graphLabels)
+            return@async Pair(lines, graphData.labels)
         }
     }
 
@@ -175,42 +180,79 @@ abstract class StatisticsUnit(initialSeries: List<StatSeries>? = null, initialSt
         return async(CommonPool) {
             Analytics.trackStatisticsLoaded(Analytics.Companion.EventTime.Begin)
 
-            val seriesList = this@StatisticsUnit.cachedSeries ?: getSeriesForStatistics(context).await()
-            val statistics = StatisticHelper.getFreshStatistics()
+            val preferences = PreferenceManager.getDefaultSharedPreferences(context)
 
-            // Filter out categories which the unit does not accept
-            for (category in excludedCategories) {
-                statistics.removeAll { it.category == category }
-            }
+            // Reuse the statistics saved for the unit, if its data has not changed since
+            val cacheKey = this@StatisticsUnit.cacheKey?.let { StatisticsCache.buildKey(it, preferences) }
+            val dataVersion = if (cacheKey != null) {
+                val database = DatabaseManager.getReadableDatabase(context, scope).await()
+                val dataVersion = getDataVersion(database)
+                val cachedStatistics = StatisticsCache.load(database, cacheKey, dataVersion)
+                if (cachedStatistics != null) {
+                    // Names can change without changing the data, so they are always updated
+                    for (statistic in cachedStatistics) {
+                        if (statistic.isModifiedBy(this@StatisticsUnit)) {
+                            statistic.modify(this@StatisticsUnit)
+                        }
+                    }
 
-            // Filter out statistics which the unit does not accept
-            for (statisticId in excludedStatisticIds) {
-                statistics.removeAll { it.titleId == statisticId }
+                    Analytics.trackStatisticsLoaded(Analytics.Companion.EventTime.End)
+                    return@async cachedStatistics
+                }
+                dataVersion
+            } else {
+                null
             }
 
-            val preferences = PreferenceManager.getDefaultSharedPreferences(context)
+            val statistics = getFreshStatistics(preferences)
 
             for (statistic in statistics) {
-                // Update preferences for statistics
-                statistic.updatePreferences(preferences)
-
                 // Only allow the [StatisticsUnit] to modify each stat once
                 if (statistic.isModifiedBy(this@StatisticsUnit)) {
                     statistic.modify(this@StatisticsUnit)
                 }
             }
 
-            // Parse the remaining statistics and update as per the unit/series/game/frame
-            for (series in seriesList) {
-                for (statistic in statistics) {
-                    adjustStatisticBySeries(statistic, series)
+            val leagueIds = getLeaguesForStatistics(DatabaseManager.getReadableDatabase(context, scope).await(), preferences)
+            if (leagueIds != null) {
+                // Combine the statistics of each league, which are only built from frames when out of date
+                val leagueStatistics = leagueIds.map { LeagueStatistics.get(context, it, preferences) }
+                for (league in leagueStatistics) {
+                    val statisticsById = league.await().associateBy { it.titleId }
+                    for (statistic in statistics) {
+                        statisticsById[statistic.titleId]?.let { statistic.combine(it) }
+                    }
                 }
+            } else {
+                // Statistics of scores are filled with grouped queries, so only the rest need each series
+                val source = getSeriesSource(context)
+                val evaluated = if (source != null) {
+                    StatisticsAggregator.aggregate(DatabaseManager.getReadableDatabase(context, scope).await(), source, statistics)
+                    statistics.filterNot { StatisticsAggregator.isAggregated(it) }
+                } else {
+                    statistics
+                }
+
+                // Parse the remaining statistics and update as per the series/game/frame
+                val evaluator = StatisticsEvaluator(evaluated)
+                getSeriesStore(context).await().forEach { evaluator.evaluate(it) }
             }
 
-            // Filter invalid statistics
-            statistics.removeAll {
-                (it is HighSeriesStatistic && it.value == 0) ||
-                (it is PerGameAverageStatistic && it.total == 0)
+            removeInvalidStatistics(statistics)
+
+            if (cacheKey != null && dataVersion != null) {
+                launch(DatabaseDispatchers.Writer) {
+                    try {
+                        val database = DatabaseManager.getWritableDatabase(context, scope).await()
+
+                        // Statistics built while the unit's data changed are already out of date
+                        if (getDataVersion(database) == dataVersion) {
+                            StatisticsCache.save(database, cacheKey, dataVersion, statistics)
+                        }
+                    } catch (ex: SQLiteException) {
+                        Log.e(TAG, "Could not cache statistics for $cacheKey", ex)
+                    }
+                }
             }
 
             Analytics.trackStatisticsLoaded(Analytics.Companion.EventTime.End)
@@ -219,63 +261,93 @@ abstract class StatisticsUnit(initialSeries: List<StatSeries>? = null, initialSt
         }
     }
 
-    private fun adjustStatisticBySeries(statistic: Statistic, series: StatSeries) {
-        if (statistic.isModifiedBy(series)) {
-            statistic.modify(series)
+    private fun getFreshStatistics(preferences: SharedPreferences): MutableList<Statistic> {
+        val statistics = StatisticHelper.getFreshStatistics()
+
+        // Filter out categories which the unit does not accept
+        for (category in excludedCategories) {
+            statistics.removeAll { it.category == category }
         }
 
-        for (game in series.games) {
-            // Don't process games with scores of 0
-            if (game.score == 0) {
-                continue
-            }
+        // Filter out statistics which the unit does not accept
+        for (statisticId in excludedStatisticIds) {
+            statistics.removeAll { it.titleId == statisticId }
+        }
 
-            if (statistic.isModifiedBy(game)) {
-                statistic.modify(game)
-            }
+        // Update preferences for statistics
+        for (statistic in statistics) {
+            statistic.updatePreferences(preferences)
+        }
 
-            // Don't process frames for manual games
-            if (game.isManual) {
-                continue
-            }
+        return statistics
+    }
 
-            for (frame in game.frames) {
-                if (frame.isAccessed && statistic.isModifiedBy(frame)) {
-                    statistic.modify(frame)
-                }
-            }
+    private fun removeInvalidStatistics(statistics: MutableList<Statistic>) {
+        statistics.removeAll {
+            (it is HighSeriesStatistic && it.value == 0) ||
+            (it is PerGameAverageStatistic && it.total == 0)
         }
     }
 
-    private fun addGraphEntries(graphData: MutableList<MutableList<Entry>>, xPos: Float, statistic: Statistic) {
-        statistic.primaryGraphY?.let {
-            if (graphData.size < 1) { graphData.add(ArrayList()) }
-            graphData[0].add(Entry(xPos, it))
-        }
+    private fun buildListItems(statistics: List<Statistic>): MutableList<StatisticListItem> {
+        val statisticListItems: MutableList<StatisticListItem> = ArrayList(statistics.size + StatisticsCategory.values().size)
 
-        statistic.secondaryGraphY?.let {
-            if (graphData.size < 2) { graphData.add(ArrayList()) }
-            graphData[1].add(Entry(xPos, it))
+        // Add categories in place in the list
+        var lastCategory: StatisticsCategory? = null
+        for (statistic in statistics) {
+            if (statistic.category != lastCategory) {
+                statisticListItems.add(statistic.category)
+                lastCategory = statistic.category
+            }
+            statisticListItems.add(statistic)
         }
+
+        return statisticListItems
     }
 
-    protected fun writeCacheToParcel(p: Parcel) = with(p) {
-        val series = cachedSeries
-        if (series != null) {
-            writeBoolean(true)
-            writeParcelableArray(series.toTypedArray(), 0)
-        } else {
-            writeBoolean(false)
+    /** Graph values of every statistic are built together the first time any is graphed. */
+    private fun getGraphData(context: Context): Deferred<StatisticsGraphData> {
+        return cachedGraphData ?: async(CommonPool) {
+            val builder = StatisticsGraphData.Builder()
+            getSeriesStore(context).await().forEach { builder.add(it) }
+            return@async builder.build()
+        }.also { cachedGraphData = it }
+    }
+
+    /**
+     * Get the unit's series, held in a [StatSeriesStore] so graphs and statistics can be built
+     * again without reading them from the database. Series are streamed into the store, and it is
+     * reused until the unit's data version changes.
+     */
+    private fun getSeriesStore(context: Context): Deferred<StatSeriesStore> {
+        return async(CommonPool) {
+            val dataVersion = if (cacheKey != null) {
+                getDataVersion(DatabaseManager.getReadableDatabase(context, scope).await())
+            } else {
+                null
+            }
+
+            val cachedSeries = this@StatisticsUnit.cachedSeries
+            if (cachedSeries != null && cachedSeriesVersion == dataVersion) {
+                return@async cachedSeries
+            }
+
+            val builder = StatSeriesStore.Builder()
+            streamSeriesForStatistics(context, Statistic.LEVEL_ALL) { builder.add(it) }.await()
+            val seriesStore = builder.build()
+
+            // The version is read before the series, so series read while the data changed are read again
+            this@StatisticsUnit.cachedSeries = seriesStore
+            cachedSeriesVersion = dataVersion
+            return@async seriesStore
         }
+    }
 
+    protected fun writeCacheToParcel(p: Parcel) = with(p) {
         val statistics = cachedStatistics
         if (statistics != null) {
             writeBoolean(true)
-            writeInt(statistics.size)
-            writeIntArray(statistics.map { it.titleId }.toIntArray())
-            for (statistic in statistics) {
-                writeParcelable(statistic, 0)
-            }
+            StatisticHelper.writeStatistics(this, statistics)
         } else {
             writeBoolean(false)
         }
@@ -1,10 +1,16 @@
 package ca.josephroque.bowlingcompanion.statistics.unit
 
 import android.content.Context
+import android.content.SharedPreferences
+import android.database.sqlite.SQLiteDatabase
 import android.os.Parcel
 import ca.josephroque.bowlingcompanion.common.interfaces.parcelableCreator
+import ca.josephroque.bowlingcompanion.database.DataVersion
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
+import ca.josephroque.bowlingcompanion.statistics.LeagueStatistics
 import ca.josephroque.bowlingcompanion.statistics.StatisticsCategory
 import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeries
+import ca.josephroque.bowlingcompanion.statistics.immutable.StatSeriesSource
 import ca.josephroque.bowlingcompanion.statistics.impl.general.BowlerNameStatistic
 import ca.josephroque.bowlingcompanion.statistics.impl.general.GameNameStatistic
 import ca.josephroque.bowlingcompanion.statistics.impl.general.LeagueNameStatistic
@@ -23,6 +29,8 @@ class TeamUnit(val teamId: Long, teamName: String, parcel: Parcel? = null) : Sta
     override val excludedCategories: Set<StatisticsCategory> = emptySet()
     override val excludedStatisticIds: Set<Int> = setOf(BowlerNameStatistic.Id, LeagueNameStatistic.Id, SeriesNameStatistic.Id, GameNameStatistic.Id)
     override val canShowGraphs = true
+    override val scope = DatabaseScope.All
+    override val cacheKey = "team:$teamId"
 
     // MARK: Constructors
 
@@ -34,8 +42,24 @@ class TeamUnit(val teamId: Long, teamName: String, parcel: Parcel? = null) : Sta
 
     // MARK: StatisticsUnit
 
-    override fun getSeriesForStatistics(context: Context): Deferred<List<StatSeries>> {
-        return StatSeries.loadSeriesForTeam(context, teamId)
+    override fun getSeriesForStatistics(context: Context, levels: Int): Deferred<List<StatSeries>> {
+        return StatSeries.loadSeriesForTeam(context, teamId, levels)
+    }
+
+    override fun streamSeriesForStatistics(context: Context, levels: Int, consumer: (StatSeries) -> Unit): Deferred<Unit> {
+        return StatSeries.streamSeriesForTeam(context, teamId, levels, consumer)
+    }
+
+    override fun getSeriesSource(context: Context): StatSeriesSource {
+        return StatSeriesSource.forTeam(context, teamId)
+    }
+
+    override fun getDataVersion(database: SQLiteDatabase): String {
+        return DataVersion.getTeamVersion(database, teamId)
+    }
+
+    override fun getLeaguesForStatistics(database: SQLiteDatabase, preferences: SharedPreferences): List<Long> {
+        return LeagueStatistics.getLeagueIdsForTeam(database, teamId, preferences)
     }
 
     // MARK: KParcelable
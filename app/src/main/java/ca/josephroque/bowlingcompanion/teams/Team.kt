@@ -16,12 +16,13 @@ import ca.josephroque.bowlingcompanion.database.Annihilator
 import ca.josephroque.bowlingcompanion.database.Contract.BowlerEntry
 import ca.josephroque.bowlingcompanion.database.Contract.TeamBowlerEntry
 import ca.josephroque.bowlingcompanion.database.Contract.TeamEntry
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
 import ca.josephroque.bowlingcompanion.database.DatabaseManager
+import ca.josephroque.bowlingcompanion.database.DatabaseScope
 import ca.josephroque.bowlingcompanion.series.Series
 import ca.josephroque.bowlingcompanion.teams.teammember.TeamMember
 import ca.josephroque.bowlingcompanion.utils.BCError
 import ca.josephroque.bowlingcompanion.utils.Preferences
-import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.async
 import java.lang.ref.WeakReference
@@ -105,13 +106,14 @@ class Team(
     }
 
     override fun delete(context: Context): Deferred<Unit> {
-        return async(CommonPool) {
+        return async(DatabaseDispatchers.Writer) {
             if (id < 0) {
                 return@async
             }
 
             Annihilator.instance.delete(
                     weakContext = WeakReference(context),
+                    scope = DatabaseScope.All,
                     tableName = TeamEntry.TABLE_NAME,
                     whereClause = "${TeamEntry._ID}=?",
                     whereArgs = arrayOf(id.toString())
@@ -157,7 +159,7 @@ class Team(
         private fun isTeamNameValid(name: String): Boolean = REGEX_NAME.matches(name)
 
         private fun isTeamNameUnique(context: Context, name: String, id: Long = -1): Deferred<Boolean> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val database = DatabaseManager.getReadableDatabase(context).await()
 
                 var cursor: Cursor? = null
@@ -186,7 +188,7 @@ class Team(
         }
 
         private fun validateSavePreconditions(context: Context, id: Long, name: String, members: List<TeamMember>): Deferred<BCError?> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val errorMessage = R.string.issue_saving_team
                 val errorTitle: Int? = if (!isTeamNameValid(name)) {
                     R.string.error_team_name_invalid
@@ -215,7 +217,7 @@ class Team(
         }
 
         private fun createNewAndSave(context: Context, name: String, members: List<TeamMember>): Deferred<Pair<Team?, BCError?>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Writer) {
                 val error = validateSavePreconditions(context, -1, name, members).await()
                 if (error != null) {
                     return@async Pair(null, error)
@@ -260,7 +262,7 @@ class Team(
         }
 
         private fun update(context: Context, id: Long, name: String, members: List<TeamMember>): Deferred<Pair<Team?, BCError?>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Writer) {
                 val error = validateSavePreconditions(context, id, name, members).await()
                 if (error != null) {
                     return@async Pair(null, error)
@@ -315,7 +317,7 @@ class Team(
         }
 
         fun fetchAll(context: Context): Deferred<MutableList<Team>> {
-            return async(CommonPool) {
+            return async(DatabaseDispatchers.Reader) {
                 val teams: MutableList<Team> = ArrayList()
 
                 val preferences = PreferenceManager.getDefaultSharedPreferences(context)
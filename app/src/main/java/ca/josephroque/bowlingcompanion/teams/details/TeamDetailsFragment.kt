@@ -10,6 +10,7 @@ import ca.josephroque.bowlingcompanion.common.fragments.BaseFragment
 import ca.josephroque.bowlingcompanion.common.fragments.ListFragment
 import ca.josephroque.bowlingcompanion.common.interfaces.IFloatingActionButtonHandler
 import ca.josephroque.bowlingcompanion.common.interfaces.IIdentifiable
+import ca.josephroque.bowlingcompanion.database.DatabaseDispatchers
 import ca.josephroque.bowlingcompanion.database.DatabaseManager
 import ca.josephroque.bowlingcompanion.games.GameControllerFragment
 import ca.josephroque.bowlingcompanion.games.SeriesProvider
@@ -25,7 +26,6 @@ import ca.josephroque.bowlingcompanion.utils.Analytics
 import ca.josephroque.bowlingcompanion.utils.BCError
 import ca.josephroque.bowlingcompanion.utils.safeLet
 import kotlinx.android.synthetic.main.view_screen_header.view.*
-import kotlinx.coroutines.experimental.CommonPool
 import kotlinx.coroutines.experimental.Deferred
 import kotlinx.coroutines.experimental.async
 import kotlinx.coroutines.experimental.launch
@@ -186,7 +186,7 @@ class TeamDetailsFragment : BaseFragment(),
     }
 
     private fun attemptToBowl(practiceNumberOfGames: Int): Deferred<BCError?> {
-        return async(CommonPool) {
+        return async(DatabaseDispatchers.Writer) {
             val context = this@TeamDetailsFragment.context ?: return@async BCError()
             val team = this@TeamDetailsFragment.team ?: return@async BCError()
 
@@ -173,6 +173,10 @@ class Analytics private constructor() {
 
         fun trackSaveImageFailed(numberOfGames: Int) {}
 
+        // MARK: Database events
+
+        fun trackDatabaseDispatcher(name: String, tasksRun: Long, maxQueueDepth: Int, averageWaitMillis: Double, averageRunMillis: Double) {}
+
         // MARK: Other
 
         fun flush() {}
@@ -3,6 +3,8 @@ package ca.josephroque.bowlingcompanion.utils
 import android.content.Context
 import android.support.v7.preference.PreferenceManager
 import ca.josephroque.bowlingcompanion.BuildConfig
+import ca.josephroque.bowlingcompanion.database.ScoreIntegrityScanner
+import ca.josephroque.bowlingcompanion.statistics.LeagueStatisticsJobService
 
 /**
  * Copyright (C) 2018 Joseph Roque
@@ -27,6 +29,14 @@ object StartupManager {
             Changelog.show(context)
         }
 
+        // Check stored scores after an update, or finish checking if the app was killed part way
+        if ((isNewVersion && !isFirstLaunch) || ScoreIntegrityScanner.isScanUnfinished(context)) {
+            ScoreIntegrityScanner.scan(context)
+        }
+
+        // Check statistics kept for each league still match their games, while the device is idle
+        LeagueStatisticsJobService.schedule(context)
+
         AppRater.prepare(context)
     }
 
@@ -0,0 +1,131 @@
+package ca.josephroque.bowlingcompanion.games
+
+import ca.josephroque.bowlingcompanion.bowlers.Bowler
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.leagues.League
+import ca.josephroque.bowlingcompanion.matchplay.MatchPlay
+import ca.josephroque.bowlingcompanion.matchplay.MatchPlayResult
+import ca.josephroque.bowlingcompanion.series.Series
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Date
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Tests for packing games to save their state, and a regression test on the packed size.
+ */
+class GamePackerTest {
+
+    companion object {
+        /** Games in a long event series, which has the largest saved state. */
+        private const val NUMBER_OF_GAMES = 20
+
+        /** Largest size the block for a single game should grow to. */
+        private const val MAX_GAME_BLOCK_SIZE = 64
+    }
+
+    private val random = Random(20181017)
+
+    private val series = Series(
+            league = League(
+                    bowler = Bowler(id = 1, name = "Bowler", average = 0.0),
+                    id = 1,
+                    name = "Event",
+                    average = 0.0,
+                    isEvent = true,
+                    gamesPerSeries = NUMBER_OF_GAMES,
+                    additionalPinfall = 0,
+                    additionalGames = 0,
+                    gameHighlight = -1,
+                    seriesHighlight = -1
+            ),
+            id = 1,
+            date = Date(),
+            numberOfGames = NUMBER_OF_GAMES,
+            scores = List(NUMBER_OF_GAMES) { 0 },
+            matchPlay = List(NUMBER_OF_GAMES) { 0.toByte() }
+    )
+
+    @Test
+    fun unpack_matchesPackedGames() {
+        val games = List(NUMBER_OF_GAMES) { buildRandomGame(it, hasConsecutiveFrameIds = it % 3 != 0) }
+        val unpacked = GamePacker.unpack(series, GamePacker.pack(games))
+
+        assertEquals(games.size, unpacked.size)
+        for (gameIdx in 0 until games.size) {
+            val expected = games[gameIdx]
+            val actual = unpacked[gameIdx]
+            assertSame(series, actual.series)
+            assertEquals(expected.id, actual.id)
+            assertEquals(expected.ordinal, actual.ordinal)
+            assertEquals(expected.score, actual.score)
+            assertEquals(expected.isLocked, actual.isLocked)
+            assertEquals(expected.isManual, actual.isManual)
+
+            assertEquals(expected.matchPlay.id, actual.matchPlay.id)
+            assertEquals(expected.matchPlay.gameId, actual.matchPlay.gameId)
+            assertEquals(expected.matchPlay.opponentName, actual.matchPlay.opponentName)
+            assertEquals(expected.matchPlay.opponentScore, actual.matchPlay.opponentScore)
+            assertEquals(expected.matchPlay.result, actual.matchPlay.result)
+
+            for (frameIdx in 0 until Game.NUMBER_OF_FRAMES) {
+                val expectedFrame = expected.frames[frameIdx]
+                val actualFrame = actual.frames[frameIdx]
+                assertEquals(expectedFrame.id, actualFrame.id)
+                assertEquals(expectedFrame.gameId, actualFrame.gameId)
+                assertEquals(expectedFrame.ordinal, actualFrame.ordinal)
+                assertEquals(expectedFrame.isAccessed, actualFrame.isAccessed)
+                assertArrayEquals(expectedFrame.pinState, actualFrame.pinState)
+                assertArrayEquals(expectedFrame.ballFouled, actualFrame.ballFouled)
+            }
+        }
+    }
+
+    @Test
+    fun packedSize_doesNotGrow() {
+        assertTrue("Game block is ${GamePacker.GAME_BLOCK_SIZE} bytes", GamePacker.GAME_BLOCK_SIZE <= MAX_GAME_BLOCK_SIZE)
+
+        // Without opponent names or irregular frame ids, each game is only its block and the length of its name
+        val games = List(NUMBER_OF_GAMES) { buildRandomGame(it, hasConsecutiveFrameIds = true, opponentName = "") }
+        val packed = GamePacker.pack(games)
+        assertEquals(4 + NUMBER_OF_GAMES * (GamePacker.GAME_BLOCK_SIZE + 4), packed.size)
+    }
+
+    // MARK: Private functions
+
+    private fun buildRandomGame(gameIdx: Int, hasConsecutiveFrameIds: Boolean, opponentName: String = "Opponent é $gameIdx"): Game {
+        val gameId = 100L + gameIdx
+        val frames = List(Game.NUMBER_OF_FRAMES) {
+            Frame(
+                    gameId = gameId,
+                    id = if (hasConsecutiveFrameIds) gameId * 10 + it else random.nextInt(100000).toLong(),
+                    ordinal = it + 1,
+                    isAccessed = random.nextBoolean(),
+                    pinState = Array(Frame.NUMBER_OF_BALLS) { Deck.fromInt(random.nextInt(Deck.NUMBER_OF_STATES)) },
+                    ballFouled = BooleanArray(Frame.NUMBER_OF_BALLS) { random.nextInt(5) == 0 }
+            )
+        }
+
+        return Game(
+                series = series,
+                id = gameId,
+                ordinal = gameIdx + 1,
+                isLocked = random.nextBoolean(),
+                initialScore = random.nextInt(Game.MAX_SCORE + 1),
+                isManual = random.nextBoolean(),
+                frames = frames,
+                matchPlay = MatchPlay(
+                        gameId = gameId,
+                        id = 1000L + gameIdx,
+                        opponentName = opponentName,
+                        opponentScore = random.nextInt(Game.MAX_SCORE + 1),
+                        result = MatchPlayResult.values()[random.nextInt(MatchPlayResult.values().size)]
+                )
+        )
+    }
+}
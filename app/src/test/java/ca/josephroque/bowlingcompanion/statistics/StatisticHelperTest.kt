@@ -0,0 +1,38 @@
+package ca.josephroque.bowlingcompanion.statistics
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Tests for storing statistics with [StatisticHelper.marshallStatistics].
+ */
+class StatisticHelperTest {
+
+    private val random = Random(20181017)
+
+    @Test
+    fun marshall_roundTrip() {
+        val statistics = StatisticHelper.getFreshStatistics()
+        for (statistic in statistics) {
+            statistic.restoreValues(IntArray(statistic.storedValues.size) { random.nextInt(1000) })
+        }
+
+        val restored = StatisticHelper.unmarshallStatistics(StatisticHelper.marshallStatistics(statistics))
+        assertEquals(statistics.size, restored.size)
+        for ((expected, actual) in statistics.zip(restored)) {
+            assertEquals(expected.titleId, actual.titleId)
+            assertEquals(expected.javaClass, actual.javaClass)
+            assertArrayEquals(expected.storedValues, actual.storedValues)
+        }
+    }
+
+    @Test(expected = RuntimeException::class)
+    fun unmarshall_truncated() {
+        val bytes = StatisticHelper.marshallStatistics(StatisticHelper.getFreshStatistics())
+        StatisticHelper.unmarshallStatistics(bytes.copyOf(bytes.size - 1))
+    }
+}
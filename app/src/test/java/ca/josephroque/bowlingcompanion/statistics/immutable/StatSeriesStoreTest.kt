@@ -0,0 +1,91 @@
+package ca.josephroque.bowlingcompanion.statistics.immutable
+
+import ca.josephroque.bowlingcompanion.games.Frame
+import ca.josephroque.bowlingcompanion.games.Game
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.matchplay.MatchPlayResult
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.util.Date
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Tests for holding series in a [StatSeriesStore].
+ */
+class StatSeriesStoreTest {
+
+    private val random = Random(20181018)
+
+    @Test
+    fun store_holdsSeries() {
+        val series = List(40) { buildSeries(it.toLong()) }
+        val builder = StatSeriesStore.Builder()
+        series.forEach { builder.add(it) }
+        val store = builder.build()
+
+        assertEquals(series.size, store.size)
+        series.forEachIndexed { index, expected -> assertSeriesEquals(expected, store[index]) }
+    }
+
+    @Test
+    fun store_byteArrayRoundTrip() {
+        val series = List(5) { buildSeries(it.toLong()) }
+        val builder = StatSeriesStore.Builder()
+        series.forEach { builder.add(it) }
+
+        val store = StatSeriesStore.fromByteArray(builder.build().toByteArray())
+        assertEquals(series.size, store.size)
+        series.forEachIndexed { index, expected -> assertSeriesEquals(expected, store[index]) }
+    }
+
+    // MARK: Private functions
+
+    private fun buildSeries(id: Long): StatSeries {
+        val games = List(random.nextInt(4) + 1) { gameIdx ->
+            val gameId = id * 10 + gameIdx
+            val isManual = random.nextInt(10) == 0
+            StatGame(
+                    id = gameId,
+                    ordinal = gameIdx + 1,
+                    score = random.nextInt(Game.MAX_SCORE + 1),
+                    isManual = isManual,
+                    frames = if (isManual) emptyList() else List(Game.NUMBER_OF_FRAMES) { frameIdx ->
+                        StatFrame(
+                                id = gameId * 100 + frameIdx,
+                                ordinal = frameIdx + 1,
+                                isAccessed = random.nextBoolean(),
+                                pinState = Array(Frame.NUMBER_OF_BALLS) { Deck.fromInt(random.nextInt(Deck.NUMBER_OF_STATES)) },
+                                ballFouled = BooleanArray(Frame.NUMBER_OF_BALLS) { random.nextInt(8) == 0 }
+                        )
+                    },
+                    matchPlay = MatchPlayResult.values()[random.nextInt(MatchPlayResult.values().size)]
+            )
+        }
+
+        return StatSeries(id = id, games = games, date = Date(1500000000000L + id * 86400000L))
+    }
+
+    private fun assertSeriesEquals(expected: StatSeries, actual: StatSeries) {
+        assertEquals(expected.id, actual.id)
+        assertEquals(expected.date, actual.date)
+        assertEquals(expected.games.size, actual.games.size)
+        for ((expectedGame, actualGame) in expected.games.zip(actual.games)) {
+            assertEquals(expectedGame.id, actualGame.id)
+            assertEquals(expectedGame.ordinal, actualGame.ordinal)
+            assertEquals(expectedGame.score, actualGame.score)
+            assertEquals(expectedGame.isManual, actualGame.isManual)
+            assertEquals(expectedGame.matchPlay, actualGame.matchPlay)
+            assertEquals(expectedGame.frames.size, actualGame.frames.size)
+            for ((expectedFrame, actualFrame) in expectedGame.frames.zip(actualGame.frames)) {
+                assertEquals(expectedFrame.id, actualFrame.id)
+                assertEquals(expectedFrame.ordinal, actualFrame.ordinal)
+                assertEquals(expectedFrame.isAccessed, actualFrame.isAccessed)
+                assertArrayEquals(expectedFrame.pinState, actualFrame.pinState)
+                assertArrayEquals(expectedFrame.ballFouled, actualFrame.ballFouled)
+            }
+        }
+    }
+}
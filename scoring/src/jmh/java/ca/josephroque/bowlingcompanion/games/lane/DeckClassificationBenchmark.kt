@@ -0,0 +1,70 @@
+package ca.josephroque.bowlingcompanion.games.lane
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Benchmarks classifying first balls and finding the value of decks.
+ */
+@State(Scope.Thread)
+open class DeckClassificationBenchmark {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "DeckClassificationBenchmark"
+
+        private const val NUMBER_OF_DECKS = 1024
+        private const val SEED = 20181017L
+    }
+
+    private lateinit var decks: Array<Deck>
+
+    @Setup
+    fun setUp() {
+        val random = Random(SEED)
+        decks = Array(NUMBER_OF_DECKS) { Deck.fromInt(random.nextInt(Deck.NUMBER_OF_STATES)) }
+    }
+
+    @Benchmark
+    fun classifyBall(blackhole: Blackhole) {
+        for (deck in decks) {
+            blackhole.consume(deck.ball(countH2asH = false, countS2asS = false))
+            blackhole.consume(deck.ball(countH2asH = true, countS2asS = true))
+        }
+    }
+
+    @Benchmark
+    fun classifyFeatures(blackhole: Blackhole) {
+        for (deck in decks) {
+            blackhole.consume(deck.isHeadPin(false))
+            blackhole.consume(deck.isSplit(false))
+            blackhole.consume(deck.isChopOff)
+            blackhole.consume(deck.isAce)
+            blackhole.consume(deck.isLeft)
+            blackhole.consume(deck.isRight)
+            blackhole.consume(deck.isTwelve)
+            blackhole.consume(deck.isMiddleHit)
+        }
+    }
+
+    @Benchmark
+    fun deckValue(blackhole: Blackhole) {
+        for (deck in decks) {
+            blackhole.consume(deck.value(false))
+            blackhole.consume(deck.value(true))
+        }
+    }
+
+    @Benchmark
+    fun ballValueText(blackhole: Blackhole) {
+        for (deck in decks) {
+            blackhole.consume(deck.ballValue(0, true, false))
+        }
+    }
+}
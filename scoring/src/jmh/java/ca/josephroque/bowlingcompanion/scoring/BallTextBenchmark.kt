@@ -0,0 +1,46 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Benchmarks building the text shown for each ball on a score sheet.
+ */
+@State(Scope.Thread)
+open class BallTextBenchmark {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "BallTextBenchmark"
+
+        private const val NUMBER_OF_GAMES = 64
+        private const val SEED = 20181017L
+    }
+
+    @Param("Realistic", "Perfect", "Spares", "Random")
+    var kind: GameGenerator.Kind = GameGenerator.Kind.Realistic
+
+    private lateinit var games: List<List<GameGenerator.Frame>>
+    private val balls = Array(ScoringRules.NUMBER_OF_BALLS) { "" }
+
+    @Setup
+    fun setUp() {
+        games = GameGenerator.buildGames(kind, NUMBER_OF_GAMES, SEED)
+    }
+
+    @Benchmark
+    fun buildBallText(blackhole: Blackhole) {
+        for (game in games) {
+            for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+                GameScorer.buildBallText(game, frameIdx, balls)
+                blackhole.consume(balls)
+            }
+        }
+    }
+}
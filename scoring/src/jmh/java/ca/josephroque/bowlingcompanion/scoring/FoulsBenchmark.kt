@@ -0,0 +1,73 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Benchmarks encoding and decoding the fouls of frames as they are stored in the database.
+ */
+@State(Scope.Thread)
+open class FoulsBenchmark {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "FoulsBenchmark"
+
+        private const val NUMBER_OF_FRAMES = 1024
+        private const val SEED = 20181017L
+    }
+
+    private lateinit var fouls: IntArray
+    private lateinit var legacyFouls: IntArray
+    private val ballFouled = BooleanArray(ScoringRules.NUMBER_OF_BALLS)
+
+    @Setup
+    fun setUp() {
+        val random = Random(SEED)
+
+        // Most frames have no fouls
+        fouls = IntArray(NUMBER_OF_FRAMES) {
+            if (random.nextInt(10) == 0) 1 + random.nextInt(Fouls.ALL_BALLS_FOULED) else 0
+        }
+
+        legacyFouls = IntArray(NUMBER_OF_FRAMES) {
+            if (fouls[it] == 0) 0 else (Fouls.MIN_LEGACY_FOULS..Fouls.MAX_LEGACY_FOULS).first { legacy -> Fouls.legacyFoulsToMask(legacy) == fouls[it] }
+        }
+    }
+
+    @Benchmark
+    fun decodeFouls(blackhole: Blackhole) {
+        for (frameFouls in fouls) {
+            for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                blackhole.consume(Fouls.isBallFouled(frameFouls, ballIdx))
+            }
+        }
+    }
+
+    @Benchmark
+    fun encodeFouls(blackhole: Blackhole) {
+        for (frameFouls in fouls) {
+            for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                ballFouled[ballIdx] = Fouls.isBallFouled(frameFouls, ballIdx)
+            }
+            blackhole.consume(Fouls.foulMask(ballFouled))
+        }
+    }
+
+    /** Decodes fouls as they were stored before the mask, as a baseline. */
+    @Benchmark
+    fun decodeLegacyFouls(blackhole: Blackhole) {
+        for (frameFouls in legacyFouls) {
+            val foulString = Fouls.foulIntToString(frameFouls)
+            for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                blackhole.consume(foulString.contains((ballIdx + 1).toString()))
+            }
+        }
+    }
+}
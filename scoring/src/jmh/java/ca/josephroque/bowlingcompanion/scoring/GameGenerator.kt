@@ -0,0 +1,93 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Builds games to benchmark the scoring core against.
+ */
+object GameGenerator {
+
+    @Suppress("unused")
+    private const val TAG = "GameGenerator"
+
+    /** Chance of knocking down each pin. The head pin is hit far more often than the corners. */
+    private val hitChance = doubleArrayOf(0.6, 0.75, 0.95, 0.75, 0.6)
+
+    enum class Kind {
+        /** Mostly open frames with some strikes and spares, as most bowlers throw. */
+        Realistic,
+
+        /** Every ball a strike, so every frame looks ahead as far as it can. */
+        Perfect,
+
+        /** Every frame a spare, so ball text is built from the difference of two balls. */
+        Spares,
+
+        /** Any combination of pins on every ball, so every classification is hit. */
+        Random
+    }
+
+    class Frame(override val pinState: Array<Deck>) : ScoringFrame {
+        override val isAccessed = true
+    }
+
+    fun buildGames(kind: Kind, numberOfGames: Int, seed: Long): List<List<Frame>> {
+        val random = Random(seed)
+        return List(numberOfGames) { buildGame(kind, random) }
+    }
+
+    fun buildGame(kind: Kind, random: Random): List<Frame> {
+        return List(ScoringRules.NUMBER_OF_FRAMES) { frameIdx ->
+            val pinState = Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsUp }
+            for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                val previous = if (ballIdx == 0) Deck.allPinsUp else pinState[ballIdx - 1]
+                pinState[ballIdx] = if (previous.arePinsCleared && frameIdx != ScoringRules.LAST_FRAME) {
+                    previous
+                } else {
+                    // The rack is reset in the last frame after a strike or spare
+                    val rack = if (previous.arePinsCleared) Deck.allPinsUp else previous
+                    throwBall(kind, rack, ballIdx, random)
+                }
+            }
+            Frame(pinState)
+        }
+    }
+
+    // MARK: Private functions
+
+    private fun throwBall(kind: Kind, rack: Deck, ballIdx: Int, random: Random): Deck {
+        return when (kind) {
+            Kind.Perfect -> Deck.allPinsDown
+            Kind.Spares -> if (rack === Deck.allPinsUp) throwRealisticBall(rack, random) else Deck.allPinsDown
+            Kind.Random -> Deck.fromInt(rack.mask or random.nextInt(Deck.NUMBER_OF_STATES))
+            Kind.Realistic -> {
+                val clearChance = if (ballIdx == 0 || rack === Deck.allPinsUp) 0.2 else 0.45
+                if (random.nextDouble() < clearChance) Deck.allPinsDown else throwRealisticBall(rack, random)
+            }
+        }
+    }
+
+    private fun throwRealisticBall(rack: Deck, random: Random): Deck {
+        var deck = rack
+        for (pin in 0 until ScoringRules.NUMBER_OF_PINS) {
+            if (random.nextDouble() < hitChance[pin]) {
+                deck = deck.withPin(pin, true)
+            }
+        }
+
+        if (deck.arePinsCleared) {
+            // Knocking down every pin is left to the clear chance, so leave a pin from the rack standing
+            var pin = random.nextInt(ScoringRules.NUMBER_OF_PINS)
+            while (rack.isPinDown(pin)) {
+                pin = (pin + 1) % ScoringRules.NUMBER_OF_PINS
+            }
+            deck = deck.withPin(pin, false)
+        }
+
+        return deck
+    }
+}
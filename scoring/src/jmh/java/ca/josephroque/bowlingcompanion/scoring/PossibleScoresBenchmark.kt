@@ -0,0 +1,86 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Benchmarks finding the possible scores of a game as each ball is thrown, against copying the game
+ * and rescoring it with every remaining ball a strike.
+ */
+@State(Scope.Thread)
+open class PossibleScoresBenchmark {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "PossibleScoresBenchmark"
+
+        private const val NUMBER_OF_GAMES = 64
+        private const val SEED = 20181017L
+        private const val TARGET_SCORE = 300
+    }
+
+    @Param("Realistic", "Perfect", "Spares", "Random")
+    var kind: GameGenerator.Kind = GameGenerator.Kind.Realistic
+
+    private lateinit var games: List<List<GameGenerator.Frame>>
+    private val possibleScores = PossibleScores()
+
+    @Setup
+    fun setUp() {
+        games = GameGenerator.buildGames(kind, NUMBER_OF_GAMES, SEED)
+    }
+
+    @Benchmark
+    fun bestScore(blackhole: Blackhole) {
+        for (game in games) {
+            for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+                for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                    possibleScores.update(game, frameIdx, ballIdx, 0)
+                    blackhole.consume(possibleScores.bestScore)
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    fun pinsNeeded(blackhole: Blackhole) {
+        for (game in games) {
+            for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+                for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                    possibleScores.update(game, frameIdx, ballIdx, 0)
+                    blackhole.consume(possibleScores.pinsNeeded(TARGET_SCORE))
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    fun bestScoreByRescoring(blackhole: Blackhole) {
+        for (game in games) {
+            for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+                for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                    val copy = List(game.size) {
+                        val pinState = game[it].pinState.copyOf()
+                        for (i in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                            if (it > frameIdx || (it == frameIdx && i >= ballIdx)) {
+                                pinState[i] = Deck.allPinsDown
+                            }
+                        }
+                        GameGenerator.Frame(pinState)
+                    }
+
+                    val scorer = GameScorer(copy)
+                    scorer.update()
+                    blackhole.consume(scorer.totalScore)
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Benchmarks scoring a set of games, and rescoring them after a single frame is edited.
+ */
+@State(Scope.Thread)
+open class ScoringBenchmark {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "ScoringBenchmark"
+
+        private const val NUMBER_OF_GAMES = 64
+        private const val SEED = 20181017L
+    }
+
+    @Param("Realistic", "Perfect", "Spares", "Random")
+    var kind: GameGenerator.Kind = GameGenerator.Kind.Realistic
+
+    private lateinit var games: List<List<GameGenerator.Frame>>
+    private lateinit var scorers: Array<GameScorer>
+    private var editedFrame = 0
+
+    @Setup
+    fun setUp() {
+        games = GameGenerator.buildGames(kind, NUMBER_OF_GAMES, SEED)
+        scorers = Array(games.size) { GameScorer(games[it]) }
+    }
+
+    @Benchmark
+    fun scoreGames(blackhole: Blackhole) {
+        for (scorer in scorers) {
+            scorer.markAllDirty()
+            blackhole.consume(scorer.update())
+        }
+    }
+
+    @Benchmark
+    fun rescoreEditedFrame(blackhole: Blackhole) {
+        editedFrame = (editedFrame + 1) % ScoringRules.NUMBER_OF_FRAMES
+        for (scorer in scorers) {
+            scorer.markDirty(editedFrame)
+            blackhole.consume(scorer.update())
+        }
+    }
+
+    @Benchmark
+    fun scoreFrames(blackhole: Blackhole) {
+        for (game in games) {
+            for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+                blackhole.consume(GameScorer.scoreFrame(game, frameIdx))
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Benchmarks simulating the rest of a game and series from a bowler's leave distribution.
+ */
+@State(Scope.Thread)
+open class SimulationBenchmark {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "SimulationBenchmark"
+
+        private const val NUMBER_OF_GAMES = 256
+        private const val SIMULATIONS = 1000
+        private const val SEED = 20181017L
+    }
+
+    @Param("0", "2")
+    var remainingGames: Int = 0
+
+    @Param("0", "5")
+    var frameIdx: Int = 0
+
+    private lateinit var distribution: LeaveDistribution
+    private lateinit var game: List<GameGenerator.Frame>
+    private val random = Random(SEED)
+
+    @Setup
+    fun setUp() {
+        val builder = LeaveDistribution.Builder()
+        for (frames in GameGenerator.buildGames(GameGenerator.Kind.Realistic, NUMBER_OF_GAMES, SEED)) {
+            frames.forEachIndexed { frameIdx, frame -> builder.addFrame(frame.pinState, 0, frameIdx == ScoringRules.LAST_FRAME) }
+        }
+        distribution = builder.build()
+        game = GameGenerator.buildGame(GameGenerator.Kind.Realistic, random)
+    }
+
+    @Benchmark
+    fun simulate(blackhole: Blackhole) {
+        val simulator = GameSimulator(distribution, game, frameIdx, 0, 0, remainingGames, random)
+        simulator.run(SIMULATIONS, Long.MAX_VALUE)
+        blackhole.consume(simulator.gameScores)
+    }
+
+    @Benchmark
+    fun buildDistribution(blackhole: Blackhole) {
+        val builder = LeaveDistribution.Builder()
+        for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+            builder.addFrame(game[frameIdx].pinState, 0, frameIdx == ScoringRules.LAST_FRAME)
+        }
+        blackhole.consume(builder.build())
+    }
+}
@@ -0,0 +1,174 @@
+package ca.josephroque.bowlingcompanion.games.lane
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * The state of the 5 pins on the deck, packed into the low 5 bits of an [Int]. The left 2 pin is
+ * the most significant bit, matching the format the pins are stored in the database.
+ *
+ * A [Deck] is immutable and only 32 of them can exist, so every instance is created up front and
+ * shared. Changing the pins on a deck returns another shared instance instead of allocating.
+ */
+class Deck private constructor(val mask: Int) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "Deck"
+
+        const val NUMBER_OF_STATES = 32
+
+        private const val ALL_PINS = NUMBER_OF_STATES - 1
+
+        /** Value of each pin, from left to right. */
+        internal val PIN_VALUES = intArrayOf(2, 3, 5, 3, 2)
+
+        private val decks = Array(NUMBER_OF_STATES) { Deck(it) }
+
+        /** A deck with every pin still standing. */
+        val allPinsUp = decks[0]
+
+        /** A deck with every pin knocked down. */
+        val allPinsDown = decks[ALL_PINS]
+
+        fun fromInt(ball: Int): Deck {
+            if (ball < 0 || ball > ALL_PINS) {
+                throw IllegalArgumentException("cannot convert value: $ball")
+            }
+            return decks[ball]
+        }
+
+        fun fromBooleanArray(array: BooleanArray): Deck {
+            var mask = 0
+            for (i in array.indices) {
+                if (array[i]) { mask = mask or pinBit(i) }
+            }
+            return decks[mask]
+        }
+
+        fun pinBit(pin: Int): Int = 1 shl (PIN_VALUES.size - 1 - pin)
+    }
+
+    fun isPinDown(pin: Int): Boolean = mask and pinBit(pin) != 0
+
+    fun withPin(pin: Int, isDown: Boolean): Deck {
+        return decks[if (isDown) mask or pinBit(pin) else mask and pinBit(pin).inv()]
+    }
+
+    fun withPins(pins: IntArray, isDown: Boolean): Deck {
+        var pinMask = 0
+        pins.forEach { pinMask = pinMask or pinBit(it) }
+        return decks[if (isDown) mask or pinMask else mask and pinMask.inv()]
+    }
+
+    /** Pins which are down in this deck but were not down in [other]. */
+    operator fun minus(other: Deck): Deck = decks[mask and other.mask.inv() and ALL_PINS]
+
+    override fun toString(): String = "Deck(${Integer.toBinaryString(mask)})"
+}
+
+// MARK: First Ball
+
+private fun Deck.hasFeature(feature: Int): Boolean {
+    return DeckClassification.features[this.mask] and feature != 0
+}
+
+fun Deck.ball(countH2asH: Boolean, countS2asS: Boolean): Ball {
+    return DeckClassification.ball(this.mask, countH2asH, countS2asS)
+}
+
+fun Deck.isHeadPin(countH2asH: Boolean): Boolean {
+    return this.hasFeature(if (countH2asH) DeckClassification.HEAD_PIN or DeckClassification.HEAD_PIN_2 else DeckClassification.HEAD_PIN)
+}
+
+val Deck.isHeadPin: Boolean
+    get() = this.hasFeature(DeckClassification.HEAD_PIN)
+
+val Deck.isLeft: Boolean
+    get() = this.hasFeature(DeckClassification.LEFT)
+
+val Deck.isRight: Boolean
+    get() = this.hasFeature(DeckClassification.RIGHT)
+
+val Deck.isAce: Boolean
+    get() = this.hasFeature(DeckClassification.ACE)
+
+val Deck.isLeftChopOff: Boolean
+    get() = this.hasFeature(DeckClassification.LEFT_CHOP_OFF)
+
+val Deck.isRightChopOff: Boolean
+    get() = this.hasFeature(DeckClassification.RIGHT_CHOP_OFF)
+
+val Deck.isChopOff: Boolean
+    get() = this.hasFeature(DeckClassification.CHOP_OFF)
+
+fun Deck.isLeftSplit(countS2asS: Boolean): Boolean {
+    return this.hasFeature(if (countS2asS) DeckClassification.LEFT_SPLIT or DeckClassification.LEFT_SPLIT_2 else DeckClassification.LEFT_SPLIT)
+}
+
+fun Deck.isRightSplit(countS2asS: Boolean): Boolean {
+    return this.hasFeature(if (countS2asS) DeckClassification.RIGHT_SPLIT or DeckClassification.RIGHT_SPLIT_2 else DeckClassification.RIGHT_SPLIT)
+}
+
+fun Deck.isSplit(countS2asS: Boolean): Boolean {
+    return this.hasFeature(if (countS2asS) DeckClassification.SPLIT or DeckClassification.SPLIT_2 else DeckClassification.SPLIT)
+}
+
+val Deck.isHitLeftOfMiddle: Boolean
+    get() = this.hasFeature(DeckClassification.HIT_LEFT_OF_MIDDLE)
+
+val Deck.isHitRightOfMiddle: Boolean
+    get() = this.hasFeature(DeckClassification.HIT_RIGHT_OF_MIDDLE)
+
+val Deck.isMiddleHit: Boolean
+    get() = this.hasFeature(DeckClassification.MIDDLE_HIT)
+
+val Deck.isLeftTwelve: Boolean
+    get() = this.hasFeature(DeckClassification.LEFT_TWELVE)
+
+val Deck.isRightTwelve: Boolean
+    get() = this.hasFeature(DeckClassification.RIGHT_TWELVE)
+
+val Deck.isTwelve: Boolean
+    get() = this.hasFeature(DeckClassification.TWELVE)
+
+val Deck.arePinsCleared: Boolean
+    get() = this === Deck.allPinsDown
+
+// Functions
+
+fun Deck.toBooleanArray(): BooleanArray {
+    return BooleanArray(Deck.PIN_VALUES.size) { this.isPinDown(it) }
+}
+
+fun Deck.value(onDeck: Boolean): Int {
+    return if (onDeck) DeckClassification.onDeckValues[this.mask] else DeckClassification.values[this.mask]
+}
+
+fun Deck.ballValue(ballIdx: Int, returnSymbol: Boolean, afterStrike: Boolean): String {
+    var ball = this.ball(countH2asH = false, countS2asS = false)
+    if (ball == Ball.Cleared) {
+        ball = when {
+            ballIdx == 0 -> Ball.Strike
+            ballIdx == 1 && !afterStrike -> Ball.Spare
+            else -> Ball.Cleared
+        }
+    }
+
+    return if (ball == Ball.None) {
+        return if (this.value(false) == 0) {
+            ball.toString()
+        } else {
+            DeckClassification.valueTexts[this.mask]!!
+        }
+    } else {
+        if (ballIdx == 0 || returnSymbol) ball.toString() else ball.numeral
+    }
+}
+
+fun Deck.ballValueDifference(other: Deck, ballIdx: Int, returnSymbol: Boolean, afterStrike: Boolean): String {
+    return (this - other).ballValue(ballIdx, returnSymbol, afterStrike)
+}
+
+fun Deck.valueDifference(other: Deck): Int {
+    return (this - other).value(false)
+}
@@ -0,0 +1,131 @@
+package ca.josephroque.bowlingcompanion.games.lane
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Precomputed classification of every possible [Deck]. There are only 32 states for the pins, so
+ * the value of the deck and each first ball predicate are worked out once and then looked up by
+ * [Deck.mask].
+ */
+object DeckClassification {
+
+    @Suppress("unused")
+    private const val TAG = "DeckClassification"
+
+    // MARK: Features
+
+    const val HEAD_PIN = 1
+    const val HEAD_PIN_2 = 1 shl 1
+    const val LEFT_SPLIT = 1 shl 2
+    const val LEFT_SPLIT_2 = 1 shl 3
+    const val RIGHT_SPLIT = 1 shl 4
+    const val RIGHT_SPLIT_2 = 1 shl 5
+    const val LEFT_CHOP_OFF = 1 shl 6
+    const val RIGHT_CHOP_OFF = 1 shl 7
+    const val ACE = 1 shl 8
+    const val LEFT = 1 shl 9
+    const val RIGHT = 1 shl 10
+    const val LEFT_TWELVE = 1 shl 11
+    const val RIGHT_TWELVE = 1 shl 12
+    const val HIT_LEFT_OF_MIDDLE = 1 shl 13
+    const val HIT_RIGHT_OF_MIDDLE = 1 shl 14
+    const val MIDDLE_HIT = 1 shl 15
+    const val CLEARED = 1 shl 16
+
+    const val SPLIT = LEFT_SPLIT or RIGHT_SPLIT
+    const val SPLIT_2 = LEFT_SPLIT_2 or RIGHT_SPLIT_2
+    const val CHOP_OFF = LEFT_CHOP_OFF or RIGHT_CHOP_OFF
+    const val TWELVE = LEFT_TWELVE or RIGHT_TWELVE
+
+    // MARK: Tables
+
+    /** Value of the pins knocked down, for each deck. */
+    val values = IntArray(Deck.NUMBER_OF_STATES)
+
+    /** Value of the pins left standing, for each deck. */
+    val onDeckValues = IntArray(Deck.NUMBER_OF_STATES)
+
+    /** [values] as text, so score sheets can show them without allocating. */
+    val valueTexts = arrayOfNulls<String>(Deck.NUMBER_OF_STATES)
+
+    /** Bitset of the features above, for each deck. */
+    val features = IntArray(Deck.NUMBER_OF_STATES)
+
+    /** [Ball] for each deck, for each combination of `countH2asH` and `countS2asS`. */
+    private val balls = Array(4) { arrayOfNulls<Ball>(Deck.NUMBER_OF_STATES) }
+
+    init {
+        for (mask in 0 until Deck.NUMBER_OF_STATES) {
+            var value = 0
+            var onDeckValue = 0
+            for (pin in Deck.PIN_VALUES.indices) {
+                if (mask and Deck.pinBit(pin) != 0) {
+                    value += Deck.PIN_VALUES[pin]
+                } else {
+                    onDeckValue += Deck.PIN_VALUES[pin]
+                }
+            }
+
+            values[mask] = value
+            onDeckValues[mask] = onDeckValue
+            valueTexts[mask] = value.toString()
+            features[mask] = buildFeatures(mask, value)
+
+            for (preferences in balls.indices) {
+                balls[preferences][mask] = buildBall(features[mask], countH2asH = preferences and 1 != 0, countS2asS = preferences and 2 != 0)
+            }
+        }
+    }
+
+    // MARK: DeckClassification
+
+    fun ball(mask: Int, countH2asH: Boolean, countS2asS: Boolean): Ball {
+        val preferences = (if (countH2asH) 1 else 0) or (if (countS2asS) 2 else 0)
+        return balls[preferences][mask]!!
+    }
+
+    // MARK: Private functions
+
+    private fun buildFeatures(mask: Int, value: Int): Int {
+        val left2 = mask and Deck.pinBit(0) != 0
+        val left3 = mask and Deck.pinBit(1) != 0
+        val head = mask and Deck.pinBit(2) != 0
+        val right3 = mask and Deck.pinBit(3) != 0
+        val right2 = mask and Deck.pinBit(4) != 0
+
+        var features = 0
+        if (value == 5 && head) { features = features or HEAD_PIN }
+        if (value == 7 && head) { features = features or HEAD_PIN_2 }
+        if (value == 8 && head && left3) { features = features or LEFT_SPLIT }
+        if (value == 10 && head && left3 && right2) { features = features or LEFT_SPLIT_2 }
+        if (value == 8 && head && right3) { features = features or RIGHT_SPLIT }
+        if (value == 10 && head && left2 && right3) { features = features or RIGHT_SPLIT_2 }
+        if (value == 10 && left2 && left3 && head) { features = features or LEFT_CHOP_OFF }
+        if (value == 10 && right2 && right3 && head) { features = features or RIGHT_CHOP_OFF }
+        if (value == 11) { features = features or ACE }
+        if (value == 13 && !left2) { features = features or LEFT }
+        if (value == 13 && !right2) { features = features or RIGHT }
+        if (value == 12 && left3) { features = features or LEFT_TWELVE }
+        if (value == 12 && right3) { features = features or RIGHT_TWELVE }
+        if (!head && (left2 || left3)) { features = features or HIT_LEFT_OF_MIDDLE }
+        if (!head && (right2 || right3)) { features = features or HIT_RIGHT_OF_MIDDLE }
+        if (head) { features = features or MIDDLE_HIT }
+        if (mask == Deck.NUMBER_OF_STATES - 1) { features = features or CLEARED }
+        return features
+    }
+
+    private fun buildBall(features: Int, countH2asH: Boolean, countS2asS: Boolean): Ball {
+        return when {
+            features and HEAD_PIN != 0 -> Ball.HeadPin
+            features and HEAD_PIN_2 != 0 -> if (countH2asH) Ball.HeadPin else Ball.HeadPin2
+            features and SPLIT != 0 -> Ball.Split
+            features and SPLIT_2 != 0 -> if (countS2asS) Ball.Split else Ball.Split2
+            features and CHOP_OFF != 0 -> Ball.ChopOff
+            features and ACE != 0 -> Ball.Ace
+            features and LEFT != 0 -> Ball.Left
+            features and RIGHT != 0 -> Ball.Right
+            features and CLEARED != 0 -> Ball.Cleared
+            else -> Ball.None
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package ca.josephroque.bowlingcompanion.games.lane
 
-import java.util.Locale
-
 /**
  * Copyright (C) 2018 Joseph Roque
  *
- * Pins with their values.
+ * Pins with their values. The scoring engine works on [Deck], this is only an adapter for views
+ * which prefer to work with individual pins.
  */
 class Pin(val type: Type) {
 
@@ -41,28 +40,20 @@ class Pin(val type: Type) {
     }
 
     companion object {
-        private fun buildDeck(): Deck {
+        private fun buildPins(): Array<Pin> {
             return arrayOf(Pin(Type.Two), Pin(Type.Three), Pin(Type.Five), Pin(Type.Three), Pin(Type.Two))
         }
 
-        fun deckFromBooleanArray(array: BooleanArray): Deck {
-            return buildDeck().apply {
+        fun pinsFromDeck(deck: Deck): Array<Pin> {
+            return buildPins().apply {
                 forEachIndexed { index, pin ->
-                    pin.isDown = array[index]
+                    pin.isDown = deck.isPinDown(index)
                 }
             }
         }
 
-        fun deckFromInt(ball: Int): Deck {
-            if (ball < 0 || ball > 31) {
-                throw IllegalArgumentException("cannot convert value: $ball")
-            }
-            val pinState = buildDeck()
-            val ballBinary = String.format(Locale.CANADA, "%5s", Integer.toBinaryString(ball)).replace(' ', '0')
-            for (i in pinState.indices) {
-                pinState[i].isDown = ballBinary[i] == '1'
-            }
-            return pinState
+        fun deckFromPins(pins: Array<Pin>): Deck {
+            return Deck.fromBooleanArray(pins.map { it.isDown }.toBooleanArray())
         }
     }
 }
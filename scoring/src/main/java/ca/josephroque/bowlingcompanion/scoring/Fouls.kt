@@ -0,0 +1,75 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Provides utility methods for scoring fouls.
+ *
+ * The fouls of a frame are stored as a mask, with the lowest bit set when the first ball was
+ * fouled, the next when the second ball was fouled, and so on.
+ */
+object Fouls {
+
+    @Suppress("unused")
+    private const val TAG = "Fouls"
+
+    /** Mask with every ball of a frame fouled. */
+    const val ALL_BALLS_FOULED = (1 shl ScoringRules.NUMBER_OF_BALLS) - 1
+
+    /** Lowest value used to store fouls before the database was changed to store a mask. */
+    const val MIN_LEGACY_FOULS = 24
+
+    /** Highest value used to store fouls before the database was changed to store a mask. */
+    const val MAX_LEGACY_FOULS = 30
+
+    fun isBallFouled(fouls: Int, ballIdx: Int): Boolean {
+        return fouls and (1 shl ballIdx) != 0
+    }
+
+    fun foulMask(ballFouled: BooleanArray): Int {
+        var fouls = 0
+        for (ballIdx in 0 until ballFouled.size) {
+            if (ballFouled[ballIdx]) { fouls = fouls or (1 shl ballIdx) }
+        }
+        return fouls
+    }
+
+    fun countFouls(fouls: Int): Int {
+        return Integer.bitCount(fouls and ALL_BALLS_FOULED)
+    }
+
+    /**
+     * Gets the mask of fouls for a value stored before the database was changed to store a mask.
+     *
+     * @param legacyFouls integer representation of the fouls, from [foulIntToString]
+     * @return mask of the balls which were fouled
+     */
+    fun legacyFoulsToMask(legacyFouls: Int): Int {
+        val foulString = foulIntToString(legacyFouls)
+        var fouls = 0
+        for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+            if (foulString.indexOf('1' + ballIdx) != -1) { fouls = fouls or (1 shl ballIdx) }
+        }
+        return fouls
+    }
+
+    /**
+     * Gets the String representation of a number of fouls.
+     * Historic implementation from pre-3.0.0, required to upgrade old databases
+     *
+     * @param i integer representation of the number of fouls
+     * @return string representation of the number of fouls
+     */
+    fun foulIntToString(i: Int): String {
+        return when (i) {
+            24 -> "3"
+            25 -> "2"
+            26 -> "23"
+            27 -> "1"
+            28 -> "13"
+            29 -> "12"
+            30 -> "123"
+            else -> "0"
+        }
+    }
+}
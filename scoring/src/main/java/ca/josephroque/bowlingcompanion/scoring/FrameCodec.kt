@@ -0,0 +1,93 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Packs the pins of a frame into a single short, with the [Deck.mask] of each ball in 5 bits and
+ * whether the frame was accessed in the highest bit. The fouls of every frame in a game fit in a
+ * single int, with the [Fouls] mask of each frame in 3 bits.
+ *
+ * Every frame of a game is stored in the database as [PACKED_GAME_SIZE] bytes: the packed pins of
+ * each frame in order, then the fouls of the game, all big-endian.
+ */
+object FrameCodec {
+
+    @Suppress("unused")
+    private const val TAG = "FrameCodec"
+
+    private const val BITS_PER_BALL = ScoringRules.NUMBER_OF_PINS
+    private const val BALL_MASK = (1 shl BITS_PER_BALL) - 1
+    private const val ACCESSED = 1 shl 15
+
+    private const val BITS_PER_FRAME_FOULS = ScoringRules.NUMBER_OF_BALLS
+
+    private const val BYTES_PER_FRAME = 2
+    private const val FOULS_OFFSET = ScoringRules.NUMBER_OF_FRAMES * BYTES_PER_FRAME
+
+    const val PACKED_GAME_SIZE = FOULS_OFFSET + 4
+
+    // MARK: Pins
+
+    fun packPins(pinState: Array<Deck>, isAccessed: Boolean): Short {
+        var packed = if (isAccessed) ACCESSED else 0
+        for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+            packed = packed or (pinState[ballIdx].mask shl (ballIdx * BITS_PER_BALL))
+        }
+        return packed.toShort()
+    }
+
+    fun unpackPins(packed: Short, ballIdx: Int): Deck {
+        return Deck.fromInt((packed.toInt() shr (ballIdx * BITS_PER_BALL)) and BALL_MASK)
+    }
+
+    fun isAccessed(packed: Short): Boolean {
+        return packed.toInt() and ACCESSED != 0
+    }
+
+    // MARK: Fouls
+
+    fun packFouls(gameFouls: Int, frameIdx: Int, fouls: Int): Int {
+        return gameFouls or ((fouls and Fouls.ALL_BALLS_FOULED) shl (frameIdx * BITS_PER_FRAME_FOULS))
+    }
+
+    fun unpackFouls(gameFouls: Int, frameIdx: Int): Int {
+        return (gameFouls shr (frameIdx * BITS_PER_FRAME_FOULS)) and Fouls.ALL_BALLS_FOULED
+    }
+
+    // MARK: Games
+
+    fun packGame(framePins: ShortArray, gameFouls: Int): ByteArray {
+        val packed = ByteArray(PACKED_GAME_SIZE)
+        for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+            writeBytes(packed, frameIdx * BYTES_PER_FRAME, framePins[frameIdx].toInt(), BYTES_PER_FRAME)
+        }
+        writeBytes(packed, FOULS_OFFSET, gameFouls, PACKED_GAME_SIZE - FOULS_OFFSET)
+        return packed
+    }
+
+    fun unpackGamePins(packedGame: ByteArray, frameIdx: Int): Short {
+        return readBytes(packedGame, frameIdx * BYTES_PER_FRAME, BYTES_PER_FRAME).toShort()
+    }
+
+    fun unpackGameFouls(packedGame: ByteArray): Int {
+        return readBytes(packedGame, FOULS_OFFSET, PACKED_GAME_SIZE - FOULS_OFFSET)
+    }
+
+    // MARK: Private functions
+
+    private fun writeBytes(packed: ByteArray, offset: Int, value: Int, size: Int) {
+        for (i in 0 until size) {
+            packed[offset + i] = (value shr ((size - 1 - i) * 8)).toByte()
+        }
+    }
+
+    private fun readBytes(packed: ByteArray, offset: Int, size: Int): Int {
+        var value = 0
+        for (i in 0 until size) {
+            value = (value shl 8) or (packed[offset + i].toInt() and 0xFF)
+        }
+        return value
+    }
+}
@@ -0,0 +1,223 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Ball
+import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
+import ca.josephroque.bowlingcompanion.games.lane.ballValue
+import ca.josephroque.bowlingcompanion.games.lane.ballValueDifference
+import ca.josephroque.bowlingcompanion.games.lane.value
+import ca.josephroque.bowlingcompanion.games.lane.valueDifference
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Keeps the running score of each frame in a game. Frames are marked as dirty when their pins
+ * change, and only the frames whose score can depend on them are scored again.
+ */
+class GameScorer(private val frames: List<ScoringFrame>) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "GameScorer"
+
+        /** A frame's score can depend on the balls thrown in up to this many following frames. */
+        private const val FRAMES_LOOKED_AHEAD = 2
+
+        /**
+         * Get the score of a single frame, without the score of the frames before it.
+         *
+         * @param frames the frames of the game
+         * @param frameIdx the frame to score
+         * @return the pins this frame is worth
+         */
+        fun scoreFrame(frames: List<ScoringFrame>, frameIdx: Int): Int {
+            val frame = frames[frameIdx]
+            var frameScore = 0
+
+            // Score last frame differently than other frames
+            if (frameIdx == ScoringRules.LAST_FRAME) {
+                for (ballIdx in ScoringRules.LAST_BALL downTo 0) {
+                    if (ballIdx == ScoringRules.LAST_BALL) {
+                        // Always add the value of the 3rd ball
+                        frameScore = frame.pinState[ballIdx].value(false)
+                    } else if (frame.pinState[ballIdx].arePinsCleared) {
+                        // If all pins were knocked down in a previous ball, add the full
+                        // value of that ball (it's a strike/spare)
+                        frameScore += frame.pinState[ballIdx].value(false)
+                    }
+                }
+            } else {
+                val nextFrame = frames[frameIdx + 1]
+                for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                    if (ballIdx == ScoringRules.LAST_BALL) {
+                        // If the loop is not exited by this point, there's no strike or spare
+                        // Add basic value of the frame
+                        frameScore += frame.pinState[ballIdx].value(false)
+                    } else if (frame.pinState[ballIdx].arePinsCleared) {
+                        // Either spare or strike occurred, add ball 0 of this frame and next
+                        frameScore += frame.pinState[ballIdx].value(false)
+                        frameScore += nextFrame.pinState[0].value(false)
+                        val double = frameScore == ScoringRules.MAX_FRAME_VALUE * 2
+
+                        // Strike in this frame
+                        if (ballIdx == 0) {
+                            if (frameIdx + 1 == ScoringRules.LAST_FRAME) {
+                                // 9th frame must get additional scoring from 10th frame only
+                                if (double) {
+                                    frameScore += nextFrame.pinState[1].value(false)
+                                } else {
+                                    frameScore += nextFrame.pinState[1].valueDifference(nextFrame.pinState[0])
+                                }
+                            } else if (!double) {
+                                frameScore += nextFrame.pinState[1].valueDifference(nextFrame.pinState[0])
+                            } else {
+                                frameScore += frames[frameIdx + 2].pinState[0].value(false)
+                            }
+                        }
+                        break
+                    }
+                }
+            }
+
+            return frameScore
+        }
+
+        /**
+         * Get the text to display for each ball of a single frame.
+         *
+         * @param frames the frames of the game
+         * @param frameIdx the frame to get text for
+         * @param balls buffer of at least [ScoringRules.NUMBER_OF_BALLS] elements to fill
+         */
+        fun buildBallText(frames: List<ScoringFrame>, frameIdx: Int, balls: Array<String>) {
+            val frame = frames[frameIdx]
+            balls.fill("")
+            if (!frame.isAccessed) {
+                return
+            }
+
+            if (frameIdx == ScoringRules.LAST_FRAME) {
+                if (frame.pinState[0].arePinsCleared) {
+                    // If the first ball is a strike, the next two could be strikes/spares
+                    balls[0] = Ball.Strike.toString()
+                    if (frame.pinState[1].arePinsCleared) {
+                        // If the second ball is a strike
+                        balls[1] = Ball.Strike.toString()
+                        if (frame.pinState[2].arePinsCleared) {
+                            balls[2] = Ball.Strike.toString()
+                        } else {
+                            balls[2] = frame.pinState[2].ballValue(2, true, false)
+                        }
+                    } else {
+                        // Second ball is not a strike
+                        balls[1] = frame.pinState[1].ballValue(1, true, false)
+                        balls[2] = if (frame.pinState[2].arePinsCleared)
+                            Ball.Spare.toString()
+                        else
+                            frame.pinState[2].ballValueDifference(frame.pinState[1], 2, false, false)
+                    }
+                } else {
+                    // If the first ball is not a strike, check if the second ball is a spare or not and get value
+                    balls[0] = frame.pinState[0].ballValue(0, false, false)
+                    if (frame.pinState[1].arePinsCleared) {
+                        balls[1] = Ball.Spare.toString()
+                        balls[2] = frame.pinState[2].ballValue(2, true, true)
+                    } else {
+                        balls[1] = frame.pinState[1].ballValueDifference(frame.pinState[0], 1, false, false)
+                        balls[2] = frame.pinState[2].ballValueDifference(frame.pinState[1], 2, false, false)
+                    }
+                }
+            } else {
+                val nextFrame = frames[frameIdx + 1]
+                balls[0] = frame.pinState[0].ballValue(0, true, false)
+                if (frame.pinState[0].arePinsCleared) {
+                    // When the first ball is a strike, show the pins knocked down in the next frame, or empty frames
+                    if (nextFrame.isAccessed) {
+                        balls[1] = nextFrame.pinState[0].ballValue(1, false, true)
+                        if (nextFrame.pinState[0].arePinsCleared) {
+                            // When the next frame is a strike, the 3rd ball will have to come from the frame after
+                            if (frameIdx < ScoringRules.LAST_FRAME - 1) {
+                                val nextNextFrame = frames[frameIdx + 2]
+                                balls[2] = if (nextNextFrame.isAccessed)
+                                    nextNextFrame.pinState[0].ballValue(2, false, true)
+                                else
+                                    Ball.None.toString()
+                            } else {
+                                // In the 9th frame, the 3rd ball comes from the 10th frame's second ball
+                                balls[2] = nextFrame.pinState[1].ballValue(2, false, true)
+                            }
+                        } else {
+                            balls[2] = nextFrame.pinState[1].ballValueDifference(nextFrame.pinState[0], 2, false, true)
+                        }
+                    } else {
+                        balls[1] = Ball.None.toString()
+                        balls[2] = Ball.None.toString()
+                    }
+                } else {
+                    // When the first ball is not a strike, the second and third ball values need to be calculated
+                    if (frame.pinState[1].arePinsCleared) {
+                        balls[1] = Ball.Spare.toString()
+                        balls[2] = if (nextFrame.isAccessed)
+                            nextFrame.pinState[0].ballValue(2, false, true)
+                        else
+                            Ball.None.toString()
+                    } else {
+                        balls[1] = frame.pinState[1].ballValueDifference(frame.pinState[0], 1, false, false)
+                        balls[2] = frame.pinState[2].ballValueDifference(frame.pinState[1], 2, false, false)
+                    }
+                }
+            }
+        }
+    }
+
+    /** Score of each frame on its own. */
+    private val scores = IntArray(frames.size)
+
+    /** Accumulative score of the game at each frame. Only valid after [update]. */
+    val frameScores = IntArray(frames.size)
+
+    val totalScore: Int
+        get() = if (frames.isEmpty()) 0 else frameScores[frames.lastIndex]
+
+    private var firstDirtyFrame = 0
+    private var lastDirtyFrame = frames.lastIndex
+
+    val isDirty: Boolean
+        get() = firstDirtyFrame <= lastDirtyFrame
+
+    // MARK: GameScorer
+
+    fun markDirty(frameIdx: Int) {
+        firstDirtyFrame = minOf(firstDirtyFrame, frameIdx)
+        lastDirtyFrame = maxOf(lastDirtyFrame, frameIdx)
+    }
+
+    fun markAllDirty() {
+        firstDirtyFrame = 0
+        lastDirtyFrame = frames.lastIndex
+    }
+
+    /**
+     * Score the frames which were affected by any dirty frames, then update the accumulative
+     * scores from the first of those frames onwards.
+     *
+     * @return the accumulative score at each frame
+     */
+    fun update(): IntArray {
+        if (!isDirty) { return frameScores }
+
+        val firstFrame = maxOf(firstDirtyFrame - FRAMES_LOOKED_AHEAD, 0)
+        for (frameIdx in firstFrame..lastDirtyFrame) {
+            scores[frameIdx] = scoreFrame(frames, frameIdx)
+        }
+
+        var totalScore = if (firstFrame > 0) frameScores[firstFrame - 1] else 0
+        for (frameIdx in firstFrame until frames.size) {
+            totalScore += scores[frameIdx]
+            frameScores[frameIdx] = totalScore
+        }
+
+        firstDirtyFrame = frames.size
+        lastDirtyFrame = -1
+        return frameScores
+    }
+}
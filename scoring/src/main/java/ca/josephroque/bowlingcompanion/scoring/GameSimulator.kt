@@ -0,0 +1,138 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Simulates the rest of a game, and the games left in its series, by throwing each ball from a
+ * [LeaveDistribution]. The balls already thrown are copied when the simulator is created, so it can
+ * run on another thread while the game changes.
+ *
+ * A simulator is only used by one thread, and owns its random numbers and the histograms it fills,
+ * so several can run at once and their histograms be combined in a [ScoreProjection].
+ */
+class GameSimulator(
+    private val distribution: LeaveDistribution,
+    frames: List<ScoringFrame>,
+    private val frameIdx: Int,
+    private val ballIdx: Int,
+    /** Number of fouls on the balls already thrown. */
+    private val fouls: Int,
+    /** Number of games left in the series after this one. */
+    val remainingGames: Int,
+    private val random: Random
+) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "GameSimulator"
+
+        /** Number of simulations between checks of the deadline. */
+        private const val SIMULATIONS_PER_CHECK = 32
+    }
+
+    private class SimulatedFrame(override val pinState: Array<Deck>) : ScoringFrame {
+        override val isAccessed = true
+    }
+
+    /** The current game. Balls before the current ball are never changed. */
+    private val frames = List(ScoringRules.NUMBER_OF_FRAMES) { SimulatedFrame(frames[it].pinState.copyOf()) }
+    private val scorer = GameScorer(this.frames)
+
+    /** The games left in the series, which are each thrown from the first ball. */
+    private val nextFrames = List(ScoringRules.NUMBER_OF_FRAMES) { SimulatedFrame(Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsUp }) }
+    private val nextScorer = GameScorer(nextFrames)
+
+    /** Number of games which ended with each score. */
+    val gameScores = IntArray(ScoringRules.MAX_SCORE + 1)
+
+    /** Number of simulations where the current and remaining games added up to each total. */
+    val seriesScores = IntArray(ScoringRules.MAX_SCORE * (remainingGames + 1) + 1)
+
+    var simulations: Int = 0
+        private set
+
+    // MARK: GameSimulator
+
+    /**
+     * Run simulations until [maxSimulations] have run, or [deadline] passes.
+     *
+     * @param maxSimulations most simulations to run
+     * @param deadline value of [System.nanoTime] to stop by
+     */
+    fun run(maxSimulations: Int, deadline: Long) {
+        while (simulations < maxSimulations) {
+            if (simulations % SIMULATIONS_PER_CHECK == 0 && System.nanoTime() >= deadline) {
+                break
+            }
+
+            val gameScore = simulateGame(frames, scorer, frameIdx, ballIdx, fouls)
+            var seriesScore = gameScore
+            for (gameIdx in 0 until remainingGames) {
+                seriesScore += simulateGame(nextFrames, nextScorer, 0, 0, 0)
+            }
+
+            gameScores[gameScore]++
+            seriesScores[seriesScore]++
+            simulations++
+        }
+    }
+
+    // MARK: Private functions
+
+    /** Throw every ball from [startFrameIdx] and [startBallIdx] and score the game. */
+    private fun simulateGame(frames: List<SimulatedFrame>, scorer: GameScorer, startFrameIdx: Int, startBallIdx: Int, startFouls: Int): Int {
+        var fouls = startFouls
+        for (frameIdx in startFrameIdx until ScoringRules.NUMBER_OF_FRAMES) {
+            val pinState = frames[frameIdx].pinState
+            val isLastFrame = frameIdx == ScoringRules.LAST_FRAME
+            val firstBallIdx = if (frameIdx == startFrameIdx) startBallIdx else 0
+
+            // Count the balls thrown at the rack, which is set again after a strike or spare in the last frame
+            var rackBallIdx = 0
+            var down = 0
+            for (ballIdx in 0 until firstBallIdx) {
+                val thrown = pinState[ballIdx].mask
+                if (thrown == Deck.allPinsDown.mask) {
+                    rackBallIdx = 0
+                    down = 0
+                } else {
+                    rackBallIdx++
+                    down = thrown
+                }
+            }
+
+            // A frame which was cleared before the current ball has no balls left to throw
+            if (!isLastFrame && firstBallIdx > 0 && pinState[firstBallIdx - 1] === Deck.allPinsDown) {
+                continue
+            }
+
+            for (ballIdx in firstBallIdx until ScoringRules.NUMBER_OF_BALLS) {
+                val result = distribution.sample(rackBallIdx, down, random)
+                pinState[ballIdx] = Deck.fromInt(result)
+                if (distribution.sampleFoul(random)) { fouls++ }
+
+                if (result == Deck.allPinsDown.mask) {
+                    if (!isLastFrame) {
+                        for (i in ballIdx + 1 until ScoringRules.NUMBER_OF_BALLS) {
+                            pinState[i] = Deck.allPinsDown
+                        }
+                        break
+                    }
+                    rackBallIdx = 0
+                    down = 0
+                } else {
+                    rackBallIdx++
+                    down = result
+                }
+            }
+        }
+
+        scorer.markDirty(startFrameIdx)
+        scorer.markDirty(ScoringRules.LAST_FRAME)
+        scorer.update()
+        return maxOf(scorer.totalScore - fouls * ScoringRules.FOUL_PENALTY, 0)
+    }
+}
@@ -0,0 +1,152 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * How often a bowler leaves each set of pins, built from the frames they have bowled. For each ball
+ * thrown at a rack, and each set of pins already down on it, this counts the pins down after the
+ * ball. The first ball at a full rack gives the bowler's first ball distribution, and the later
+ * balls give how they convert each leave.
+ *
+ * Once built, a distribution is immutable and can be sampled from any number of threads.
+ */
+class LeaveDistribution private constructor(
+    private val cumulative: IntArray,
+    private val totals: IntArray,
+    /** Chance of each ball being fouled, out of [Int.MAX_VALUE]. */
+    private val foulThreshold: Int
+) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "LeaveDistribution"
+
+        private const val ALL_PINS = Deck.NUMBER_OF_STATES - 1
+
+        private fun rowIndex(rackBallIdx: Int, down: Int): Int = rackBallIdx * Deck.NUMBER_OF_STATES + down
+    }
+
+    // MARK: LeaveDistribution
+
+    /**
+     * Pick the pins down after the next ball.
+     *
+     * @param rackBallIdx number of balls already thrown at the rack since it was last set
+     * @param down mask of the pins already down
+     * @param random source of randomness, owned by the calling thread
+     * @return mask of the pins down after the ball, which includes [down]
+     */
+    fun sample(rackBallIdx: Int, down: Int, random: Random): Int {
+        val row = rowIndex(rackBallIdx, down)
+        val target = random.nextInt(totals[row])
+        val offset = row * Deck.NUMBER_OF_STATES
+        var result = 0
+        while (cumulative[offset + result] <= target) {
+            result++
+        }
+        return result
+    }
+
+    fun sampleFoul(random: Random): Boolean {
+        return foulThreshold > 0 && random.nextInt(Int.MAX_VALUE) < foulThreshold
+    }
+
+    // MARK: Builder
+
+    class Builder {
+        private val counts = IntArray(ScoringRules.NUMBER_OF_BALLS * Deck.NUMBER_OF_STATES * Deck.NUMBER_OF_STATES)
+        private var ballsThrown = 0L
+        private var ballsFouled = 0L
+
+        /**
+         * Count the balls of a frame.
+         *
+         * @param pinState pins down after each ball
+         * @param fouls mask of the balls fouled, as in [Fouls]
+         * @param isLastFrame true if this is the last frame of a game, where the rack is set again
+         * after a strike or spare and every ball is thrown
+         */
+        fun addFrame(pinState: Array<Deck>, fouls: Int, isLastFrame: Boolean): Builder {
+            var rackBallIdx = 0
+            var down = 0
+            for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                val result = pinState[ballIdx].mask or down
+                counts[rowIndex(rackBallIdx, down) * Deck.NUMBER_OF_STATES + result]++
+                ballsThrown++
+                if (Fouls.isBallFouled(fouls, ballIdx)) { ballsFouled++ }
+
+                if (result == ALL_PINS) {
+                    if (!isLastFrame) { break }
+                    rackBallIdx = 0
+                    down = 0
+                } else {
+                    rackBallIdx++
+                    down = result
+                }
+            }
+            return this
+        }
+
+        /**
+         * Build the distribution. A leave which was never seen after a ball is sampled as if it
+         * was left by any ball, and a leave which was never seen at all gives every outcome the
+         * same chance.
+         */
+        fun build(): LeaveDistribution {
+            val rows = ScoringRules.NUMBER_OF_BALLS * Deck.NUMBER_OF_STATES
+            val cumulative = IntArray(rows * Deck.NUMBER_OF_STATES)
+            val totals = IntArray(rows)
+
+            for (rackBallIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                for (down in 0 until Deck.NUMBER_OF_STATES) {
+                    val row = rowIndex(rackBallIdx, down)
+                    var total = 0
+                    for (result in 0 until Deck.NUMBER_OF_STATES) {
+                        if (result and down != down) {
+                            cumulative[row * Deck.NUMBER_OF_STATES + result] = total
+                            continue
+                        }
+
+                        total += when {
+                            rowTotal(row) > 0 -> counts[row * Deck.NUMBER_OF_STATES + result]
+                            leaveTotal(down) > 0 -> leaveCount(down, result)
+                            else -> 1
+                        }
+                        cumulative[row * Deck.NUMBER_OF_STATES + result] = total
+                    }
+                    totals[row] = total
+                }
+            }
+
+            val foulThreshold = if (ballsThrown == 0L) 0 else (Int.MAX_VALUE * ballsFouled / ballsThrown).toInt()
+            return LeaveDistribution(cumulative, totals, foulThreshold)
+        }
+
+        private fun rowTotal(row: Int): Int {
+            var total = 0
+            for (result in 0 until Deck.NUMBER_OF_STATES) {
+                total += counts[row * Deck.NUMBER_OF_STATES + result]
+            }
+            return total
+        }
+
+        private fun leaveCount(down: Int, result: Int): Int {
+            var count = 0
+            for (rackBallIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                count += counts[rowIndex(rackBallIdx, down) * Deck.NUMBER_OF_STATES + result]
+            }
+            return count
+        }
+
+        private fun leaveTotal(down: Int): Int {
+            var total = 0
+            for (result in 0 until Deck.NUMBER_OF_STATES) {
+                total += leaveCount(down, result)
+            }
+            return total
+        }
+    }
+}
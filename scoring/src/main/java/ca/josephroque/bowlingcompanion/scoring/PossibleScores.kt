@@ -0,0 +1,283 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.games.lane.DeckClassification
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Finds the best and worst final score a game in progress can still reach, and the fewest pins the
+ * bowler must knock down to reach a target score. Balls from the current ball onwards have not been
+ * thrown yet, and are never fouled.
+ *
+ * Each ball scores the value of the pins it knocks down, counted once more for every strike or
+ * spare owed that ball as a bonus. The rest of a game then only depends on the frame and ball, the
+ * pins already down in the frame and the bonuses owed, so the best score from each of these states,
+ * and the fewest pins to score any amount from the start of each frame, are found once and shared.
+ * Updating a game only replays the balls already thrown, and does not allocate.
+ */
+class PossibleScores {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "PossibleScores"
+
+        /** Returned by [pinsNeeded] when the target can no longer be reached. */
+        const val UNREACHABLE = -1
+
+        private const val ALL_PINS = Deck.NUMBER_OF_STATES - 1
+
+        /**
+         * Bonuses owed are packed as `next * 2 + after`, where `next` is the number of strikes and
+         * spares owed the next ball (0 to 2), and `after` is the number owed the ball after (0 or 1).
+         */
+        private const val BONUS_STATES = 6
+        private const val STRIKE_BONUS = 3
+        private const val SPARE_BONUS = 2
+
+        private const val STATES_PER_FRAME = ScoringRules.NUMBER_OF_BALLS * Deck.NUMBER_OF_STATES * BONUS_STATES
+
+        /** State after the last ball of the game. */
+        private const val GAME_OVER = ScoringRules.NUMBER_OF_FRAMES * STATES_PER_FRAME
+
+        /** Most a single frame can add to the score, when each ball of the last frame is owed bonuses. */
+        private const val MAX_FRAME_GAIN = ScoringRules.MAX_FRAME_VALUE * 6
+
+        private const val NO_PINS = Int.MAX_VALUE
+
+        /** Most each state can add to the score by the end of the game. */
+        private val bestGain = IntArray(GAME_OVER + 1)
+
+        /**
+         * Fewest pins to add at least each score by the end of the game, from the first ball of each
+         * frame with each of the bonuses owed, or [NO_PINS] when it can't be added.
+         */
+        private val minPins = IntArray((ScoringRules.NUMBER_OF_FRAMES + 1) * BONUS_STATES * (ScoringRules.MAX_SCORE + 1))
+
+        init {
+            for (frameIdx in ScoringRules.LAST_FRAME downTo 0) {
+                for (ballIdx in ScoringRules.LAST_BALL downTo 0) {
+                    for (down in 0 until Deck.NUMBER_OF_STATES) {
+                        for (bonus in 0 until BONUS_STATES) {
+                            val state = stateIndex(frameIdx, ballIdx, down, bonus)
+                            var best = 0
+                            forEachBall(down) { knocked ->
+                                best = maxOf(best, gain(bonus, knocked) + bestGain[nextState(state, knocked)])
+                            }
+                            bestGain[state] = best
+                        }
+                    }
+                }
+            }
+
+            buildMinPins()
+        }
+
+        // MARK: States
+
+        private fun stateIndex(frameIdx: Int, ballIdx: Int, down: Int, bonus: Int): Int {
+            return ((frameIdx * ScoringRules.NUMBER_OF_BALLS + ballIdx) * Deck.NUMBER_OF_STATES + down) * BONUS_STATES + bonus
+        }
+
+        private fun frameOf(state: Int): Int = state / STATES_PER_FRAME
+
+        private fun ballOf(state: Int): Int = state / (Deck.NUMBER_OF_STATES * BONUS_STATES) % ScoringRules.NUMBER_OF_BALLS
+
+        private fun downOf(state: Int): Int = state / BONUS_STATES % Deck.NUMBER_OF_STATES
+
+        private fun bonusOf(state: Int): Int = state % BONUS_STATES
+
+        /** Score added by knocking down [knocked], with [bonus] owed. */
+        private fun gain(bonus: Int, knocked: Int): Int {
+            return DeckClassification.values[knocked] * (1 + bonus / 2)
+        }
+
+        /**
+         * The state after knocking down [knocked] from [state]. Frames before the last end on a
+         * strike or spare, and owe it a bonus. The last frame always has every ball, and resets the
+         * pins after a strike or spare.
+         */
+        private fun nextState(state: Int, knocked: Int): Int {
+            val frameIdx = frameOf(state)
+            val ballIdx = ballOf(state)
+            val down = downOf(state) or knocked
+            var bonus = (bonusOf(state) and 1) * 2
+
+            if (frameIdx == ScoringRules.LAST_FRAME) {
+                return if (ballIdx == ScoringRules.LAST_BALL) {
+                    GAME_OVER
+                } else {
+                    stateIndex(frameIdx, ballIdx + 1, if (down == ALL_PINS) 0 else down, bonus)
+                }
+            }
+
+            if (down == ALL_PINS) {
+                when (ballIdx) {
+                    0 -> bonus += STRIKE_BONUS
+                    1 -> bonus += SPARE_BONUS
+                }
+                return stateIndex(frameIdx + 1, 0, 0, bonus)
+            }
+
+            return if (ballIdx == ScoringRules.LAST_BALL) {
+                stateIndex(frameIdx + 1, 0, 0, bonus)
+            } else {
+                stateIndex(frameIdx, ballIdx + 1, down, bonus)
+            }
+        }
+
+        /** Call [action] with every set of pins the next ball could knock down, given the pins [down]. */
+        private inline fun forEachBall(down: Int, action: (Int) -> Unit) {
+            val standing = ALL_PINS and down.inv()
+            var knocked = standing
+            while (true) {
+                action(knocked)
+                if (knocked == 0) { break }
+                knocked = (knocked - 1) and standing
+            }
+        }
+
+        // MARK: Pins needed
+
+        private fun minPinsIndex(frameIdx: Int, bonus: Int, gain: Int): Int {
+            return (frameIdx * BONUS_STATES + bonus) * (ScoringRules.MAX_SCORE + 1) + gain
+        }
+
+        private fun buildMinPins() {
+            for (bonus in 0 until BONUS_STATES) {
+                for (gain in 1..ScoringRules.MAX_SCORE) {
+                    minPins[minPinsIndex(ScoringRules.NUMBER_OF_FRAMES, bonus, gain)] = NO_PINS
+                }
+            }
+
+            val frameEnds = FrameEnds()
+            for (frameIdx in ScoringRules.LAST_FRAME downTo 0) {
+                for (bonus in 0 until BONUS_STATES) {
+                    frameEnds.find(stateIndex(frameIdx, 0, 0, bonus))
+                    for (gain in 0..ScoringRules.MAX_SCORE) {
+                        minPins[minPinsIndex(frameIdx, bonus, gain)] = frameEnds.minPins(gain)
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The ways the rest of a frame can end, as the bonuses owed to the next frame, the score added
+     * and the fewest pins to add it. Combined with [minPins] for the frames after, this gives the
+     * fewest pins to reach any score.
+     */
+    private class FrameEnds {
+        private val pins = IntArray(BONUS_STATES * (MAX_FRAME_GAIN + 1))
+
+        private var endFrame = 0
+
+        fun find(state: Int) {
+            pins.fill(NO_PINS)
+            endFrame = frameOf(state) + 1
+            findEnds(state, 0, 0)
+        }
+
+        /** Fewest pins to add at least [gain] by the end of the game, after [find]. */
+        fun minPins(gain: Int): Int {
+            var fewestPins = NO_PINS
+            for (bonus in 0 until BONUS_STATES) {
+                for (frameGain in 0..MAX_FRAME_GAIN) {
+                    val framePins = pins[bonus * (MAX_FRAME_GAIN + 1) + frameGain]
+                    if (framePins == NO_PINS) { continue }
+
+                    val remainingPins = PossibleScores.minPins[minPinsIndex(endFrame, bonus, maxOf(gain - frameGain, 0))]
+                    if (remainingPins != NO_PINS) {
+                        fewestPins = minOf(fewestPins, framePins + remainingPins)
+                    }
+                }
+            }
+            return fewestPins
+        }
+
+        private fun findEnds(state: Int, frameGain: Int, framePins: Int) {
+            val bonus = bonusOf(state)
+            forEachBall(downOf(state)) { knocked ->
+                val next = nextState(state, knocked)
+                val nextGain = frameGain + gain(bonus, knocked)
+                val nextPins = framePins + DeckClassification.values[knocked]
+                if (frameOf(next) == endFrame) {
+                    // The end of the game owes no bonuses
+                    val idx = (if (next == GAME_OVER) 0 else bonusOf(next)) * (MAX_FRAME_GAIN + 1) + nextGain
+                    pins[idx] = minOf(pins[idx], nextPins)
+                } else {
+                    findEnds(next, nextGain, nextPins)
+                }
+            }
+        }
+    }
+
+    /** State of the current ball. */
+    private var state = 0
+
+    /** Score of the balls already thrown, before fouls. */
+    private var thrownScore = 0
+
+    private var foulPenalty = 0
+
+    private val frameEnds = FrameEnds()
+
+    /** Best final score, if every ball left is thrown as well as possible. Only valid after [update]. */
+    val bestScore: Int
+        get() = maxOf(thrownScore + bestGain[state] - foulPenalty, 0)
+
+    /** Worst final score, if every ball left knocks down no pins. Only valid after [update]. */
+    val worstScore: Int
+        get() = maxOf(thrownScore - foulPenalty, 0)
+
+    // MARK: PossibleScores
+
+    /**
+     * Replay the balls thrown before the current ball.
+     *
+     * @param frames the frames of the game
+     * @param frameIdx the current frame
+     * @param ballIdx the current ball, which has not been thrown
+     * @param fouls number of fouls on the balls thrown
+     */
+    fun update(frames: List<ScoringFrame>, frameIdx: Int, ballIdx: Int, fouls: Int) {
+        var state = stateIndex(0, 0, 0, 0)
+        var score = 0
+
+        while (state != GAME_OVER) {
+            val stateFrameIdx = frameOf(state)
+            val stateBallIdx = ballOf(state)
+            if (stateFrameIdx > frameIdx || (stateFrameIdx == frameIdx && stateBallIdx >= ballIdx)) {
+                break
+            }
+
+            val knocked = frames[stateFrameIdx].pinState[stateBallIdx].mask and downOf(state).inv()
+            score += gain(bonusOf(state), knocked)
+            state = nextState(state, knocked)
+        }
+
+        this.state = state
+        this.thrownScore = score
+        this.foulPenalty = fouls * ScoringRules.FOUL_PENALTY
+    }
+
+    /**
+     * Get the fewest pins the bowler must knock down with the balls left to finish with at least
+     * [targetScore]. Only valid after [update].
+     *
+     * @param targetScore the final score to reach
+     * @return the value of the pins to knock down, or [UNREACHABLE]
+     */
+    fun pinsNeeded(targetScore: Int): Int {
+        if (targetScore <= worstScore) { return 0 }
+        if (targetScore > bestScore) { return UNREACHABLE }
+
+        val gain = targetScore + foulPenalty - thrownScore
+        if (ballOf(state) == 0) {
+            return minPins[minPinsIndex(frameOf(state), bonusOf(state), gain)]
+        }
+
+        frameEnds.find(state)
+        return frameEnds.minPins(gain)
+    }
+}
@@ -0,0 +1,102 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * The final scores of a game and its series over many simulations, combined from the histograms
+ * of one or more [GameSimulator].
+ */
+class ScoreProjection(
+    /** Number of games left in the series after the current game. */
+    remainingGames: Int,
+    /** Total of the games in the series which are not being simulated. */
+    private val seriesOffset: Int
+) {
+
+    companion object {
+        @Suppress("unused")
+        private const val TAG = "ScoreProjection"
+    }
+
+    private val gameScores = IntArray(ScoringRules.MAX_SCORE + 1)
+    private val seriesScores = IntArray(ScoringRules.MAX_SCORE * (remainingGames + 1) + 1)
+
+    var simulations: Int = 0
+        private set
+
+    val averageScore: Double
+        get() = average(gameScores, 0)
+
+    val averageSeries: Double
+        get() = average(seriesScores, seriesOffset)
+
+    // MARK: ScoreProjection
+
+    fun add(simulator: GameSimulator) {
+        for (score in gameScores.indices) {
+            gameScores[score] += simulator.gameScores[score]
+        }
+        for (score in seriesScores.indices) {
+            seriesScores[score] += simulator.seriesScores[score]
+        }
+        simulations += simulator.simulations
+    }
+
+    /** Chance of the game ending with more than [opponentScore]. */
+    fun winProbability(opponentScore: Int): Double {
+        return probability(gameScores, maxOf(opponentScore + 1, 0), ScoringRules.MAX_SCORE)
+    }
+
+    /** Chance of the game ending with exactly [opponentScore]. */
+    fun tieProbability(opponentScore: Int): Double {
+        return probability(gameScores, opponentScore, opponentScore)
+    }
+
+    /** Chance of the game ending with each score. */
+    fun scoreProbability(score: Int): Double {
+        return probability(gameScores, score, score)
+    }
+
+    /** Chance of the series ending with at least [total]. */
+    fun seriesProbability(total: Int): Double {
+        return probability(seriesScores, maxOf(total - seriesOffset, 0), seriesScores.lastIndex)
+    }
+
+    /**
+     * Get the score the game ends at or below in a portion of simulations.
+     *
+     * @param percentile portion of simulations, from 0 to 1
+     * @return the score, or 0 if there were no simulations
+     */
+    fun scoreAtPercentile(percentile: Double): Int {
+        val target = Math.ceil(simulations * percentile).toLong()
+        var count = 0L
+        for (score in gameScores.indices) {
+            count += gameScores[score]
+            if (count >= target && count > 0) {
+                return score
+            }
+        }
+        return 0
+    }
+
+    // MARK: Private functions
+
+    private fun probability(scores: IntArray, from: Int, to: Int): Double {
+        if (simulations == 0) { return 0.0 }
+        var count = 0L
+        for (score in maxOf(from, 0)..minOf(to, scores.lastIndex)) {
+            count += scores[score]
+        }
+        return count.toDouble() / simulations
+    }
+
+    private fun average(scores: IntArray, offset: Int): Double {
+        if (simulations == 0) { return 0.0 }
+        var total = 0L
+        for (score in scores.indices) {
+            total += scores[score].toLong() * score
+        }
+        return offset + total.toDouble() / simulations
+    }
+}
@@ -0,0 +1,14 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * The parts of a frame which its score and ball text are worked out from. Frames are passed to
+ * the scoring core in order, so a frame's index is its zero based ordinal.
+ */
+interface ScoringFrame {
+    val isAccessed: Boolean
+    val pinState: Array<Deck>
+}
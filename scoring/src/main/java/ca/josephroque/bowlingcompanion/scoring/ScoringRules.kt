@@ -0,0 +1,26 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Dimensions of a game of 5 pin bowling.
+ */
+object ScoringRules {
+
+    @Suppress("unused")
+    private const val TAG = "ScoringRules"
+
+    const val NUMBER_OF_FRAMES = 10
+    const val LAST_FRAME = NUMBER_OF_FRAMES - 1
+
+    const val NUMBER_OF_BALLS = 3
+    const val LAST_BALL = NUMBER_OF_BALLS - 1
+
+    const val NUMBER_OF_PINS = 5
+
+    /** Value of all the pins in a single frame. */
+    const val MAX_FRAME_VALUE = 15
+
+    const val MAX_SCORE = 450
+    const val FOUL_PENALTY = 15
+}
@@ -0,0 +1,39 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Tests for encoding and decoding the fouls of a frame.
+ */
+class FoulsTest {
+
+    @Test
+    fun foulMask_roundTrips() {
+        for (fouls in 0..Fouls.ALL_BALLS_FOULED) {
+            val ballFouled = BooleanArray(ScoringRules.NUMBER_OF_BALLS) { Fouls.isBallFouled(fouls, it) }
+            assertEquals(fouls, Fouls.foulMask(ballFouled))
+            assertEquals(ballFouled.count { it }, Fouls.countFouls(fouls))
+        }
+    }
+
+    @Test
+    fun legacyFouls_matchLegacyStrings() {
+        for (legacyFouls in Fouls.MIN_LEGACY_FOULS..Fouls.MAX_LEGACY_FOULS) {
+            val foulString = Fouls.foulIntToString(legacyFouls)
+            val expected = BooleanArray(ScoringRules.NUMBER_OF_BALLS) { foulString.contains((it + 1).toString()) }
+            val fouls = Fouls.legacyFoulsToMask(legacyFouls)
+            assertArrayEquals("Legacy fouls $legacyFouls", expected, BooleanArray(ScoringRules.NUMBER_OF_BALLS) { Fouls.isBallFouled(fouls, it) })
+        }
+    }
+
+    @Test
+    fun legacyFouls_coverEveryMask() {
+        val masks = (Fouls.MIN_LEGACY_FOULS..Fouls.MAX_LEGACY_FOULS).map { Fouls.legacyFoulsToMask(it) }.toSet()
+        assertEquals((1..Fouls.ALL_BALLS_FOULED).toSet(), masks)
+        assertEquals(0, Fouls.legacyFoulsToMask(0))
+    }
+}
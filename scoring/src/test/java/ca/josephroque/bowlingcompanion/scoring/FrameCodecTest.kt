@@ -0,0 +1,64 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Tests for packing the pins and fouls of frames.
+ */
+class FrameCodecTest {
+
+    @Test
+    fun pins_roundTrip() {
+        for (first in 0 until Deck.NUMBER_OF_STATES) {
+            for (second in 0 until Deck.NUMBER_OF_STATES) {
+                for (third in 0 until Deck.NUMBER_OF_STATES) {
+                    val pinState = arrayOf(Deck.fromInt(first), Deck.fromInt(second), Deck.fromInt(third))
+                    for (isAccessed in arrayOf(false, true)) {
+                        val packed = FrameCodec.packPins(pinState, isAccessed)
+                        assertEquals(isAccessed, FrameCodec.isAccessed(packed))
+                        for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                            assertSame(pinState[ballIdx], FrameCodec.unpackPins(packed, ballIdx))
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    fun fouls_roundTrip() {
+        val frameFouls = IntArray(ScoringRules.NUMBER_OF_FRAMES) { (it * 5) and Fouls.ALL_BALLS_FOULED }
+        var gameFouls = 0
+        for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+            gameFouls = FrameCodec.packFouls(gameFouls, frameIdx, frameFouls[frameIdx])
+        }
+
+        for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+            assertEquals(frameFouls[frameIdx], FrameCodec.unpackFouls(gameFouls, frameIdx))
+        }
+    }
+
+    @Test
+    fun game_roundTrip() {
+        val framePins = ShortArray(ScoringRules.NUMBER_OF_FRAMES) {
+            val pinState = Array(ScoringRules.NUMBER_OF_BALLS) { ballIdx -> Deck.fromInt((it * 7 + ballIdx * 11) % Deck.NUMBER_OF_STATES) }
+            FrameCodec.packPins(pinState, it % 2 == 0)
+        }
+        var gameFouls = 0
+        for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+            gameFouls = FrameCodec.packFouls(gameFouls, frameIdx, Fouls.ALL_BALLS_FOULED - frameIdx % Fouls.ALL_BALLS_FOULED)
+        }
+
+        val packed = FrameCodec.packGame(framePins, gameFouls)
+        assertEquals(FrameCodec.PACKED_GAME_SIZE, packed.size)
+        for (frameIdx in 0 until ScoringRules.NUMBER_OF_FRAMES) {
+            assertEquals(framePins[frameIdx], FrameCodec.unpackGamePins(packed, frameIdx))
+        }
+        assertEquals(gameFouls, FrameCodec.unpackGameFouls(packed))
+    }
+}
@@ -0,0 +1,134 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
+import ca.josephroque.bowlingcompanion.games.lane.value
+import ca.josephroque.bowlingcompanion.games.lane.valueDifference
+import org.junit.Assert.assertArrayEquals
+import org.junit.Test
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Compares incremental scoring in [GameScorer] against rescoring every frame of the game.
+ */
+class GameScorerTest {
+
+    companion object {
+        private const val NUMBER_OF_GAMES = 500
+        private const val EDITS_PER_GAME = 60
+    }
+
+    private val random = Random(20181017)
+
+    @Test
+    fun incrementalScores_matchFullRescore() {
+        for (gameIdx in 0 until NUMBER_OF_GAMES) {
+            val frames = buildRandomGame()
+            val scorer = GameScorer(frames)
+            assertArrayEquals(fullRescore(frames), scorer.update())
+
+            for (editIdx in 0 until EDITS_PER_GAME) {
+                val frameIdx = random.nextInt(ScoringRules.NUMBER_OF_FRAMES)
+                frames[frameIdx].pinState = buildRandomPinState(frameIdx)
+                scorer.markDirty(frameIdx)
+
+                // Occasionally read after several edits, as the score sheet does when it is not visible
+                if (random.nextInt(3) == 0) { continue }
+                assertArrayEquals("Game $gameIdx, edit $editIdx", fullRescore(frames), scorer.update())
+            }
+
+            assertArrayEquals(fullRescore(frames), scorer.update())
+        }
+    }
+
+    @Test
+    fun cleanScorer_returnsCachedScores() {
+        val frames = buildRandomGame()
+        val scorer = GameScorer(frames)
+        val scores = scorer.update().copyOf()
+
+        frames[0].pinState = Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsDown }
+        assertArrayEquals(scores, scorer.update())
+
+        scorer.markAllDirty()
+        assertArrayEquals(fullRescore(frames), scorer.update())
+    }
+
+    // MARK: Private functions
+
+    private class TestFrame(override var pinState: Array<Deck>) : ScoringFrame {
+        override val isAccessed = true
+    }
+
+    private fun buildRandomGame(): List<TestFrame> {
+        return List(ScoringRules.NUMBER_OF_FRAMES) { TestFrame(buildRandomPinState(it)) }
+    }
+
+    private fun buildRandomPinState(frameIdx: Int): Array<Deck> {
+        val pinState = Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsUp }
+        for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+            // Favour strikes and spares, which is where frames depend on each other
+            val previous = if (ballIdx == 0) Deck.allPinsUp else pinState[ballIdx - 1]
+            pinState[ballIdx] = when {
+                random.nextInt(3) == 0 -> Deck.allPinsDown
+                previous.arePinsCleared && frameIdx == ScoringRules.LAST_FRAME -> Deck.fromInt(random.nextInt(Deck.NUMBER_OF_STATES))
+                previous.arePinsCleared -> Deck.allPinsDown
+                else -> Deck.fromInt(previous.mask or random.nextInt(Deck.NUMBER_OF_STATES))
+            }
+        }
+        return pinState
+    }
+
+    /** The original scoring algorithm, which rescored every frame of the game on each change. */
+    private fun fullRescore(frames: List<ScoringFrame>): IntArray {
+        val frameScores = IntArray(frames.size)
+        for (frameIdx in frames.size - 1 downTo 0) {
+            val frame = frames[frameIdx]
+            if (frameIdx == ScoringRules.LAST_FRAME) {
+                for (ballIdx in ScoringRules.LAST_BALL downTo 0) {
+                    if (ballIdx == ScoringRules.LAST_BALL) {
+                        frameScores[frameIdx] = frame.pinState[ballIdx].value(false)
+                    } else if (frame.pinState[ballIdx].arePinsCleared) {
+                        frameScores[frameIdx] += frame.pinState[ballIdx].value(false)
+                    }
+                }
+            } else {
+                val nextFrame = frames[frameIdx + 1]
+                for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                    if (ballIdx == ScoringRules.LAST_BALL) {
+                        frameScores[frameIdx] += frame.pinState[ballIdx].value(false)
+                    } else if (frame.pinState[ballIdx].arePinsCleared) {
+                        frameScores[frameIdx] += frame.pinState[ballIdx].value(false)
+                        frameScores[frameIdx] += nextFrame.pinState[0].value(false)
+                        val double = frameScores[frameIdx] == ScoringRules.MAX_FRAME_VALUE * 2
+
+                        if (ballIdx == 0) {
+                            if (frameIdx + 1 == ScoringRules.LAST_FRAME) {
+                                if (double) {
+                                    frameScores[frameIdx] += nextFrame.pinState[1].value(false)
+                                } else {
+                                    frameScores[frameIdx] += nextFrame.pinState[1].valueDifference(nextFrame.pinState[0])
+                                }
+                            } else if (!double) {
+                                frameScores[frameIdx] += nextFrame.pinState[1].valueDifference(nextFrame.pinState[0])
+                            } else {
+                                frameScores[frameIdx] += frames[frameIdx + 2].pinState[0].value(false)
+                            }
+                        }
+                        break
+                    }
+                }
+            }
+        }
+
+        var totalScore = 0
+        for (i in 0 until frames.size) {
+            totalScore += frameScores[i]
+            frameScores[i] = totalScore
+        }
+
+        return frameScores
+    }
+}
@@ -0,0 +1,89 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Tests for simulating games from a [LeaveDistribution].
+ */
+class GameSimulatorTest {
+
+    companion object {
+        private const val SIMULATIONS = 2000
+        private const val NO_DEADLINE = Long.MAX_VALUE
+    }
+
+    private val random = Random(20181017)
+
+    @Test
+    fun perfectBowler_alwaysBowlsPerfectGames() {
+        val distribution = LeaveDistribution.Builder()
+                .addFrame(Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsDown }, 0, isLastFrame = true)
+                .build()
+        val simulator = GameSimulator(distribution, buildEmptyGame(), 0, 0, 0, 2, random)
+        simulator.run(SIMULATIONS, NO_DEADLINE)
+
+        val projection = ScoreProjection(remainingGames = 2, seriesOffset = 100)
+        projection.add(simulator)
+        assertEquals(SIMULATIONS, projection.simulations)
+        assertEquals(1.0, projection.scoreProbability(ScoringRules.MAX_SCORE), 0.0)
+        assertEquals(1.0, projection.winProbability(ScoringRules.MAX_SCORE - 1), 0.0)
+        assertEquals(0.0, projection.winProbability(ScoringRules.MAX_SCORE), 0.0)
+        assertEquals(100.0 + ScoringRules.MAX_SCORE * 3, projection.averageSeries, 0.0)
+    }
+
+    @Test
+    fun simulatedScores_arePossible() {
+        val builder = LeaveDistribution.Builder()
+        for (frameIdx in 0 until 200) {
+            builder.addFrame(buildRandomPinState(), random.nextInt(Fouls.ALL_BALLS_FOULED + 1), isLastFrame = frameIdx % 10 == 0)
+        }
+        val distribution = builder.build()
+
+        for (gameIdx in 0 until 20) {
+            val frames = List(ScoringRules.NUMBER_OF_FRAMES) { TestFrame(buildRandomPinState()) }
+            val frameIdx = random.nextInt(ScoringRules.NUMBER_OF_FRAMES)
+            val simulator = GameSimulator(distribution, frames, frameIdx, 0, 0, 0, random)
+            simulator.run(SIMULATIONS / 10, NO_DEADLINE)
+
+            val possibleScores = PossibleScores()
+            possibleScores.update(frames, frameIdx, 0, 0)
+            for (score in simulator.gameScores.indices) {
+                if (simulator.gameScores[score] == 0) { continue }
+                assertTrue("Game $gameIdx scored $score", score <= possibleScores.bestScore)
+            }
+        }
+    }
+
+    @Test
+    fun passedDeadline_runsNoSimulations() {
+        val distribution = LeaveDistribution.Builder().build()
+        val simulator = GameSimulator(distribution, buildEmptyGame(), 0, 0, 0, 0, random)
+        simulator.run(SIMULATIONS, System.nanoTime() - 1)
+        assertEquals(0, simulator.simulations)
+    }
+
+    // MARK: Private functions
+
+    private class TestFrame(override val pinState: Array<Deck>) : ScoringFrame {
+        override val isAccessed = true
+    }
+
+    private fun buildEmptyGame(): List<TestFrame> {
+        return List(ScoringRules.NUMBER_OF_FRAMES) { TestFrame(Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsUp }) }
+    }
+
+    private fun buildRandomPinState(): Array<Deck> {
+        val pinState = Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsUp }
+        for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+            val previous = if (ballIdx == 0) 0 else pinState[ballIdx - 1].mask
+            pinState[ballIdx] = Deck.fromInt(previous or random.nextInt(Deck.NUMBER_OF_STATES))
+        }
+        return pinState
+    }
+}
@@ -0,0 +1,165 @@
+package ca.josephroque.bowlingcompanion.scoring
+
+import ca.josephroque.bowlingcompanion.games.lane.Deck
+import ca.josephroque.bowlingcompanion.games.lane.arePinsCleared
+import ca.josephroque.bowlingcompanion.games.lane.valueDifference
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.util.Random
+
+/**
+ * Copyright (C) 2018 Joseph Roque
+ *
+ * Compares [PossibleScores] against scoring every way the rest of a game could be thrown with
+ * [GameScorer], for games near their end.
+ */
+class PossibleScoresTest {
+
+    companion object {
+        private const val NUMBER_OF_GAMES = 40
+        private const val PERFECT_GAME_PINS = 12 * ScoringRules.MAX_FRAME_VALUE
+    }
+
+    private val random = Random(20181017)
+
+    @Test
+    fun newGame_canBePerfect() {
+        val frames = List(ScoringRules.NUMBER_OF_FRAMES) { TestFrame(Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsUp }) }
+        val possibleScores = PossibleScores()
+        possibleScores.update(frames, 0, 0, 0)
+
+        assertEquals(ScoringRules.MAX_SCORE, possibleScores.bestScore)
+        assertEquals(0, possibleScores.worstScore)
+        assertEquals(0, possibleScores.pinsNeeded(0))
+        assertEquals(PERFECT_GAME_PINS, possibleScores.pinsNeeded(ScoringRules.MAX_SCORE))
+        assertEquals(PossibleScores.UNREACHABLE, possibleScores.pinsNeeded(ScoringRules.MAX_SCORE + 1))
+    }
+
+    @Test
+    fun lastFrame_matchesBruteForce() {
+        for (gameIdx in 0 until NUMBER_OF_GAMES) {
+            for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                assertMatchesBruteForce(ScoringRules.LAST_FRAME, ballIdx)
+            }
+        }
+    }
+
+    @Test
+    fun lastTwoFrames_matchBruteForce() {
+        for (gameIdx in 0 until NUMBER_OF_GAMES / 10) {
+            for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+                assertMatchesBruteForce(ScoringRules.LAST_FRAME - 1, ballIdx)
+            }
+        }
+    }
+
+    // MARK: Private functions
+
+    private class TestFrame(override var pinState: Array<Deck>) : ScoringFrame {
+        override val isAccessed = true
+    }
+
+    private fun assertMatchesBruteForce(frameIdx: Int, ballIdx: Int) {
+        val frames = List(ScoringRules.NUMBER_OF_FRAMES) { TestFrame(buildRandomPinState(it)) }
+
+        // Balls before the current one in a frame can't be a strike or spare, except in the last frame
+        var currentBallIdx = ballIdx
+        if (frameIdx != ScoringRules.LAST_FRAME) {
+            val pinState = frames[frameIdx].pinState
+            while (currentBallIdx > 0 && pinState[currentBallIdx - 1].arePinsCleared) {
+                currentBallIdx--
+            }
+        }
+
+        val fouls = random.nextInt(3)
+        val possibleScores = PossibleScores()
+        possibleScores.update(frames, frameIdx, currentBallIdx, fouls)
+
+        val bruteForce = BruteForce(frames, fouls)
+        bruteForce.throwBalls(frameIdx, currentBallIdx, 0)
+
+        val message = "Frame $frameIdx, ball $currentBallIdx"
+        assertEquals(message, bruteForce.bestScore, possibleScores.bestScore)
+        assertEquals(message, bruteForce.worstScore, possibleScores.worstScore)
+        for (targetScore in 0..ScoringRules.MAX_SCORE + 1) {
+            assertEquals("$message, target $targetScore", bruteForce.pinsNeeded(targetScore), possibleScores.pinsNeeded(targetScore))
+        }
+    }
+
+    private fun buildRandomPinState(frameIdx: Int): Array<Deck> {
+        val pinState = Array(ScoringRules.NUMBER_OF_BALLS) { Deck.allPinsUp }
+        for (ballIdx in 0 until ScoringRules.NUMBER_OF_BALLS) {
+            // Favour strikes and spares, which is where frames depend on each other
+            val previous = if (ballIdx == 0) Deck.allPinsUp else pinState[ballIdx - 1]
+            pinState[ballIdx] = when {
+                random.nextInt(3) == 0 -> Deck.allPinsDown
+                previous.arePinsCleared && frameIdx == ScoringRules.LAST_FRAME -> Deck.fromInt(random.nextInt(Deck.NUMBER_OF_STATES))
+                previous.arePinsCleared -> Deck.allPinsDown
+                else -> Deck.fromInt(previous.mask or random.nextInt(Deck.NUMBER_OF_STATES))
+            }
+        }
+        return pinState
+    }
+
+    /** Scores every way the rest of a game could be thrown. */
+    private class BruteForce(private val frames: List<TestFrame>, private val fouls: Int) {
+        private val scorer = GameScorer(frames)
+
+        /** Fewest pins knocked down to finish with each score. */
+        private val minPins = IntArray(ScoringRules.MAX_SCORE + 1) { Int.MAX_VALUE }
+
+        var bestScore = 0
+            private set
+
+        var worstScore = ScoringRules.MAX_SCORE
+            private set
+
+        fun throwBalls(frameIdx: Int, ballIdx: Int, pins: Int) {
+            if (frameIdx == ScoringRules.NUMBER_OF_FRAMES) {
+                scorer.markAllDirty()
+                scorer.update()
+                val score = maxOf(scorer.totalScore - fouls * ScoringRules.FOUL_PENALTY, 0)
+                bestScore = maxOf(bestScore, score)
+                worstScore = minOf(worstScore, score)
+                minPins[score] = minOf(minPins[score], pins)
+                return
+            }
+
+            val pinState = frames[frameIdx].pinState
+            val previous = if (ballIdx == 0) Deck.allPinsUp else pinState[ballIdx - 1]
+            val rack = if (previous.arePinsCleared) Deck.allPinsUp else previous
+            for (mask in 0 until Deck.NUMBER_OF_STATES) {
+                val deck = Deck.fromInt(mask)
+                if (mask and rack.mask != rack.mask) { continue }
+
+                val ballPins = pins + deck.valueDifference(rack)
+                if (frameIdx == ScoringRules.LAST_FRAME) {
+                    pinState[ballIdx] = deck
+                    if (ballIdx == ScoringRules.LAST_BALL) {
+                        throwBalls(frameIdx + 1, 0, ballPins)
+                    } else {
+                        throwBalls(frameIdx, ballIdx + 1, ballPins)
+                    }
+                } else {
+                    // The balls after a strike or spare keep the same pins
+                    for (i in ballIdx until ScoringRules.NUMBER_OF_BALLS) {
+                        pinState[i] = deck
+                    }
+                    if (deck.arePinsCleared || ballIdx == ScoringRules.LAST_BALL) {
+                        throwBalls(frameIdx + 1, 0, ballPins)
+                    } else {
+                        throwBalls(frameIdx, ballIdx + 1, ballPins)
+                    }
+                }
+            }
+        }
+
+        fun pinsNeeded(targetScore: Int): Int {
+            var pinsNeeded = Int.MAX_VALUE
+            for (score in maxOf(targetScore, 0)..ScoringRules.MAX_SCORE) {
+                pinsNeeded = minOf(pinsNeeded, minPins[score])
+            }
+            return if (pinsNeeded == Int.MAX_VALUE) PossibleScores.UNREACHABLE else pinsNeeded
+        }
+    }
+}